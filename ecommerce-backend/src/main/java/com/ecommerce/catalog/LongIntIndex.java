@@ -0,0 +1,128 @@
+package com.ecommerce.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from {@code long} keys to non-negative {@code int} values, held in
+ * two primitive arrays: a few bytes per entry and nothing for the garbage collector to
+ * trace. Linear probing at a load factor of at most one half; removal shifts the rest of
+ * the probe run back instead of leaving markers. Not thread-safe.
+ */
+class LongIntIndex {
+
+    static final int MISSING = -1;
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int get(long key) {
+        checkKey(key);
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == FREE) {
+                return MISSING;
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        checkKey(key);
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+            if (k == FREE) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    int remove(long key) {
+        checkKey(key);
+        int i = slot(key);
+        while (keys[i] != key) {
+            if (keys[i] == FREE) {
+                return MISSING;
+            }
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        // Move later entries of the probe run into the gap so lookups never stop early
+        int gap = i;
+        for (int j = (gap + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = FREE;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static void checkKey(long key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Reserved key " + key);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.ecommerce.catalog;
+
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.service.CatalogVersionService;
+import com.ecommerce.service.CatalogVersionService.CatalogChanges;
+import com.ecommerce.service.FlashSaleInventoryService;
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves product reads from a {@link ProductRecordStore} instead of Hibernate entities.
+ * Enabled with {@code catalog.store.enabled=true}; until the store has loaded, reads go
+ * to the database as before.
+ * <p>
+ * At startup the store is restored from the snapshot at {@code catalog.store.snapshot-path}
+ * and brought up to date with the catalog changes since the snapshot's catalog version
+ * ({@link CatalogVersionService}), so a restart reads only what changed instead of the
+ * whole table. Without a usable snapshot it is loaded with one streaming query. Committed
+ * product changes mark products dirty, and the next read reloads them; the snapshot is
+ * rewritten every {@code catalog.store.snapshot-interval-ms} and at shutdown.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.store.enabled", havingValue = "true")
+public class OffHeapProductCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapProductCatalog.class);
+
+    private static final String SELECT_PRODUCTS =
+            "SELECT id, name, description, price, stock, category, image_url, flash_sale_buckets, version " +
+            "FROM products";
+
+    private static final String SELECT_PRODUCTS_BY_ID = SELECT_PRODUCTS + " WHERE id IN (:ids)";
+
+    private static final int FETCH_SIZE = 1000;
+
+    // Bounds the IN list after a restart from an old snapshot, when every product changed since is dirty
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final FlashSaleInventoryService flashSaleInventoryService;
+    private final CatalogVersionService catalogVersionService;
+    private final Path snapshotPath;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile ProductRecordStore store;
+
+    public OffHeapProductCatalog(NamedParameterJdbcTemplate jdbcTemplate,
+                                 FlashSaleInventoryService flashSaleInventoryService,
+                                 CatalogVersionService catalogVersionService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${catalog.store.snapshot-path:data/catalog.snapshot}") String snapshotPath) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flashSaleInventoryService = flashSaleInventoryService;
+        this.catalogVersionService = catalogVersionService;
+        this.snapshotPath = Path.of(snapshotPath);
+        Gauge.builder("catalog.store.products", this, catalog -> catalog.store != null ? catalog.store.size() : 0)
+                .description("Products held in the off-heap catalog store")
+                .register(meterRegistry);
+        Gauge.builder("catalog.store.bytes", this, catalog -> catalog.store != null ? catalog.store.offHeapBytes() : 0)
+                .description("Direct memory held by the off-heap catalog store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return store != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        // Changes committed from here on are reloaded on the first read
+        dirty.clear();
+        ProductRecordStore loaded = null;
+        if (Files.exists(snapshotPath)) {
+            try {
+                ProductRecordStore.Snapshot snapshot = ProductRecordStore.loadSnapshot(snapshotPath);
+                if (snapshot.catalogVersion() <= catalogVersionService.getCurrentVersion()) {
+                    CatalogChanges changes = catalogVersionService.getChangesSince(snapshot.catalogVersion());
+                    changes.deleted().forEach(snapshot.store()::remove);
+                    dirty.addAll(changes.productIds());
+                    loaded = snapshot.store();
+                    log.info("Catalog store restored {} products from {} at version {}; {} changed since",
+                            loaded.size(), snapshotPath, snapshot.catalogVersion(), changes.productIds().size());
+                } else {
+                    log.warn("Catalog snapshot {} is at version {}, ahead of the database; reloading",
+                            snapshotPath, snapshot.catalogVersion());
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not load catalog snapshot {}; reloading from the database", snapshotPath, e);
+            }
+        }
+        if (loaded == null) {
+            loaded = new ProductRecordStore(1024);
+            JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+            streaming.setFetchSize(FETCH_SIZE);
+            streaming.query(SELECT_PRODUCTS, rowLoader(loaded));
+            log.info("Catalog store loaded {} products from the database", loaded.size());
+        }
+        store = loaded;
+        log.debug("Catalog store ready in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /** Runs before other listeners so anything that sees a change also finds it dirty here. */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        dirty.addAll(event.productIds());
+    }
+
+    public ProductDTO getProduct(Long id) {
+        ProductRecordStore current = refreshed();
+        return current.get(id, bucketStock(current.flashSaleIds(List.of(id))).get(id));
+    }
+
+    public List<ProductDTO> getProducts(Collection<Long> ids) {
+        ProductRecordStore current = refreshed();
+        return current.getAll(ids, bucketStock(current.flashSaleIds(ids)));
+    }
+
+    public List<ProductDTO> getAllProducts() {
+        ProductRecordStore current = refreshed();
+        return current.scan(null, bucketStock(current.flashSaleIds(null)));
+    }
+
+    public List<ProductDTO> getProductsByCategory(String category) {
+        ProductRecordStore current = refreshed();
+        return current.scan(category, bucketStock(current.flashSaleIds(null)));
+    }
+
+    @Scheduled(initialDelayString = "${catalog.store.snapshot-interval-ms:600000}",
+            fixedDelayString = "${catalog.store.snapshot-interval-ms:600000}")
+    public void writeSnapshot() {
+        if (store == null) {
+            return;
+        }
+        // Publish pending versions first: everything up to that version is then in the store
+        catalogVersionService.flush();
+        long version = catalogVersionService.getCurrentVersion();
+        ProductRecordStore current = refreshed();
+        try {
+            current.writeSnapshot(snapshotPath, version);
+            log.debug("Wrote catalog snapshot of {} products at version {} to {}", current.size(), version, snapshotPath);
+        } catch (IOException e) {
+            log.warn("Could not write catalog snapshot {}", snapshotPath, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        writeSnapshot();
+    }
+
+    private ProductRecordStore refreshed() {
+        ProductRecordStore current = store;
+        if (dirty.isEmpty()) {
+            return current;
+        }
+        refreshLock.lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+                ids.add(it.next());
+                it.remove();
+            }
+            if (ids.isEmpty()) {
+                return current;
+            }
+            for (int from = 0; from < ids.size(); from += RELOAD_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, ids.size()));
+                Set<Long> missing = new HashSet<>(chunk);
+                try {
+                    jdbcTemplate.query(SELECT_PRODUCTS_BY_ID, new MapSqlParameterSource("ids", chunk),
+                            (RowCallbackHandler) rs -> {
+                                missing.remove(rs.getLong("id"));
+                                rowLoader(current).processRow(rs);
+                            });
+                } catch (RuntimeException e) {
+                    // Chunks already applied stay applied; this one and the rest are retried next time
+                    dirty.addAll(ids.subList(from, ids.size()));
+                    throw e;
+                }
+                missing.forEach(current::remove);
+            }
+            return current;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Map<Long, Integer> bucketStock(List<Long> flashSaleIds) {
+        return flashSaleIds.isEmpty() ? Collections.emptyMap() : flashSaleInventoryService.getAvailableStock(flashSaleIds);
+    }
+
+    private static RowCallbackHandler rowLoader(ProductRecordStore target) {
+        return rs -> target.put(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getBigDecimal("price"),
+                rs.getInt("stock"),
+                rs.getString("category"),
+                rs.getString("image_url"),
+                rs.getInt("flash_sale_buckets"),
+                rs.getLong("version"));
+    }
+}
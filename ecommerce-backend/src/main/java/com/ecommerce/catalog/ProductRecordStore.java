@@ -0,0 +1,456 @@
+package com.ecommerce.catalog;
+
+import com.ecommerce.dto.ProductDTO;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Products as fixed-size records in direct (off-heap) memory, so a catalog of millions of
+ * products costs the garbage collector two primitive arrays instead of millions of
+ * objects. Strings live in an append-only UTF-8 arena next to the records; a record holds
+ * offsets into it. Categories are interned to small ids, so a category scan compares
+ * ints. Records are found through a {@link LongIntIndex} from product id to slot.
+ * <p>
+ * Record layout ({@value #RECORD_SIZE} bytes, all offsets in bytes):
+ * <pre>
+ *  0 id                 long
+ *  8 price              long, minor units (scale 2)
+ * 16 stock              int
+ * 20 flash-sale buckets int
+ * 24 category id        int, -1 for none
+ * 28 name               int offset, int length (-1 for null)
+ * 36 description        int offset, int length
+ * 44 image URL          int offset, int length
+ * 52 (unused)           int
+ * 56 version            long
+ * </pre>
+ * The store can be written to a snapshot file and loaded back by mapping it into memory.
+ * Thread-safe: reads share a read lock, changes take the write lock.
+ */
+public class ProductRecordStore {
+
+    static final int RECORD_SIZE = 64;
+
+    private static final int ID = 0;
+    private static final int PRICE = 8;
+    private static final int STOCK = 16;
+    private static final int BUCKETS = 20;
+    private static final int CATEGORY = 24;
+    private static final int NAME = 28;
+    private static final int DESCRIPTION = 36;
+    private static final int IMAGE_URL = 44;
+    private static final int VERSION = 56;
+
+    private static final long REMOVED = Long.MIN_VALUE;
+    private static final int SNAPSHOT_MAGIC = 0x43415431;
+    private static final int SNAPSHOT_FORMAT = 1;
+    private static final int SNAPSHOT_HEADER = 4 + 4 + 8 + 4 + 4 + 4;
+    private static final int MIN_COMPACT_BYTES = 1 << 20;
+    private static final int MAX_BUFFER_BYTES = Integer.MAX_VALUE - 8;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntIndex index;
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    private ByteBuffer records;
+    private ByteBuffer arena;
+    private int slots;
+    private int arenaSize;
+    private int arenaGarbage;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    public ProductRecordStore(int expectedProducts) {
+        int capacity = Math.max(expectedProducts, 16);
+        this.index = new LongIntIndex(capacity);
+        this.records = ByteBuffer.allocateDirect(capacity * RECORD_SIZE);
+        this.arena = ByteBuffer.allocateDirect(capacity * 64);
+    }
+
+    public void put(long id, String name, String description, BigDecimal price, int stock, String category,
+                    String imageUrl, int flashSaleBuckets, long version) {
+        long priceMinor = price.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        lock.writeLock().lock();
+        try {
+            int slot = index.get(id);
+            if (slot == LongIntIndex.MISSING) {
+                slot = allocateSlot();
+                index.put(id, slot);
+            } else {
+                releaseStrings(slot);
+            }
+            int base = slot * RECORD_SIZE;
+            records.putLong(base + ID, id);
+            records.putLong(base + PRICE, priceMinor);
+            records.putInt(base + STOCK, stock);
+            records.putInt(base + BUCKETS, flashSaleBuckets);
+            records.putInt(base + CATEGORY, categoryId(category));
+            writeString(base + NAME, name);
+            writeString(base + DESCRIPTION, description);
+            writeString(base + IMAGE_URL, imageUrl);
+            records.putLong(base + VERSION, version);
+            if (arenaGarbage > MIN_COMPACT_BYTES && arenaGarbage > arenaSize / 2) {
+                compactArena();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int slot = index.remove(id);
+            if (slot == LongIntIndex.MISSING) {
+                return false;
+            }
+            releaseStrings(slot);
+            records.putLong(slot * RECORD_SIZE + ID, REMOVED);
+            pushFreeSlot(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Renders a product, or returns null if it is not in the store. {@code stock}
+     * overrides the stored stock when not null.
+     */
+    public ProductDTO get(long id, Integer stock) {
+        lock.readLock().lock();
+        try {
+            int slot = index.get(id);
+            return slot == LongIntIndex.MISSING ? null : render(slot, stock);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Renders the given products that are in the store, in id order, with stock taken
+     * from {@code stockOverrides} where present.
+     */
+    public List<ProductDTO> getAll(Collection<Long> ids, Map<Long, Integer> stockOverrides) {
+        long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        List<ProductDTO> result = new ArrayList<>(sorted.length);
+        lock.readLock().lock();
+        try {
+            for (long id : sorted) {
+                int slot = index.get(id);
+                if (slot != LongIntIndex.MISSING) {
+                    result.add(render(slot, stockOverrides.get(id)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Renders every product, or every product in {@code category} when it is not null,
+     * in id order.
+     */
+    public List<ProductDTO> scan(String category, Map<Long, Integer> stockOverrides) {
+        List<ProductDTO> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Integer categoryId = category != null ? categoryIds.get(category) : null;
+            if (category != null && categoryId == null) {
+                return result;
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                int base = slot * RECORD_SIZE;
+                long id = records.getLong(base + ID);
+                if (id != REMOVED && (categoryId == null || records.getInt(base + CATEGORY) == categoryId)) {
+                    result.add(render(slot, stockOverrides.get(id)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        return result;
+    }
+
+    /**
+     * Ids of the given products that use flash-sale buckets; all of them when
+     * {@code ids} is null.
+     */
+    public List<Long> flashSaleIds(Collection<Long> ids) {
+        List<Long> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (ids == null) {
+                for (int slot = 0; slot < slots; slot++) {
+                    int base = slot * RECORD_SIZE;
+                    if (records.getLong(base + ID) != REMOVED && records.getInt(base + BUCKETS) > 0) {
+                        result.add(records.getLong(base + ID));
+                    }
+                }
+            } else {
+                for (Long id : ids) {
+                    int slot = index.get(id);
+                    if (slot != LongIntIndex.MISSING && records.getInt(slot * RECORD_SIZE + BUCKETS) > 0) {
+                        result.add(id);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Bytes of direct memory held for records and strings. */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) records.capacity() + arena.capacity();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the store to {@code path} through a temporary file, so a crash never leaves
+     * a half-written snapshot behind. {@code catalogVersion} is stored with it.
+     */
+    public void writeSnapshot(Path path, long catalogVersion) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            lock.readLock().lock();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                List<byte[]> names = categories.stream().map(c -> c.getBytes(StandardCharsets.UTF_8)).toList();
+                int categoryBytes = names.stream().mapToInt(b -> 4 + b.length).sum();
+                ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER + categoryBytes);
+                header.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_FORMAT).putLong(catalogVersion)
+                        .putInt(slots).putInt(arenaSize).putInt(names.size());
+                for (byte[] name : names) {
+                    header.putInt(name.length).put(name);
+                }
+                writeFully(channel, header.flip());
+                writeFully(channel, records.duplicate().position(0).limit(slots * RECORD_SIZE));
+                writeFully(channel, arena.duplicate().position(0).limit(arenaSize));
+                channel.force(false);
+            } finally {
+                lock.readLock().unlock();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Loads a snapshot written by {@link #writeSnapshot}. The file is mapped rather than
+     * read, and records and strings are copied into direct memory in bulk; only the id
+     * index is rebuilt.
+     */
+    public static Snapshot loadSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (file.remaining() < SNAPSHOT_HEADER || file.getInt() != SNAPSHOT_MAGIC
+                    || file.getInt() != SNAPSHOT_FORMAT) {
+                throw new IOException("Not a catalog snapshot: " + path);
+            }
+            long catalogVersion = file.getLong();
+            int slots = file.getInt();
+            int arenaSize = file.getInt();
+            int categoryCount = file.getInt();
+
+            ProductRecordStore store = new ProductRecordStore(slots);
+            for (int i = 0; i < categoryCount; i++) {
+                byte[] name = new byte[file.getInt()];
+                file.get(name);
+                store.categoryId(new String(name, StandardCharsets.UTF_8));
+            }
+            if (file.remaining() != (long) slots * RECORD_SIZE + arenaSize) {
+                throw new IOException("Truncated catalog snapshot: " + path);
+            }
+            store.ensureArena(arenaSize);
+            store.records.put(0, file, file.position(), slots * RECORD_SIZE);
+            store.arena.put(0, file, file.position() + slots * RECORD_SIZE, arenaSize);
+            store.slots = slots;
+            store.arenaSize = arenaSize;
+            for (int slot = 0; slot < slots; slot++) {
+                long id = store.records.getLong(slot * RECORD_SIZE + ID);
+                if (id == REMOVED) {
+                    store.pushFreeSlot(slot);
+                } else {
+                    store.index.put(id, slot);
+                }
+            }
+            store.arenaGarbage = arenaSize - store.liveStringBytes();
+            return new Snapshot(store, catalogVersion);
+        }
+    }
+
+    private ProductDTO render(int slot, Integer stock) {
+        int base = slot * RECORD_SIZE;
+        ProductDTO dto = new ProductDTO();
+        dto.setId(records.getLong(base + ID));
+        dto.setName(readString(base + NAME));
+        dto.setDescription(readString(base + DESCRIPTION));
+        dto.setPrice(BigDecimal.valueOf(records.getLong(base + PRICE), 2));
+        dto.setStock(stock != null ? stock : records.getInt(base + STOCK));
+        int category = records.getInt(base + CATEGORY);
+        dto.setCategory(category < 0 ? null : categories.get(category));
+        dto.setImageUrl(readString(base + IMAGE_URL));
+        dto.setVersion(records.getLong(base + VERSION));
+        return dto;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if ((slots + 1) * RECORD_SIZE > records.capacity()) {
+            records = grow(records, (slots + 1) * RECORD_SIZE, slots * RECORD_SIZE);
+        }
+        return slots++;
+    }
+
+    private void pushFreeSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private int categoryId(String category) {
+        if (category == null) {
+            return -1;
+        }
+        Integer id = categoryIds.get(category);
+        if (id == null) {
+            id = categories.size();
+            categories.add(category);
+            categoryIds.put(category, id);
+        }
+        return id;
+    }
+
+    private void writeString(int field, String value) {
+        if (value == null) {
+            records.putInt(field, 0);
+            records.putInt(field + 4, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureArena(arenaSize + bytes.length);
+        arena.put(arenaSize, bytes);
+        records.putInt(field, arenaSize);
+        records.putInt(field + 4, bytes.length);
+        arenaSize += bytes.length;
+    }
+
+    private String readString(int field) {
+        int length = records.getInt(field + 4);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        arena.get(records.getInt(field), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void releaseStrings(int slot) {
+        int base = slot * RECORD_SIZE;
+        for (int field : new int[]{NAME, DESCRIPTION, IMAGE_URL}) {
+            arenaGarbage += Math.max(0, records.getInt(base + field + 4));
+        }
+    }
+
+    private int liveStringBytes() {
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int base = slot * RECORD_SIZE;
+            if (records.getLong(base + ID) != REMOVED) {
+                for (int field : new int[]{NAME, DESCRIPTION, IMAGE_URL}) {
+                    live += Math.max(0, records.getInt(base + field + 4));
+                }
+            }
+        }
+        return live;
+    }
+
+    /** Copies the live strings into a fresh arena and repoints the records at them. */
+    private void compactArena() {
+        ByteBuffer old = arena;
+        arena = ByteBuffer.allocateDirect(Math.max(arenaSize - arenaGarbage, 64) * 2);
+        arenaSize = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int base = slot * RECORD_SIZE;
+            if (records.getLong(base + ID) == REMOVED) {
+                continue;
+            }
+            for (int field : new int[]{NAME, DESCRIPTION, IMAGE_URL}) {
+                int length = records.getInt(base + field + 4);
+                if (length >= 0) {
+                    arena.put(arenaSize, old, records.getInt(base + field), length);
+                    records.putInt(base + field, arenaSize);
+                    arenaSize += length;
+                }
+            }
+        }
+        arenaGarbage = 0;
+    }
+
+    private void ensureArena(int needed) {
+        if (needed > arena.capacity()) {
+            arena = grow(arena, needed, arenaSize);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed, int used) {
+        if (needed > MAX_BUFFER_BYTES) {
+            throw new IllegalStateException("Catalog store is full");
+        }
+        long capacity = Math.max(buffer.capacity(), 64);
+        while (capacity < needed) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min(capacity, MAX_BUFFER_BYTES));
+        grown.put(0, buffer, 0, used);
+        return grown;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public record Snapshot(ProductRecordStore store, long catalogVersion) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the number of connections handed out at once with a fair semaphore sized to the
+ * connection pool. With virtual threads there is no thread pool to bound concurrency, so
+ * thousands of requests could otherwise queue inside the pool; here they wait in
+ * arrival order, and give up after the acquire timeout with the same
+ * {@link SQLTransientConnectionException} the pool would throw.
+ * <p>
+ * This wrapper replaces the pool as the {@code dataSource} bean, so the container's
+ * inferred destroy method is its {@link #close()}, which closes the pool behind it.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long acquireTimeoutMs;
+
+    public ConnectionLimitingDataSource(DataSource targetDataSource, int maxPermits, long acquireTimeoutMs) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxPermits, true);
+        this.maxPermits = maxPermits;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    public int getMaxPermits() {
+        return maxPermits;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable target) {
+            target.close();
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("No database connection permit available after "
+                        + acquireTimeoutMs + " ms (" + maxPermits + " in use, " + permits.getQueueLength()
+                        + " waiting)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (method.getName().equals("close")) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.config;
 
+import com.ecommerce.model.Money;
 import com.ecommerce.model.Product;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.ProductRepository;
@@ -9,8 +10,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-
 @Component
 public class DataInitializer implements CommandLineRunner {
 
@@ -50,7 +49,7 @@ public class DataInitializer implements CommandLineRunner {
             Product product1 = new Product();
             product1.setName("Wireless Bluetooth Headphones");
             product1.setDescription("High-quality wireless headphones with noise cancellation");
-            product1.setPrice(new BigDecimal("2999.00"));
+            product1.setPrice(Money.of("2999.00"));
             product1.setStock(50);
             product1.setCategory("Electronics");
             product1.setImageUrl("https://example.com/headphones.jpg");
@@ -59,7 +58,7 @@ public class DataInitializer implements CommandLineRunner {
             Product product2 = new Product();
             product2.setName("Smart Watch Pro");
             product2.setDescription("Feature-rich smartwatch with health monitoring");
-            product2.setPrice(new BigDecimal("5999.00"));
+            product2.setPrice(Money.of("5999.00"));
             product2.setStock(30);
             product2.setCategory("Electronics");
             product2.setImageUrl("https://example.com/smartwatch.jpg");
@@ -68,7 +67,7 @@ public class DataInitializer implements CommandLineRunner {
             Product product3 = new Product();
             product3.setName("Cotton T-Shirt");
             product3.setDescription("Comfortable 100% cotton t-shirt");
-            product3.setPrice(new BigDecimal("499.00"));
+            product3.setPrice(Money.of("499.00"));
             product3.setStock(100);
             product3.setCategory("Clothing");
             product3.setImageUrl("https://example.com/tshirt.jpg");
@@ -77,7 +76,7 @@ public class DataInitializer implements CommandLineRunner {
             Product product4 = new Product();
             product4.setName("Running Shoes");
             product4.setDescription("Lightweight running shoes with cushioning");
-            product4.setPrice(new BigDecimal("3499.00"));
+            product4.setPrice(Money.of("3499.00"));
             product4.setStock(40);
             product4.setCategory("Footwear");
             product4.setImageUrl("https://example.com/shoes.jpg");
@@ -86,7 +85,7 @@ public class DataInitializer implements CommandLineRunner {
             Product product5 = new Product();
             product5.setName("Laptop Backpack");
             product5.setDescription("Water-resistant backpack with laptop compartment");
-            product5.setPrice(new BigDecimal("1299.00"));
+            product5.setPrice(Money.of("1299.00"));
             product5.setStock(60);
             product5.setCategory("Accessories");
             product5.setImageUrl("https://example.com/backpack.jpg");
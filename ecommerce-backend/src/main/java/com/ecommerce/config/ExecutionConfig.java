@@ -0,0 +1,117 @@
+package com.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Execution mode for request handling and {@code @Async} work. With
+ * {@code spring.threads.virtual.enabled=true} on a Java 21+ runtime, Spring Boot runs
+ * Tomcat requests and the {@code @Async} executor on virtual threads; otherwise both use
+ * platform thread pools. In either mode database concurrency is bounded by a
+ * {@link ConnectionLimitingDataSource} sized to the connection pool.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ExecutionConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    private final Environment environment;
+
+    public ExecutionConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Bean
+    public static ConnectionLimitingPostProcessor connectionLimitingPostProcessor(Environment environment) {
+        return new ConnectionLimitingPostProcessor(environment);
+    }
+
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionLimitingDataSource limiter = unwrapLimiter(dataSource);
+            if (limiter != null) {
+                Gauge.builder("db.connection.permits.available", limiter,
+                                ConnectionLimitingDataSource::getAvailablePermits)
+                        .description("Database connection permits not in use")
+                        .register(registry);
+                Gauge.builder("db.connection.permits.waiting", limiter,
+                                ConnectionLimitingDataSource::getWaitingThreads)
+                        .description("Threads waiting for a database connection permit")
+                        .register(registry);
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logExecutionMode() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Execution mode: virtual threads for request handling and @Async tasks");
+        } else if (requested) {
+            log.warn("spring.threads.virtual.enabled=true needs Java 21 or later (running {}); "
+                    + "using platform threads", Runtime.version().feature());
+        } else {
+            log.info("Execution mode: platform threads for request handling and @Async tasks");
+        }
+    }
+
+    private static ConnectionLimitingDataSource unwrapLimiter(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConnectionLimitingDataSource.class)
+                    ? dataSource.unwrap(ConnectionLimitingDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Wraps the Hikari pool before anything else does, so the statement-counting proxy
+     * ends up on the outside. Declared with its own type so the container sees
+     * {@link Ordered} before instantiating it.
+     */
+    static final class ConnectionLimitingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private static final int DEFAULT_POOL_SIZE = 10;
+
+        private final Environment environment;
+
+        ConnectionLimitingPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                int permits = environment.getProperty("db.concurrency.permits", Integer.class, 0);
+                long timeoutMs = environment.getProperty("db.concurrency.acquire-timeout-ms", Long.class,
+                        hikari.getConnectionTimeout());
+                if (permits <= 0) {
+                    // Hikari only applies its default of 10 when the pool starts
+                    permits = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+                }
+                return new ConnectionLimitingDataSource(hikari, permits, timeoutMs);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.CacheStatsDTO;
+import com.ecommerce.dto.HotKeyDTO;
+import com.ecommerce.dto.RetryStatsDTO;
+import com.ecommerce.dto.SlowQueryDTO;
+import com.ecommerce.monitoring.CacheStatistics;
+import com.ecommerce.monitoring.HotKeyTracker;
+import com.ecommerce.monitoring.QueryBudget;
+import com.ecommerce.monitoring.SlowQueryRecorder;
+import com.ecommerce.service.OptimisticLockRetrier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final OptimisticLockRetrier optimisticLockRetrier;
+    private final SlowQueryRecorder slowQueryRecorder;
+    private final CacheStatistics cacheStatistics;
+    private final HotKeyTracker hotKeyTracker;
+
+    public AdminController(OptimisticLockRetrier optimisticLockRetrier, SlowQueryRecorder slowQueryRecorder,
+                           CacheStatistics cacheStatistics, HotKeyTracker hotKeyTracker) {
+        this.optimisticLockRetrier = optimisticLockRetrier;
+        this.slowQueryRecorder = slowQueryRecorder;
+        this.cacheStatistics = cacheStatistics;
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @GetMapping("/optimistic-locks")
+    @QueryBudget(0)
+    public ResponseEntity<ApiResponse<List<RetryStatsDTO>>> getOptimisticLockStats() {
+        return ResponseEntity.ok(ApiResponse.success(optimisticLockRetrier.getStats()));
+    }
+
+    @GetMapping("/slow-queries")
+    @QueryBudget(0)
+    public ResponseEntity<ApiResponse<List<SlowQueryDTO>>> getSlowQueries(
+            @RequestParam(defaultValue = "false") boolean explain) {
+        return ResponseEntity.ok(ApiResponse.success(slowQueryRecorder.getSlowQueries(explain)));
+    }
+
+    @DeleteMapping("/slow-queries")
+    @QueryBudget(0)
+    public ResponseEntity<ApiResponse<Void>> clearSlowQueries() {
+        slowQueryRecorder.clear();
+        return ResponseEntity.ok(ApiResponse.success("Slow query log cleared", null));
+    }
+
+    @GetMapping("/cache-stats")
+    @QueryBudget(0)
+    public ResponseEntity<ApiResponse<List<CacheStatsDTO>>> getCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(cacheStatistics.getRegionStats()));
+    }
+
+    @GetMapping("/hot-keys")
+    @QueryBudget(0)
+    public ResponseEntity<ApiResponse<Map<String, List<HotKeyDTO>>>> getHotKeys() {
+        return ResponseEntity.ok(ApiResponse.success(hotKeyTracker.getHotKeys()));
+    }
+}
@@ -1,9 +1,13 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.dto.AddToCartRequest;
+import com.ecommerce.dto.AnonymousCartItemRequest;
 import com.ecommerce.dto.ApiResponse;
 import com.ecommerce.dto.CartItemDTO;
 import com.ecommerce.dto.CartResponse;
+import com.ecommerce.dto.StockAvailabilityResponse;
+import com.ecommerce.limit.RateLimited;
+import com.ecommerce.monitoring.QueryBudget;
 import com.ecommerce.service.CartService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -14,6 +18,8 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/cart")
 public class CartController {
 
+    public static final String CART_TOKEN_HEADER = "X-Cart-Token";
+
     private final CartService cartService;
 
     public CartController(CartService cartService) {
@@ -21,6 +27,8 @@ public class CartController {
     }
 
     @PostMapping("/add")
+    @QueryBudget(5)
+    @RateLimited("cart-add")
     public ResponseEntity<ApiResponse<CartItemDTO>> addToCart(@Valid @RequestBody AddToCartRequest request) {
         CartItemDTO cartItem = cartService.addToCart(request);
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -28,18 +36,30 @@ public class CartController {
     }
 
     @GetMapping("/{userId}")
+    @QueryBudget(2)
     public ResponseEntity<ApiResponse<CartResponse>> getCart(@PathVariable Long userId) {
         CartResponse cart = cartService.getCart(userId);
         return ResponseEntity.ok(ApiResponse.success(cart));
     }
 
+    @GetMapping("/{userId}/availability")
+    @QueryBudget(4)
+    public ResponseEntity<ApiResponse<StockAvailabilityResponse>> checkCartAvailability(@PathVariable Long userId) {
+        StockAvailabilityResponse availability = cartService.checkCartAvailability(userId);
+        return ResponseEntity.ok(ApiResponse.success(availability));
+    }
+
     @DeleteMapping("/{userId}/clear")
+    @QueryBudget(2)
+    @RateLimited("cart-update")
     public ResponseEntity<ApiResponse<Void>> clearCart(@PathVariable Long userId) {
         cartService.clearCart(userId);
         return ResponseEntity.ok(ApiResponse.success("Cart cleared successfully", null));
     }
 
     @PutMapping("/{userId}/items/{productId}")
+    @QueryBudget(3)
+    @RateLimited("cart-update")
     public ResponseEntity<ApiResponse<CartItemDTO>> updateCartItemQuantity(
             @PathVariable Long userId,
             @PathVariable Long productId,
@@ -52,10 +72,65 @@ public class CartController {
     }
 
     @DeleteMapping("/{userId}/items/{productId}")
+    @QueryBudget(2)
+    @RateLimited("cart-update")
     public ResponseEntity<ApiResponse<Void>> removeFromCart(
             @PathVariable Long userId,
             @PathVariable Long productId) {
         cartService.removeFromCart(userId, productId);
         return ResponseEntity.ok(ApiResponse.success("Item removed from cart", null));
     }
+
+    @GetMapping("/anonymous")
+    @QueryBudget(1)
+    public ResponseEntity<ApiResponse<CartResponse>> getAnonymousCart(
+            @RequestHeader(value = CART_TOKEN_HEADER, required = false) String cartToken) {
+        CartResponse cart = cartService.getAnonymousCart(cartToken);
+        return ResponseEntity.ok(ApiResponse.success(cart));
+    }
+
+    @GetMapping("/anonymous/availability")
+    @QueryBudget(2)
+    public ResponseEntity<ApiResponse<StockAvailabilityResponse>> checkAnonymousCartAvailability(
+            @RequestHeader(value = CART_TOKEN_HEADER, required = false) String cartToken) {
+        StockAvailabilityResponse availability = cartService.checkAnonymousCartAvailability(cartToken);
+        return ResponseEntity.ok(ApiResponse.success(availability));
+    }
+
+    @PostMapping("/anonymous/add")
+    @QueryBudget(2)
+    @RateLimited("cart-update")
+    public ResponseEntity<ApiResponse<CartResponse>> addToAnonymousCart(
+            @RequestHeader(value = CART_TOKEN_HEADER, required = false) String cartToken,
+            @Valid @RequestBody AnonymousCartItemRequest request) {
+        String updatedToken = cartService.addToAnonymousCart(cartToken, request.getProductId(), request.getQuantity());
+        CartResponse cart = cartService.getAnonymousCart(updatedToken);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(CART_TOKEN_HEADER, updatedToken)
+                .body(ApiResponse.success("Item added to cart successfully", cart));
+    }
+
+    @PutMapping("/anonymous/items/{productId}")
+    @QueryBudget(2)
+    @RateLimited("cart-update")
+    public ResponseEntity<ApiResponse<CartResponse>> updateAnonymousCartItemQuantity(
+            @RequestHeader(CART_TOKEN_HEADER) String cartToken,
+            @PathVariable Long productId,
+            @RequestParam Integer quantity) {
+        String updatedToken = cartService.updateAnonymousCartItemQuantity(cartToken, productId, quantity);
+        CartResponse cart = cartService.getAnonymousCart(updatedToken);
+        return ResponseEntity.ok()
+                .header(CART_TOKEN_HEADER, updatedToken)
+                .body(ApiResponse.success("Cart item updated successfully", cart));
+    }
+
+    @PostMapping("/{userId}/merge")
+    @QueryBudget(6)
+    @RateLimited("cart-update")
+    public ResponseEntity<ApiResponse<CartResponse>> mergeAnonymousCart(
+            @PathVariable Long userId,
+            @RequestHeader(CART_TOKEN_HEADER) String cartToken) {
+        CartResponse cart = cartService.mergeAnonymousCart(userId, cartToken);
+        return ResponseEntity.ok(ApiResponse.success("Cart merged successfully", cart));
+    }
 }
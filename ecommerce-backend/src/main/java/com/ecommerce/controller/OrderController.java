@@ -4,6 +4,9 @@ import com.ecommerce.dto.ApiResponse;
 import com.ecommerce.dto.CreateOrderRequest;
 import com.ecommerce.dto.OrderDTO;
 import com.ecommerce.model.Order;
+import com.ecommerce.limit.RateLimited;
+import com.ecommerce.monitoring.QueryBudget;
+import com.ecommerce.service.IdempotencyService;
 import com.ecommerce.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -17,31 +20,43 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotencyService idempotencyService) {
         this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<OrderDTO>> createOrder(@Valid @RequestBody CreateOrderRequest request) {
-        OrderDTO order = orderService.createOrder(request);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Order created successfully", order));
+    @QueryBudget(17)
+    @RateLimited("order-create")
+    public ResponseEntity<ApiResponse<OrderDTO>> createOrder(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderRequest request) {
+        return idempotencyService.executeInTransaction("order-create", idempotencyKey, request, OrderDTO.class, () -> {
+            OrderDTO order = orderService.createOrder(request);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Order created successfully", order));
+        });
     }
 
     @GetMapping("/{orderId}")
+    @QueryBudget(1)
     public ResponseEntity<ApiResponse<OrderDTO>> getOrderById(@PathVariable Long orderId) {
         OrderDTO order = orderService.getOrderById(orderId);
         return ResponseEntity.ok(ApiResponse.success(order));
     }
 
     @GetMapping("/user/{userId}")
+    @QueryBudget(3)
     public ResponseEntity<ApiResponse<List<OrderDTO>>> getOrdersByUserId(@PathVariable Long userId) {
         List<OrderDTO> orders = orderService.getOrdersByUserId(userId);
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
 
     @PutMapping("/{orderId}/status")
+    @QueryBudget(2)
+    @RateLimited("order-update")
     public ResponseEntity<ApiResponse<OrderDTO>> updateOrderStatus(
             @PathVariable Long orderId,
             @RequestParam Order.OrderStatus status) {
@@ -50,6 +65,8 @@ public class OrderController {
     }
 
     @PostMapping("/{orderId}/cancel")
+    @QueryBudget(8)
+    @RateLimited("order-update")
     public ResponseEntity<ApiResponse<OrderDTO>> cancelOrder(@PathVariable Long orderId) {
         OrderDTO order = orderService.cancelOrder(orderId);
         return ResponseEntity.ok(ApiResponse.success("Order cancelled successfully", order));
@@ -4,6 +4,9 @@ import com.ecommerce.dto.ApiResponse;
 import com.ecommerce.dto.CreatePaymentRequest;
 import com.ecommerce.dto.PaymentCallbackRequest;
 import com.ecommerce.dto.PaymentDTO;
+import com.ecommerce.limit.RateLimited;
+import com.ecommerce.monitoring.QueryBudget;
+import com.ecommerce.service.IdempotencyService;
 import com.ecommerce.service.PaymentService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -18,25 +21,35 @@ import java.util.Map;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyService idempotencyService) {
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping("/create")
-    public ResponseEntity<ApiResponse<PaymentDTO>> createPayment(@Valid @RequestBody CreatePaymentRequest request) {
-        PaymentDTO payment = paymentService.createPayment(request.getOrderId());
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Payment initiated successfully", payment));
+    @QueryBudget(8)
+    @RateLimited("payment-create")
+    public ResponseEntity<ApiResponse<PaymentDTO>> createPayment(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreatePaymentRequest request) {
+        return idempotencyService.execute("payment-create", idempotencyKey, request, PaymentDTO.class, () -> {
+            PaymentDTO payment = paymentService.createPayment(request.getOrderId());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Payment initiated successfully", payment));
+        });
     }
 
     @GetMapping("/order/{orderId}")
+    @QueryBudget(1)
     public ResponseEntity<ApiResponse<PaymentDTO>> getPaymentByOrderId(@PathVariable Long orderId) {
         PaymentDTO payment = paymentService.getPaymentByOrderId(orderId);
         return ResponseEntity.ok(ApiResponse.success(payment));
     }
 
     @GetMapping("/razorpay-key")
+    @QueryBudget(0)
     public ResponseEntity<ApiResponse<Map<String, String>>> getRazorpayKey() {
         Map<String, String> response = new HashMap<>();
         response.put("key", paymentService.getRazorpayKeyId());
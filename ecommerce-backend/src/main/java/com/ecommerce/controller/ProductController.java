@@ -1,26 +1,47 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.CatalogChangesDTO;
 import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.dto.ProductPopularityDTO;
+import com.ecommerce.dto.StockAvailabilityResponse;
+import com.ecommerce.dto.StockCheckItem;
+import com.ecommerce.dto.StockCheckRequest;
+import com.ecommerce.monitoring.QueryBudget;
+import com.ecommerce.popularity.ProductPopularityService;
+import com.ecommerce.service.CatalogResponseCache;
+import com.ecommerce.service.CatalogResponseCache.CatalogResponse;
 import com.ecommerce.service.ProductService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final String GZIP = "gzip";
+
     private final ProductService productService;
+    private final CatalogResponseCache catalogResponseCache;
+    private final ProductPopularityService productPopularityService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CatalogResponseCache catalogResponseCache,
+                             ProductPopularityService productPopularityService) {
         this.productService = productService;
+        this.catalogResponseCache = catalogResponseCache;
+        this.productPopularityService = productPopularityService;
     }
 
     @PostMapping
+    @QueryBudget(1)
     public ResponseEntity<ApiResponse<ProductDTO>> createProduct(@Valid @RequestBody ProductDTO productDTO) {
         ProductDTO createdProduct = productService.createProduct(productDTO);
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -28,34 +49,119 @@ public class ProductController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getAllProducts() {
-        List<ProductDTO> products = productService.getAllProducts();
-        return ResponseEntity.ok(ApiResponse.success(products));
+    @QueryBudget(2)
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogResponse(catalogResponseCache.getAllProducts(), acceptEncoding);
+    }
+
+    @GetMapping("/changes")
+    @QueryBudget(4)
+    public ResponseEntity<ApiResponse<CatalogChangesDTO>> getCatalogChanges(@RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(ApiResponse.success(productService.getCatalogChanges(since)));
     }
 
     @GetMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<ApiResponse<ProductDTO>> getProductById(@PathVariable Long id) {
         ProductDTO product = productService.getProductById(id);
+        productPopularityService.productViewed(id);
         return ResponseEntity.ok(ApiResponse.success(product));
     }
 
+    @GetMapping("/most-viewed")
+    @QueryBudget(0)
+    public ResponseEntity<ApiResponse<List<ProductPopularityDTO>>> getMostViewed(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(productPopularityService.getMostViewed(limit)));
+    }
+
+    @GetMapping("/best-selling")
+    @QueryBudget(0)
+    public ResponseEntity<ApiResponse<List<ProductPopularityDTO>>> getBestSelling(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(productPopularityService.getBestSelling(limit)));
+    }
+
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getProductsByCategory(@PathVariable String category) {
-        List<ProductDTO> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(ApiResponse.success(products));
+    @QueryBudget(2)
+    public ResponseEntity<byte[]> getProductsByCategory(
+            @PathVariable String category,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogResponse(catalogResponseCache.getProductsByCategory(category), acceptEncoding);
     }
 
     @GetMapping("/search")
+    @QueryBudget(2)
     public ResponseEntity<ApiResponse<List<ProductDTO>>> searchProducts(@RequestParam String name) {
         List<ProductDTO> products = productService.searchProducts(name);
         return ResponseEntity.ok(ApiResponse.success(products));
     }
 
+    @PostMapping("/availability")
+    @QueryBudget(2)
+    public ResponseEntity<ApiResponse<StockAvailabilityResponse>> checkAvailability(
+            @Valid @RequestBody StockCheckRequest request) {
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        for (StockCheckItem item : request.getItems()) {
+            requested.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        StockAvailabilityResponse availability = productService.checkAvailability(requested);
+        return ResponseEntity.ok(ApiResponse.success(availability));
+    }
+
     @PutMapping("/{id}")
+    @QueryBudget(3)
     public ResponseEntity<ApiResponse<ProductDTO>> updateProduct(
             @PathVariable Long id,
             @Valid @RequestBody ProductDTO productDTO) {
         ProductDTO updatedProduct = productService.updateProduct(id, productDTO);
         return ResponseEntity.ok(ApiResponse.success("Product updated successfully", updatedProduct));
     }
+
+    @PostMapping("/{id}/flash-sale")
+    @QueryBudget(10)
+    public ResponseEntity<ApiResponse<ProductDTO>> enableFlashSale(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "8") Integer buckets) {
+        ProductDTO product = productService.enableFlashSale(id, buckets);
+        return ResponseEntity.ok(ApiResponse.success("Flash-sale inventory enabled", product));
+    }
+
+    @DeleteMapping("/{id}/flash-sale")
+    @QueryBudget(5)
+    public ResponseEntity<ApiResponse<ProductDTO>> disableFlashSale(@PathVariable Long id) {
+        ProductDTO product = productService.disableFlashSale(id);
+        return ResponseEntity.ok(ApiResponse.success("Flash-sale inventory disabled", product));
+    }
+
+    /**
+     * Writes a cached catalog response as is. Spring answers {@code If-None-Match} with
+     * 304 from the ETag; the gzip copy carries its own ETag since it is a different body.
+     */
+    private static ResponseEntity<byte[]> catalogResponse(CatalogResponse response, String acceptEncoding) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return builder.eTag(response.etag() + "-" + GZIP)
+                    .header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                    .body(response.gzip());
+        }
+        return builder.eTag(response.etag()).body(response.json());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(GZIP) || name.equals("*")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
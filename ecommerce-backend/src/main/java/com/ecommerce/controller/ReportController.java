@@ -0,0 +1,76 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.CategorySalesDTO;
+import com.ecommerce.dto.DailySalesDTO;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.monitoring.QueryBudget;
+import com.ecommerce.reporting.ExportFormat;
+import com.ecommerce.reporting.OrderExportService;
+import com.ecommerce.reporting.SalesRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    public static final String ORDER_EXPORT_PATH = "/api/reports/orders/export";
+
+    private static final int DEFAULT_EXPORT_DAYS = 30;
+
+    private final SalesRollupService salesRollupService;
+    private final OrderExportService orderExportService;
+
+    public ReportController(SalesRollupService salesRollupService, OrderExportService orderExportService) {
+        this.salesRollupService = salesRollupService;
+        this.orderExportService = orderExportService;
+    }
+
+    @GetMapping("/sales/daily")
+    @QueryBudget(0)
+    public ResponseEntity<ApiResponse<List<DailySalesDTO>>> getDailySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(ApiResponse.success(salesRollupService.getDailySales(from, to)));
+    }
+
+    @GetMapping("/sales/categories")
+    @QueryBudget(0)
+    public ResponseEntity<ApiResponse<List<CategorySalesDTO>>> getSalesByCategory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(ApiResponse.success(salesRollupService.getSalesByCategory(from, to)));
+    }
+
+    /**
+     * Streams the orders placed from {@code from} to {@code to} as an attachment. The
+     * orders are read on the async thread writing the body, not on this one.
+     */
+    @GetMapping("/orders/export")
+    @QueryBudget(0)
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_EXPORT_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        String filename = "orders-" + start + "-" + end + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> orderExportService.export(start, end, exportFormat, out));
+    }
+}
@@ -2,6 +2,7 @@ package com.ecommerce.controller;
 
 import com.ecommerce.dto.ApiResponse;
 import com.ecommerce.dto.UserDTO;
+import com.ecommerce.monitoring.QueryBudget;
 import com.ecommerce.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -21,6 +22,7 @@ public class UserController {
     }
 
     @PostMapping
+    @QueryBudget(2)
     public ResponseEntity<ApiResponse<UserDTO>> createUser(@Valid @RequestBody UserDTO userDTO) {
         UserDTO createdUser = userService.createUser(userDTO);
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -28,12 +30,14 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
+    @QueryBudget(1)
     public ResponseEntity<ApiResponse<UserDTO>> getUserById(@PathVariable Long id) {
         UserDTO user = userService.getUserById(id);
         return ResponseEntity.ok(ApiResponse.success(user));
     }
 
     @GetMapping
+    @QueryBudget(1)
     public ResponseEntity<ApiResponse<List<UserDTO>>> getAllUsers() {
         List<UserDTO> users = userService.getAllUsers();
         return ResponseEntity.ok(ApiResponse.success(users));
@@ -3,6 +3,7 @@ package com.ecommerce.controller;
 import com.ecommerce.dto.ApiResponse;
 import com.ecommerce.dto.PaymentCallbackRequest;
 import com.ecommerce.dto.PaymentDTO;
+import com.ecommerce.monitoring.QueryBudget;
 import com.ecommerce.service.PaymentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,7 @@ public class WebhookController {
     }
 
     @PostMapping("/payment")
+    @QueryBudget(4)
     public ResponseEntity<ApiResponse<PaymentDTO>> handlePaymentWebhook(@RequestBody PaymentCallbackRequest request) {
         log.info("Received payment webhook: orderId={}, paymentId={}",
                 request.getRazorpay_order_id(), request.getRazorpay_payment_id());
@@ -3,7 +3,7 @@ package com.ecommerce.dto;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
-public class AddToCartRequest {
+public class AddToCartRequest implements UserScopedRequest {
 
     @NotNull(message = "User ID is required")
     private Long userId;
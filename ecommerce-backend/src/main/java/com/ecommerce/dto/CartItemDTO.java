@@ -1,8 +1,8 @@
 package com.ecommerce.dto;
 
+import com.ecommerce.model.Money;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
-import java.math.BigDecimal;
 
 public class CartItemDTO {
 
@@ -16,18 +16,18 @@ public class CartItemDTO {
 
     private String productName;
 
-    private BigDecimal productPrice;
+    private Money productPrice;
 
     @NotNull(message = "Quantity is required")
     @Positive(message = "Quantity must be positive")
     private Integer quantity;
 
-    private BigDecimal subtotal;
+    private Money subtotal;
 
     public CartItemDTO() {
     }
 
-    public CartItemDTO(Long id, Long userId, Long productId, String productName, BigDecimal productPrice, Integer quantity, BigDecimal subtotal) {
+    public CartItemDTO(Long id, Long userId, Long productId, String productName, Money productPrice, Integer quantity, Money subtotal) {
         this.id = id;
         this.userId = userId;
         this.productId = productId;
@@ -69,11 +69,11 @@ public class CartItemDTO {
         this.productName = productName;
     }
 
-    public BigDecimal getProductPrice() {
+    public Money getProductPrice() {
         return productPrice;
     }
 
-    public void setProductPrice(BigDecimal productPrice) {
+    public void setProductPrice(Money productPrice) {
         this.productPrice = productPrice;
     }
 
@@ -85,11 +85,11 @@ public class CartItemDTO {
         this.quantity = quantity;
     }
 
-    public BigDecimal getSubtotal() {
+    public Money getSubtotal() {
         return subtotal;
     }
 
-    public void setSubtotal(BigDecimal subtotal) {
+    public void setSubtotal(Money subtotal) {
         this.subtotal = subtotal;
     }
 }
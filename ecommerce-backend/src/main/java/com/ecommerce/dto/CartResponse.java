@@ -1,19 +1,19 @@
 package com.ecommerce.dto;
 
-import java.math.BigDecimal;
+import com.ecommerce.model.Money;
 import java.util.List;
 
 public class CartResponse {
 
     private Long userId;
     private List<CartItemDTO> items;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private Integer totalItems;
 
     public CartResponse() {
     }
 
-    public CartResponse(Long userId, List<CartItemDTO> items, BigDecimal totalAmount, Integer totalItems) {
+    public CartResponse(Long userId, List<CartItemDTO> items, Money totalAmount, Integer totalItems) {
         this.userId = userId;
         this.items = items;
         this.totalAmount = totalAmount;
@@ -36,11 +36,11 @@ public class CartResponse {
         this.items = items;
     }
 
-    public BigDecimal getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(BigDecimal totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -0,0 +1,43 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public class CatalogChangesDTO {
+
+    private long version;
+    private List<ProductDTO> products;
+    private List<Long> deleted;
+
+    public CatalogChangesDTO() {
+    }
+
+    public CatalogChangesDTO(long version, List<ProductDTO> products, List<Long> deleted) {
+        this.version = version;
+        this.products = products;
+        this.deleted = deleted;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductDTO> products) {
+        this.products = products;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+}
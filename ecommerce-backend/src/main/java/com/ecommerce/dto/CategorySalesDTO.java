@@ -0,0 +1,73 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Money;
+
+public class CategorySalesDTO {
+
+    private String category;
+    private long unitsSold;
+    private long unitsCancelled;
+    private Money revenue;
+    private Money cancelledRevenue;
+    private Money netRevenue;
+
+    public CategorySalesDTO() {
+    }
+
+    public CategorySalesDTO(String category, long unitsSold, long unitsCancelled, Money revenue, Money cancelledRevenue, Money netRevenue) {
+        this.category = category;
+        this.unitsSold = unitsSold;
+        this.unitsCancelled = unitsCancelled;
+        this.revenue = revenue;
+        this.cancelledRevenue = cancelledRevenue;
+        this.netRevenue = netRevenue;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public void setUnitsSold(long unitsSold) {
+        this.unitsSold = unitsSold;
+    }
+
+    public long getUnitsCancelled() {
+        return unitsCancelled;
+    }
+
+    public void setUnitsCancelled(long unitsCancelled) {
+        this.unitsCancelled = unitsCancelled;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(Money revenue) {
+        this.revenue = revenue;
+    }
+
+    public Money getCancelledRevenue() {
+        return cancelledRevenue;
+    }
+
+    public void setCancelledRevenue(Money cancelledRevenue) {
+        this.cancelledRevenue = cancelledRevenue;
+    }
+
+    public Money getNetRevenue() {
+        return netRevenue;
+    }
+
+    public void setNetRevenue(Money netRevenue) {
+        this.netRevenue = netRevenue;
+    }
+}
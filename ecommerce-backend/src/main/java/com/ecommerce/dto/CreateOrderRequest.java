@@ -2,13 +2,15 @@ package com.ecommerce.dto;
 
 import jakarta.validation.constraints.NotNull;
 
-public class CreateOrderRequest {
+public class CreateOrderRequest implements UserScopedRequest {
 
     @NotNull(message = "User ID is required")
     private Long userId;
 
     private String shippingAddress;
 
+    private String cartToken;
+
     public CreateOrderRequest() {
     }
 
@@ -32,4 +34,12 @@ public class CreateOrderRequest {
     public void setShippingAddress(String shippingAddress) {
         this.shippingAddress = shippingAddress;
     }
+
+    public String getCartToken() {
+        return cartToken;
+    }
+
+    public void setCartToken(String cartToken) {
+        this.cartToken = cartToken;
+    }
 }
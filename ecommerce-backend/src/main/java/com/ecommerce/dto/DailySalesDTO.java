@@ -0,0 +1,114 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Money;
+import java.time.LocalDate;
+
+public class DailySalesDTO {
+
+    private LocalDate date;
+    private long ordersPlaced;
+    private long ordersPaid;
+    private long ordersCancelled;
+    private long unitsSold;
+    private long unitsCancelled;
+    private Money revenue;
+    private Money paidRevenue;
+    private Money cancelledRevenue;
+    private Money netRevenue;
+
+    public DailySalesDTO() {
+    }
+
+    public DailySalesDTO(LocalDate date, long ordersPlaced, long ordersPaid, long ordersCancelled, long unitsSold, long unitsCancelled, Money revenue, Money paidRevenue, Money cancelledRevenue, Money netRevenue) {
+        this.date = date;
+        this.ordersPlaced = ordersPlaced;
+        this.ordersPaid = ordersPaid;
+        this.ordersCancelled = ordersCancelled;
+        this.unitsSold = unitsSold;
+        this.unitsCancelled = unitsCancelled;
+        this.revenue = revenue;
+        this.paidRevenue = paidRevenue;
+        this.cancelledRevenue = cancelledRevenue;
+        this.netRevenue = netRevenue;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getOrdersPlaced() {
+        return ordersPlaced;
+    }
+
+    public void setOrdersPlaced(long ordersPlaced) {
+        this.ordersPlaced = ordersPlaced;
+    }
+
+    public long getOrdersPaid() {
+        return ordersPaid;
+    }
+
+    public void setOrdersPaid(long ordersPaid) {
+        this.ordersPaid = ordersPaid;
+    }
+
+    public long getOrdersCancelled() {
+        return ordersCancelled;
+    }
+
+    public void setOrdersCancelled(long ordersCancelled) {
+        this.ordersCancelled = ordersCancelled;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public void setUnitsSold(long unitsSold) {
+        this.unitsSold = unitsSold;
+    }
+
+    public long getUnitsCancelled() {
+        return unitsCancelled;
+    }
+
+    public void setUnitsCancelled(long unitsCancelled) {
+        this.unitsCancelled = unitsCancelled;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(Money revenue) {
+        this.revenue = revenue;
+    }
+
+    public Money getPaidRevenue() {
+        return paidRevenue;
+    }
+
+    public void setPaidRevenue(Money paidRevenue) {
+        this.paidRevenue = paidRevenue;
+    }
+
+    public Money getCancelledRevenue() {
+        return cancelledRevenue;
+    }
+
+    public void setCancelledRevenue(Money cancelledRevenue) {
+        this.cancelledRevenue = cancelledRevenue;
+    }
+
+    public Money getNetRevenue() {
+        return netRevenue;
+    }
+
+    public void setNetRevenue(Money netRevenue) {
+        this.netRevenue = netRevenue;
+    }
+}
@@ -1,6 +1,6 @@
 package com.ecommerce.dto;
 
-import java.math.BigDecimal;
+import com.ecommerce.model.Money;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -10,7 +10,7 @@ public class OrderDTO {
     private Long userId;
     private String userName;
     private List<OrderItemDTO> items;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private String status;
     private String shippingAddress;
     private PaymentDTO payment;
@@ -20,7 +20,7 @@ public class OrderDTO {
     public OrderDTO() {
     }
 
-    public OrderDTO(Long id, Long userId, String userName, List<OrderItemDTO> items, BigDecimal totalAmount, String status, String shippingAddress, PaymentDTO payment, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    public OrderDTO(Long id, Long userId, String userName, List<OrderItemDTO> items, Money totalAmount, String status, String shippingAddress, PaymentDTO payment, LocalDateTime createdAt, LocalDateTime updatedAt) {
         this.id = id;
         this.userId = userId;
         this.userName = userName;
@@ -65,11 +65,11 @@ public class OrderDTO {
         this.items = items;
     }
 
-    public BigDecimal getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(BigDecimal totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -1,6 +1,6 @@
 package com.ecommerce.dto;
 
-import java.math.BigDecimal;
+import com.ecommerce.model.Money;
 
 public class OrderItemDTO {
 
@@ -8,13 +8,13 @@ public class OrderItemDTO {
     private Long productId;
     private String productName;
     private Integer quantity;
-    private BigDecimal unitPrice;
-    private BigDecimal subtotal;
+    private Money unitPrice;
+    private Money subtotal;
 
     public OrderItemDTO() {
     }
 
-    public OrderItemDTO(Long id, Long productId, String productName, Integer quantity, BigDecimal unitPrice, BigDecimal subtotal) {
+    public OrderItemDTO(Long id, Long productId, String productName, Integer quantity, Money unitPrice, Money subtotal) {
         this.id = id;
         this.productId = productId;
         this.productName = productName;
@@ -55,19 +55,19 @@ public class OrderItemDTO {
         this.quantity = quantity;
     }
 
-    public BigDecimal getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(BigDecimal unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
     }
 
-    public BigDecimal getSubtotal() {
+    public Money getSubtotal() {
         return subtotal;
     }
 
-    public void setSubtotal(BigDecimal subtotal) {
+    public void setSubtotal(Money subtotal) {
         this.subtotal = subtotal;
     }
 }
@@ -1,6 +1,6 @@
 package com.ecommerce.dto;
 
-import java.math.BigDecimal;
+import com.ecommerce.model.Money;
 import java.time.LocalDateTime;
 
 public class PaymentDTO {
@@ -9,7 +9,7 @@ public class PaymentDTO {
     private Long orderId;
     private String razorpayOrderId;
     private String razorpayPaymentId;
-    private BigDecimal amount;
+    private Money amount;
     private String currency;
     private String status;
     private String paymentMethod;
@@ -18,7 +18,7 @@ public class PaymentDTO {
     public PaymentDTO() {
     }
 
-    public PaymentDTO(Long id, Long orderId, String razorpayOrderId, String razorpayPaymentId, BigDecimal amount, String currency, String status, String paymentMethod, LocalDateTime createdAt) {
+    public PaymentDTO(Long id, Long orderId, String razorpayOrderId, String razorpayPaymentId, Money amount, String currency, String status, String paymentMethod, LocalDateTime createdAt) {
         this.id = id;
         this.orderId = orderId;
         this.razorpayOrderId = razorpayOrderId;
@@ -62,11 +62,11 @@ public class PaymentDTO {
         this.razorpayPaymentId = razorpayPaymentId;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -26,6 +26,8 @@ public class ProductDTO {
 
     private String imageUrl;
 
+    private Long version;
+
     public ProductDTO() {
     }
 
@@ -94,4 +96,12 @@ public class ProductDTO {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
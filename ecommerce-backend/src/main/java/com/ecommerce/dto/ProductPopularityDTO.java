@@ -0,0 +1,51 @@
+package com.ecommerce.dto;
+
+public class ProductPopularityDTO {
+
+    private Long productId;
+    private long viewCount;
+    private long cartAddCount;
+    private long unitsSold;
+
+    public ProductPopularityDTO() {
+    }
+
+    public ProductPopularityDTO(Long productId, long viewCount, long cartAddCount, long unitsSold) {
+        this.productId = productId;
+        this.viewCount = viewCount;
+        this.cartAddCount = cartAddCount;
+        this.unitsSold = unitsSold;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public long getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(long viewCount) {
+        this.viewCount = viewCount;
+    }
+
+    public long getCartAddCount() {
+        return cartAddCount;
+    }
+
+    public void setCartAddCount(long cartAddCount) {
+        this.cartAddCount = cartAddCount;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public void setUnitsSold(long unitsSold) {
+        this.unitsSold = unitsSold;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.dto;
+
+public class RetryStatsDTO {
+
+    private String method;
+    private long calls;
+    private long conflicts;
+    private long retries;
+    private long exhausted;
+
+    public RetryStatsDTO() {
+    }
+
+    public RetryStatsDTO(String method, long calls, long conflicts, long retries, long exhausted) {
+        this.method = method;
+        this.calls = calls;
+        this.conflicts = conflicts;
+        this.retries = retries;
+        this.exhausted = exhausted;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public void setCalls(long calls) {
+        this.calls = calls;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(long conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    public void setRetries(long retries) {
+        this.retries = retries;
+    }
+
+    public long getExhausted() {
+        return exhausted;
+    }
+
+    public void setExhausted(long exhausted) {
+        this.exhausted = exhausted;
+    }
+}
@@ -0,0 +1,134 @@
+package com.ecommerce.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SlowQueryDTO {
+
+    private Long id;
+    private LocalDateTime occurredAt;
+    private String sql;
+    private List<List<String>> parameters;
+    private int batchSize;
+    private Long rows;
+    private double executeMs;
+    private double totalMs;
+    private String repositoryMethod;
+    private String caller;
+    private String thread;
+    private String plan;
+
+    public SlowQueryDTO() {
+    }
+
+    public SlowQueryDTO(Long id, LocalDateTime occurredAt, String sql, List<List<String>> parameters, int batchSize, Long rows, double executeMs, double totalMs, String repositoryMethod, String caller, String thread, String plan) {
+        this.id = id;
+        this.occurredAt = occurredAt;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.batchSize = batchSize;
+        this.rows = rows;
+        this.executeMs = executeMs;
+        this.totalMs = totalMs;
+        this.repositoryMethod = repositoryMethod;
+        this.caller = caller;
+        this.thread = thread;
+        this.plan = plan;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public List<List<String>> getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(List<List<String>> parameters) {
+        this.parameters = parameters;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Long getRows() {
+        return rows;
+    }
+
+    public void setRows(Long rows) {
+        this.rows = rows;
+    }
+
+    public double getExecuteMs() {
+        return executeMs;
+    }
+
+    public void setExecuteMs(double executeMs) {
+        this.executeMs = executeMs;
+    }
+
+    public double getTotalMs() {
+        return totalMs;
+    }
+
+    public void setTotalMs(double totalMs) {
+        this.totalMs = totalMs;
+    }
+
+    public String getRepositoryMethod() {
+        return repositoryMethod;
+    }
+
+    public void setRepositoryMethod(String repositoryMethod) {
+        this.repositoryMethod = repositoryMethod;
+    }
+
+    public String getCaller() {
+        return caller;
+    }
+
+    public void setCaller(String caller) {
+        this.caller = caller;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public void setThread(String thread) {
+        this.thread = thread;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.dto;
+
+public class StockAvailabilityDTO {
+
+    private Long productId;
+    private String productName;
+    private Integer requested;
+    private Integer available;
+    private Integer shortfall;
+    private boolean inStock;
+
+    public StockAvailabilityDTO() {
+    }
+
+    public StockAvailabilityDTO(Long productId, String productName, Integer requested, Integer available, Integer shortfall, boolean inStock) {
+        this.productId = productId;
+        this.productName = productName;
+        this.requested = requested;
+        this.available = available;
+        this.shortfall = shortfall;
+        this.inStock = inStock;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public Integer getRequested() {
+        return requested;
+    }
+
+    public void setRequested(Integer requested) {
+        this.requested = requested;
+    }
+
+    public Integer getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Integer available) {
+        this.available = available;
+    }
+
+    public Integer getShortfall() {
+        return shortfall;
+    }
+
+    public void setShortfall(Integer shortfall) {
+        this.shortfall = shortfall;
+    }
+
+    public boolean isInStock() {
+        return inStock;
+    }
+
+    public void setInStock(boolean inStock) {
+        this.inStock = inStock;
+    }
+}
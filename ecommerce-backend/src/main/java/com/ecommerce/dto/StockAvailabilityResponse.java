@@ -0,0 +1,33 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public class StockAvailabilityResponse {
+
+    private boolean allAvailable;
+    private List<StockAvailabilityDTO> items;
+
+    public StockAvailabilityResponse() {
+    }
+
+    public StockAvailabilityResponse(boolean allAvailable, List<StockAvailabilityDTO> items) {
+        this.allAvailable = allAvailable;
+        this.items = items;
+    }
+
+    public boolean isAllAvailable() {
+        return allAvailable;
+    }
+
+    public void setAllAvailable(boolean allAvailable) {
+        this.allAvailable = allAvailable;
+    }
+
+    public List<StockAvailabilityDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<StockAvailabilityDTO> items) {
+        this.items = items;
+    }
+}
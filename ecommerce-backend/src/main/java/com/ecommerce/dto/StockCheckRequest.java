@@ -0,0 +1,30 @@
+package com.ecommerce.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class StockCheckRequest {
+
+    @NotEmpty(message = "Items are required")
+    @Size(max = 500, message = "At most 500 items can be checked at once")
+    @Valid
+    private List<StockCheckItem> items;
+
+    public StockCheckRequest() {
+    }
+
+    public StockCheckRequest(List<StockCheckItem> items) {
+        this.items = items;
+    }
+
+    public List<StockCheckItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<StockCheckItem> items) {
+        this.items = items;
+    }
+}
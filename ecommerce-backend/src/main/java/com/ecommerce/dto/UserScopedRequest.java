@@ -0,0 +1,10 @@
+package com.ecommerce.dto;
+
+/**
+ * A request body that names the user it acts for, so per-user limits can be applied
+ * once the body has been read.
+ */
+public interface UserScopedRequest {
+
+    Long getUserId();
+}
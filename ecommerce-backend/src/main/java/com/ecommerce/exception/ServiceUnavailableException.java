@@ -0,0 +1,16 @@
+package com.ecommerce.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        // Thrown on every shed request, so skip the stack trace
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,131 @@
+package com.ecommerce.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit that follows observed latency, in the style of the gradient
+ * algorithms used by TCP Vegas and Netflix's concurrency-limits. A slow moving average
+ * of response time stands in for the no-load latency; when recent requests take longer
+ * than that, requests are queueing somewhere and the limit shrinks in proportion. While
+ * latency holds steady the limit grows by roughly its square root per update, which
+ * leaves room for a small queue. Requests that fail with a server error count as drops
+ * and back the limit off multiplicatively.
+ * <p>
+ * Admission is a single compare-and-set on the in-flight count. Limit updates take a
+ * lock but skip the sample if another thread holds it, so request threads never wait.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 500;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile int limit;
+
+    // Guarded by updateLock
+    private double estimatedLimit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits for " + name + ": min " + minLimit + ", max " + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Admits a request if fewer than {@link #getLimit()} are in flight. Every admitted
+     * request must be followed by exactly one {@link #release} or {@link #abandon}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request and feeds its response time into the limit.
+     *
+     * @param dropped whether the request failed in a way that suggests overload
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inflightBefore = inflight.getAndDecrement();
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        try {
+            update(rttNanos, inflightBefore, dropped);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Completes an admitted request without a sample, for requests whose response time
+     * says nothing about load, such as ones handed off to an async thread.
+     */
+    public void abandon() {
+        inflight.decrementAndGet();
+    }
+
+    private void update(long rttNanos, int inflightBefore, boolean dropped) {
+        if (dropped) {
+            setLimit(estimatedLimit * BACKOFF_RATIO);
+            return;
+        }
+        if (shortRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+        } else {
+            shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+            longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        }
+        // After a long overload the baseline has crept up; let it fall back faster
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        // With this little load a steady latency says nothing about the limit
+        if (inflightBefore < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        setLimit(estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private void setLimit(double newLimit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
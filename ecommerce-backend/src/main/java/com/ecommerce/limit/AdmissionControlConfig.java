@@ -0,0 +1,44 @@
+package com.ecommerce.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts adaptive admission control in front of the API. Admin endpoints and gateway
+ * webhooks are left out: the first are needed to diagnose an overload, and shedding the
+ * second only makes the gateway retry later.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor interceptor;
+
+    public AdmissionControlConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.interceptor = new AdmissionControlInterceptor(
+                limiter(environment, "read", 50, 10, 1000),
+                limiter(environment, "write", 20, 4, 200),
+                environment.getProperty("admission.retry-after-seconds", Long.class, 1L),
+                meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/admin/**", "/api/webhooks/**");
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(Environment environment, String budget, int initialLimit,
+                                                      int minLimit, int maxLimit) {
+        String prefix = "admission." + budget + ".";
+        return new AdaptiveConcurrencyLimiter(budget,
+                environment.getProperty(prefix + "initial-limit", Integer.class, initialLimit),
+                environment.getProperty(prefix + "min-limit", Integer.class, minLimit),
+                environment.getProperty(prefix + "max-limit", Integer.class, maxLimit));
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.limit;
+
+import com.ecommerce.controller.CartController;
+import com.ecommerce.controller.OrderController;
+import com.ecommerce.controller.PaymentController;
+import com.ecommerce.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Sheds load before it reaches the controllers. Requests that change carts, orders or
+ * payments share the write budget; everything else, including catalog browsing, shares
+ * the read budget, so a checkout overload cannot starve product pages. When a budget is
+ * full the request is answered at once with 503 and {@code Retry-After} instead of
+ * queueing for a thread or a connection.
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Set<Class<?>> WRITE_CONTROLLERS =
+            Set.of(OrderController.class, CartController.class, PaymentController.class);
+
+    private static final String ADMISSION_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".admission";
+
+    private final Budget read;
+    private final Budget write;
+    private final long retryAfterSeconds;
+
+    public AdmissionControlInterceptor(AdaptiveConcurrencyLimiter readLimiter, AdaptiveConcurrencyLimiter writeLimiter,
+                                       long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.read = new Budget(readLimiter, meterRegistry);
+        this.write = new Budget(writeLimiter, meterRegistry);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            // Async and error dispatches belong to a request that was already admitted
+            return true;
+        }
+        Budget budget = budgetFor(request, handler);
+        if (!budget.limiter.tryAcquire()) {
+            budget.rejected.increment();
+            throw new ServiceUnavailableException("Server is busy, please retry shortly", retryAfterSeconds);
+        }
+        request.setAttribute(ADMISSION_ATTRIBUTE, new Admission(budget.limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(ADMISSION_ATTRIBUTE) instanceof Admission admission) {
+            request.removeAttribute(ADMISSION_ATTRIBUTE);
+            boolean dropped = ex != null || response.getStatus() >= 500;
+            admission.limiter.release(System.nanoTime() - admission.startNanos, dropped);
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (request.getAttribute(ADMISSION_ATTRIBUTE) instanceof Admission admission) {
+            request.removeAttribute(ADMISSION_ATTRIBUTE);
+            admission.limiter.abandon();
+        }
+    }
+
+    private Budget budgetFor(HttpServletRequest request, Object handler) {
+        boolean safeMethod = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        if (!safeMethod && handler instanceof HandlerMethod method && WRITE_CONTROLLERS.contains(method.getBeanType())) {
+            return write;
+        }
+        return read;
+    }
+
+    private static final class Budget {
+        final AdaptiveConcurrencyLimiter limiter;
+        final Counter rejected;
+
+        Budget(AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+            this.limiter = limiter;
+            this.rejected = Counter.builder("admission.rejected")
+                    .description("Requests shed with 503 because their concurrency budget was full")
+                    .tag("budget", limiter.getName())
+                    .register(meterRegistry);
+            Gauge.builder("admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("budget", limiter.getName())
+                    .register(meterRegistry);
+            Gauge.builder("admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                    .description("Admitted requests in progress")
+                    .tag("budget", limiter.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    private record Admission(AdaptiveConcurrencyLimiter limiter, long startNanos) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.limit;
+
+import com.ecommerce.dto.UserScopedRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Applies the per-user bucket of {@link RateLimited} endpoints whose request body names
+ * the user, before the body is validated or reaches the controller.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitBodyAdvice(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return methodParameter.hasMethodAnnotation(RateLimited.class)
+                && UserScopedRequest.class.isAssignableFrom(methodParameter.getParameterType());
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        Long userId = ((UserScopedRequest) body).getUserId();
+        if (userId != null) {
+            rateLimiter.acquire(parameter.getMethodAnnotation(RateLimited.class).value(), RateLimiter.Scope.USER,
+                    userId.toString());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.limit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Checks rate limits ahead of admission control, so a client over its rate never takes
+ * one of the concurrency slots.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitConfig(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter))
+                .addPathPatterns("/api/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.limit;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Applies the per-IP bucket of {@link RateLimited} endpoints, and the per-user bucket
+ * when the user is in the path. Users named in the request body are checked by
+ * {@link RateLimitBodyAdvice} once the body has been read.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        RateLimited rateLimited = method.getMethodAnnotation(RateLimited.class);
+        if (rateLimited == null) {
+            return true;
+        }
+        rateLimiter.acquire(rateLimited.value(), RateLimiter.Scope.IP, request.getRemoteAddr());
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get("userId") instanceof String userId) {
+            rateLimiter.acquire(rateLimited.value(), RateLimiter.Scope.USER, userId);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.limit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a controller endpoint behind per-user and per-IP token buckets. The value names
+ * the limit, read from {@code rate-limit.endpoints.<name>.rate} (requests per second)
+ * and {@code .burst}; endpoints sharing a name share their limit but not their buckets.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    String value();
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.limit;
+
+import com.ecommerce.exception.TooManyRequestsException;
+import com.ecommerce.limit.TokenBucket.RateLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user and per-IP token buckets for {@link RateLimited} endpoints. Buckets live in a
+ * concurrent map of at most {@code rate-limit.max-buckets} entries and are updated with
+ * a compare-and-set, so a check is one map lookup and one CAS. Full buckets are idle and
+ * are swept out once every {@code rate-limit.sweep-interval-seconds}, by whichever request
+ * first notices the interval has passed. While the map is at its bound, clients without a
+ * bucket share one overflow bucket per endpoint and scope, so a client cycling through ids
+ * or addresses to fill the map is throttled rather than switching limiting off. A full map
+ * is also swept early, at most once per {@code rate-limit.full-sweep-interval-ms}: the
+ * flood's buckets refill within a burst's worth of time, so newcomers get buckets of their
+ * own again after one such sweep instead of sharing the overflow bucket for a whole interval.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimiter {
+
+    public enum Scope {
+        USER, IP
+    }
+
+    private static final long UNSCHEDULED = Long.MIN_VALUE;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> overflowBuckets = new ConcurrentHashMap<>();
+    private final Map<String, RateLimit> limits = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final int maxBuckets;
+    private final long sweepIntervalNanos;
+    private final long fullSweepIntervalNanos;
+    private final double ipFactor;
+    private final Counter overflowed;
+
+    public RateLimiter(@Value("${rate-limit.max-buckets:100000}") int maxBuckets,
+                       @Value("${rate-limit.sweep-interval-seconds:60}") long sweepIntervalSeconds,
+                       @Value("${rate-limit.full-sweep-interval-ms:1000}") long fullSweepIntervalMs,
+                       @Value("${rate-limit.ip-factor:5}") double ipFactor,
+                       Environment environment,
+                       MeterRegistry meterRegistry) {
+        this.maxBuckets = maxBuckets;
+        this.sweepIntervalNanos = TimeUnit.SECONDS.toNanos(sweepIntervalSeconds);
+        this.fullSweepIntervalNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(fullSweepIntervalMs), sweepIntervalNanos);
+        this.nextSweepNanos = new AtomicLong(UNSCHEDULED);
+        this.ipFactor = ipFactor;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.overflowed = Counter.builder("rate-limit.overflow")
+                .description("Requests checked against a shared overflow bucket because the bucket map was full")
+                .register(meterRegistry);
+        Gauge.builder("rate-limit.buckets", buckets, Map::size)
+                .description("Token buckets currently tracked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from the bucket of {@code id} for the endpoint, or throws
+     * {@link TooManyRequestsException} with the time until one is available.
+     */
+    public void acquire(String endpoint, Scope scope, String id) {
+        long waitNanos = tryAcquire(endpoint, scope, id, System.nanoTime());
+        if (waitNanos > 0) {
+            rejections.computeIfAbsent(endpoint + "|" + scope, key -> Counter.builder("rate-limit.rejected")
+                            .description("Requests rejected with 429 by a per-user or per-IP token bucket")
+                            .tag("endpoint", endpoint)
+                            .tag("scope", scope.name().toLowerCase(Locale.ROOT))
+                            .register(meterRegistry))
+                    .increment();
+            throw new TooManyRequestsException("Too many requests, please slow down",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+        }
+    }
+
+    long tryAcquire(String endpoint, Scope scope, String id, long nowNanos) {
+        String limitKey = endpoint + "|" + scope;
+        String key = limitKey + "|" + id;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            sweepIfDue(nowNanos);
+            if (buckets.size() >= maxBuckets) {
+                overflowed.increment();
+                bucket = overflowBuckets.computeIfAbsent(limitKey, k -> new TokenBucket(nowNanos));
+            } else {
+                bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(nowNanos));
+            }
+        }
+        return bucket.tryAcquire(nowNanos, limits.computeIfAbsent(limitKey, k -> limit(endpoint, scope)));
+    }
+
+    /**
+     * Drops full buckets once the sweep interval has passed, or once the full-map interval
+     * has passed while the map is at its bound; the compare-and-set lets one caller do it.
+     * A request racing with the sweep may take its token from a bucket just being dropped,
+     * which forgives that one token.
+     */
+    private void sweepIfDue(long nowNanos) {
+        long scheduled = nextSweepNanos.get();
+        if (scheduled == UNSCHEDULED) {
+            // The first new client starts the clock
+            nextSweepNanos.compareAndSet(UNSCHEDULED, nowNanos + sweepIntervalNanos);
+            return;
+        }
+        long due = scheduled;
+        if (buckets.size() >= maxBuckets) {
+            // The last sweep ran at scheduled - sweepIntervalNanos
+            due -= sweepIntervalNanos - fullSweepIntervalNanos;
+        }
+        if (nowNanos - due > 0 && nextSweepNanos.compareAndSet(scheduled, nowNanos + sweepIntervalNanos)) {
+            buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+        }
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private RateLimit limit(String endpoint, Scope scope) {
+        String prefix = "rate-limit.endpoints." + endpoint + ".";
+        double rate = environment.getProperty(prefix + "rate", Double.class,
+                environment.getProperty("rate-limit.default.rate", Double.class, 10.0));
+        int burst = environment.getProperty(prefix + "burst", Integer.class,
+                environment.getProperty("rate-limit.default.burst", Integer.class, 20));
+        // One address can carry many users behind a proxy or NAT
+        return scope == Scope.IP ? RateLimit.of(rate * ipFactor, (int) Math.ceil(burst * ipFactor))
+                : RateLimit.of(rate, burst);
+    }
+}
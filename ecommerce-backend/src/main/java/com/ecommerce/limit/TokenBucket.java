@@ -0,0 +1,56 @@
+package com.ecommerce.limit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept as a single theoretical arrival time (the generic cell rate
+ * algorithm): the time at which the bucket would be full again. Taking a token pushes
+ * it forward by one emission interval, and a request is allowed while it stays within
+ * the burst tolerance of now. A bucket whose arrival time has passed is full, so it can
+ * be dropped and recreated without changing any outcome.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalNanos;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is
+     */
+    long tryAcquire(long nowNanos, RateLimit limit) {
+        while (true) {
+            long arrival = theoreticalArrivalNanos.get();
+            long start = arrival - nowNanos > 0 ? arrival : nowNanos;
+            long wait = start - nowNanos - limit.toleranceNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(arrival, start + limit.intervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    boolean isFull(long nowNanos) {
+        return theoreticalArrivalNanos.get() - nowNanos <= 0;
+    }
+
+    /**
+     * Requests per second with bursts of up to {@code burst} requests.
+     */
+    record RateLimit(long intervalNanos, long toleranceNanos) {
+
+        static RateLimit of(double ratePerSecond, int burst) {
+            if (ratePerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Rate and burst must be positive: " + ratePerSecond + ", " + burst);
+            }
+            long interval = (long) (1_000_000_000 / ratePerSecond);
+            return new RateLimit(interval, interval * (burst - 1));
+        }
+    }
+}
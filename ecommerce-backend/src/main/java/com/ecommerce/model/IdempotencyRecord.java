@@ -0,0 +1,75 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored response for an {@code Idempotency-Key}. The key is assigned by the client,
+ * so the entity reports itself as new until it has been persisted or loaded; saving a
+ * new record always inserts, and a duplicate key fails instead of being merged.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 300)
+    private String key;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Lob
+    @Column(name = "response_body")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String key, String requestHash, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public String getId() { return key; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    public boolean isCompleted() { return responseStatus != null; }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+    public Integer getResponseStatus() { return responseStatus; }
+    public void setResponseStatus(Integer responseStatus) { this.responseStatus = responseStatus; }
+    public String getResponseBody() { return responseBody; }
+    public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
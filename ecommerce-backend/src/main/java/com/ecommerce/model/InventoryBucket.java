@@ -0,0 +1,41 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "inventory_buckets",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "bucket_index"}))
+public class InventoryBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "bucket_index", nullable = false)
+    private Integer bucketIndex;
+
+    @Column(nullable = false)
+    private Integer stock;
+
+    public InventoryBucket() {}
+
+    public InventoryBucket(Long id, Product product, Integer bucketIndex, Integer stock) {
+        this.id = id;
+        this.product = product;
+        this.bucketIndex = bucketIndex;
+        this.stock = stock;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+    public Integer getBucketIndex() { return bucketIndex; }
+    public void setBucketIndex(Integer bucketIndex) { this.bucketIndex = bucketIndex; }
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a whole number of minor units (paise), so totals are long
+ * arithmetic instead of a new BigDecimal per multiply and add. Amounts have two decimal
+ * places, like the {@code precision = 10, scale = 2} columns they are stored in
+ * ({@link MoneyConverter}), and are written to JSON as that decimal number.
+ * <p>
+ * Arithmetic throws {@link ArithmeticException} on overflow instead of wrapping.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final long serialVersionUID = 1L;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /** Converts a decimal amount, rounding half up to two places as the database column would. */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        BigDecimal scaled = amount.scale() == SCALE ? amount : amount.setScale(SCALE, RoundingMode.HALF_UP);
+        return ofMinor(scaled.unscaledValue().longValueExact());
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return ofMinor(Math.multiplyExact(minorUnits, (long) quantity));
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money other && minorUnits == other.minorUnits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * Stores {@link Money} in the existing {@code DECIMAL(10, 2)} columns. Marked immutable so
+ * Hibernate compares and caches the values as they are instead of copying them.
+ */
+@Converter(autoApply = true)
+@Immutable
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount != null ? Money.of(amount) : null;
+    }
+}
@@ -1,7 +1,6 @@
 package com.ecommerce.model;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,7 +13,7 @@ public class Order {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -25,7 +24,7 @@ public class Order {
     private Payment payment;
 
     @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalAmount;
+    private Money totalAmount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -33,6 +32,10 @@ public class Order {
 
     private String shippingAddress;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -41,7 +44,7 @@ public class Order {
 
     public Order() {}
 
-    public Order(Long id, User user, List<OrderItem> orderItems, Payment payment, BigDecimal totalAmount, OrderStatus status, String shippingAddress, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    public Order(Long id, User user, List<OrderItem> orderItems, Payment payment, Money totalAmount, OrderStatus status, String shippingAddress, LocalDateTime createdAt, LocalDateTime updatedAt) {
         this.id = id;
         this.user = user;
         this.orderItems = orderItems;
@@ -85,12 +88,14 @@ public class Order {
     public void setOrderItems(List<OrderItem> orderItems) { this.orderItems = orderItems; }
     public Payment getPayment() { return payment; }
     public void setPayment(Payment payment) { this.payment = payment; }
-    public BigDecimal getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    public Money getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Money totalAmount) { this.totalAmount = totalAmount; }
     public OrderStatus getStatus() { return status; }
     public void setStatus(OrderStatus status) { this.status = status; }
     public String getShippingAddress() { return shippingAddress; }
     public void setShippingAddress(String shippingAddress) { this.shippingAddress = shippingAddress; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
@@ -1,7 +1,6 @@
 package com.ecommerce.model;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -12,7 +11,7 @@ public class Payment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne(fetch = FetchType.LAZY)
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
@@ -26,7 +25,7 @@ public class Payment {
     private String razorpaySignature;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
 
     @Column(nullable = false)
     private String currency;
@@ -46,7 +45,7 @@ public class Payment {
 
     public Payment() {}
 
-    public Payment(Long id, Order order, String razorpayOrderId, String razorpayPaymentId, String razorpaySignature, BigDecimal amount, String currency, PaymentStatus status, String paymentMethod, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    public Payment(Long id, Order order, String razorpayOrderId, String razorpayPaymentId, String razorpaySignature, Money amount, String currency, PaymentStatus status, String paymentMethod, LocalDateTime createdAt, LocalDateTime updatedAt) {
         this.id = id;
         this.order = order;
         this.razorpayOrderId = razorpayOrderId;
@@ -95,8 +94,8 @@ public class Payment {
     public void setRazorpayPaymentId(String razorpayPaymentId) { this.razorpayPaymentId = razorpayPaymentId; }
     public String getRazorpaySignature() { return razorpaySignature; }
     public void setRazorpaySignature(String razorpaySignature) { this.razorpaySignature = razorpaySignature; }
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
     public PaymentStatus getStatus() { return status; }
@@ -1,10 +1,13 @@
 package com.ecommerce.model;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "products")
 public class Product {
 
@@ -18,7 +21,7 @@ public class Product {
     private String description;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal price;
+    private Money price;
 
     @Column(nullable = false)
     private Integer stock;
@@ -27,6 +30,13 @@ public class Product {
 
     private String imageUrl;
 
+    @Column(name = "flash_sale_buckets", nullable = false)
+    private int flashSaleBuckets;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -35,7 +45,7 @@ public class Product {
 
     public Product() {}
 
-    public Product(Long id, String name, String description, BigDecimal price, Integer stock, String category, String imageUrl, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    public Product(Long id, String name, String description, Money price, Integer stock, String category, String imageUrl, LocalDateTime createdAt, LocalDateTime updatedAt) {
         this.id = id;
         this.name = name;
         this.description = description;
@@ -64,14 +74,19 @@ public class Product {
     public void setName(String name) { this.name = name; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
-    public BigDecimal getPrice() { return price; }
-    public void setPrice(BigDecimal price) { this.price = price; }
+    public Money getPrice() { return price; }
+    public void setPrice(Money price) { this.price = price; }
     public Integer getStock() { return stock; }
     public void setStock(Integer stock) { this.stock = stock; }
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public int getFlashSaleBuckets() { return flashSaleBuckets; }
+    public void setFlashSaleBuckets(int flashSaleBuckets) { this.flashSaleBuckets = flashSaleBuckets; }
+    public boolean isFlashSale() { return flashSaleBuckets > 0; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
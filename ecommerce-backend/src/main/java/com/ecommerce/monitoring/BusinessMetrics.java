@@ -0,0 +1,70 @@
+package com.ecommerce.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Business counters published next to the technical metrics: orders placed,
+ * payment outcomes and webhook lag. Phase timings come from {@link PhaseTracer}.
+ */
+@Component
+public class BusinessMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter paymentsInitiated;
+    private final Counter paymentsSucceeded;
+    private final Counter paymentsFailed;
+    private final Timer webhookLag;
+
+    public BusinessMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.paymentsInitiated = Counter.builder("payments.initiated")
+                .description("Payments initiated with the gateway")
+                .register(meterRegistry);
+        this.paymentsSucceeded = Counter.builder("payments.completed")
+                .description("Payment callbacks processed")
+                .tag("outcome", "succeeded")
+                .register(meterRegistry);
+        this.paymentsFailed = Counter.builder("payments.completed")
+                .description("Payment callbacks processed")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.webhookLag = Timer.builder("payments.webhook.lag")
+                .description("Time from payment creation to its gateway callback")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void orderPlaced(String checkoutPath, int items) {
+        Counter.builder("orders.placed")
+                .description("Orders placed")
+                .tag("path", checkoutPath)
+                .register(meterRegistry)
+                .increment();
+        meterRegistry.summary("orders.placed.items", "path", checkoutPath).record(items);
+    }
+
+    public void paymentInitiated() {
+        paymentsInitiated.increment();
+    }
+
+    public void paymentSucceeded() {
+        paymentsSucceeded.increment();
+    }
+
+    public void paymentFailed() {
+        paymentsFailed.increment();
+    }
+
+    public void webhookReceived(LocalDateTime paymentCreatedAt, LocalDateTime receivedAt) {
+        if (paymentCreatedAt != null) {
+            Duration lag = Duration.between(paymentCreatedAt, receivedAt);
+            webhookLag.record(lag.isNegative() ? Duration.ZERO : lag);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.monitoring;
+
+import com.ecommerce.dto.CacheStatsDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hit ratios of the Hibernate second-level cache regions, taken from Hibernate's
+ * statistics ({@code hibernate.generate_statistics=true}) and counted since startup.
+ * Also published per region as the {@code hibernate.cache.hit.ratio} gauge.
+ */
+@Component
+public class CacheStatistics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public CacheStatistics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public List<CacheStatsDTO> getRegionStats() {
+        List<CacheStatsDTO> result = new ArrayList<>();
+        for (String region : regionNames()) {
+            CacheRegionStatistics stats = regionStatistics(region);
+            if (stats != null) {
+                result.add(new CacheStatsDTO(region, stats.getHitCount(), stats.getMissCount(), stats.getPutCount(),
+                        hitRatio(stats)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : regionNames()) {
+            Gauge.builder("hibernate.cache.hit.ratio", () -> {
+                        Double ratio = hitRatio(regionStatistics(region));
+                        return ratio != null ? ratio : Double.NaN;
+                    })
+                    .description("Second-level cache hits over lookups since startup")
+                    .tag("region", region)
+                    .register(registry);
+        }
+    }
+
+    private List<String> regionNames() {
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted().toList();
+    }
+
+    private CacheRegionStatistics regionStatistics(String region) {
+        CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+        return stats != null ? stats : statistics.getQueryRegionStatistics(region);
+    }
+
+    private static Double hitRatio(CacheRegionStatistics stats) {
+        if (stats == null) {
+            return null;
+        }
+        long lookups = stats.getHitCount() + stats.getMissCount();
+        return lookups == 0 ? null : (double) stats.getHitCount() / lookups;
+    }
+}
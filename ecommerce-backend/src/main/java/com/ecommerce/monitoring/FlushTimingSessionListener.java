@@ -0,0 +1,27 @@
+package com.ecommerce.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time Hibernate spends flushing the session to the current
+ * {@link RequestTiming}. Registered for every session through
+ * {@code hibernate.session.events.auto} by {@link ServerTimingConfig}.
+ */
+public class FlushTimingSessionListener implements SessionEventListener {
+
+    @Override
+    public void flushStart() {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.flushStarted();
+        }
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.flushEnded();
+        }
+    }
+}
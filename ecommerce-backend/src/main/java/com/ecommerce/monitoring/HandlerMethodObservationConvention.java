@@ -0,0 +1,30 @@
+package com.ecommerce.monitoring;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Adds a {@code handler} tag ({@code OrderController.createOrder}) to
+ * {@code http.server.requests} so latency histograms can be read per controller method.
+ */
+@Component
+public class HandlerMethodObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(handler(context));
+    }
+
+    private KeyValue handler(ServerRequestObservationContext context) {
+        Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return KeyValue.of("handler", method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+        }
+        return KeyValue.of("handler", "none");
+    }
+}
@@ -0,0 +1,131 @@
+package com.ecommerce.monitoring;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estimates how often each key is seen in fixed memory, and keeps the {@code capacity}
+ * most frequent keys. Counts live in a count-min sketch: {@code depth} rows of
+ * {@code width} counters, each key adding to one counter per row and reading the
+ * smallest, which overestimates by collisions only. {@link #decay()} halves every count,
+ * so keys that are no longer requested fade out.
+ * <p>
+ * Recording a key is a few atomic adds. The top keys are kept in a small concurrent map;
+ * a lock is taken only when a key outside it overtakes the least frequent top key.
+ */
+public class HotKeySketch<K> {
+
+    private final int depth;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLongArray counters;
+    private final Map<K, Long> top = new ConcurrentHashMap<>();
+    private final ReentrantLock topLock = new ReentrantLock();
+    private volatile long admission;
+
+    public HotKeySketch(int depth, int width, int capacity) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Width must be a power of two: " + width);
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.capacity = capacity;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    public void record(K key) {
+        record(key, 1);
+    }
+
+    public void record(K key, long count) {
+        long hash = spread(key.hashCode());
+        long step = spread(hash) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.addAndGet(index(row, hash, step), count));
+        }
+        long estimate = min;
+        // Top keys are updated in place; only a newcomer takes the lock to evict one
+        if (top.computeIfPresent(key, (k, current) -> Math.max(current, estimate)) == null && estimate > admission) {
+            admit(key, estimate);
+        }
+    }
+
+    public long estimate(K key) {
+        long hash = spread(key.hashCode());
+        long step = spread(hash) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, hash, step)));
+        }
+        return estimate;
+    }
+
+    /** True if {@code key} is currently one of the most frequent keys. */
+    public boolean isHot(K key) {
+        return top.containsKey(key);
+    }
+
+    /** The most frequent keys with their estimated counts, most frequent first. */
+    public List<Map.Entry<K, Long>> top() {
+        List<Map.Entry<K, Long>> entries = new ArrayList<>();
+        top.forEach((key, count) -> entries.add(Map.entry(key, count)));
+        entries.sort(Map.Entry.<K, Long>comparingByValue(Comparator.reverseOrder()));
+        return entries;
+    }
+
+    /** Halves every count; keys whose count reaches zero leave the top keys. */
+    public void decay() {
+        topLock.lock();
+        try {
+            for (int i = 0; i < counters.length(); i++) {
+                counters.getAndUpdate(i, count -> count >> 1);
+            }
+            top.replaceAll((key, count) -> count >> 1);
+            top.values().removeIf(count -> count == 0);
+            updateAdmission();
+        } finally {
+            topLock.unlock();
+        }
+    }
+
+    private void admit(K key, long estimate) {
+        topLock.lock();
+        try {
+            top.merge(key, estimate, Math::max);
+            if (top.size() > capacity) {
+                K coldest = null;
+                long lowest = Long.MAX_VALUE;
+                for (Map.Entry<K, Long> entry : top.entrySet()) {
+                    if (entry.getValue() < lowest) {
+                        coldest = entry.getKey();
+                        lowest = entry.getValue();
+                    }
+                }
+                top.remove(coldest);
+            }
+            updateAdmission();
+        } finally {
+            topLock.unlock();
+        }
+    }
+
+    private void updateAdmission() {
+        // Until the top keys are full every key gets in
+        admission = top.size() < capacity ? 0 : top.values().stream().mapToLong(Long::longValue).min().orElse(0);
+    }
+
+    private int index(int row, long hash, long step) {
+        return row * (mask + 1) + (int) ((hash + row * step) & mask);
+    }
+
+    private static long spread(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,193 @@
+package com.ecommerce.monitoring;
+
+import com.ecommerce.dto.HotKeyDTO;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds the hot set: the most viewed products, the users adding to carts most often and
+ * the most frequent search terms, each estimated by a {@link HotKeySketch}. Counts are
+ * halved every {@code hotkeys.decay-interval-ms}, so the hot set follows current traffic.
+ * <p>
+ * Caches can ask whether a key is hot before keeping or dropping it. The top keys are
+ * saved to {@code hotkeys.snapshot-path} at shutdown; at startup they seed the sketches
+ * again and the hot products and users are loaded into the second-level cache, so the
+ * first requests after a deploy do not all go to the database.
+ */
+@Component
+public class HotKeyTracker {
+
+    public static final String PRODUCTS = "products";
+    public static final String USERS = "users";
+    public static final String SEARCHES = "searches";
+
+    private static final Logger log = LoggerFactory.getLogger(HotKeyTracker.class);
+
+    private static final int MAX_TERM_LENGTH = 100;
+
+    private final HotKeySketch<Long> products;
+    private final HotKeySketch<Long> users;
+    private final HotKeySketch<String> searches;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final Path snapshotPath;
+
+    public HotKeyTracker(ProductRepository productRepository, UserRepository userRepository,
+                         @Value("${hotkeys.sketch.depth:4}") int depth,
+                         @Value("${hotkeys.sketch.width:4096}") int width,
+                         @Value("${hotkeys.top-k:20}") int topK,
+                         @Value("${hotkeys.snapshot-path:data/hot-keys.tsv}") String snapshotPath) {
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.products = new HotKeySketch<>(depth, width, topK);
+        this.users = new HotKeySketch<>(depth, width, topK);
+        this.searches = new HotKeySketch<>(depth, width, topK);
+        this.snapshotPath = Path.of(snapshotPath);
+    }
+
+    public void productViewed(Long productId) {
+        products.record(productId);
+    }
+
+    public void addedToCart(Long userId, Long productId) {
+        users.record(userId);
+        products.record(productId);
+    }
+
+    public void searched(String term) {
+        String normalized = normalize(term);
+        if (!normalized.isEmpty()) {
+            searches.record(normalized);
+        }
+    }
+
+    public boolean isHotProduct(Long productId) {
+        return products.isHot(productId);
+    }
+
+    public boolean isHotUser(Long userId) {
+        return users.isHot(userId);
+    }
+
+    public List<Long> getHotProductIds() {
+        return products.top().stream().map(Map.Entry::getKey).toList();
+    }
+
+    public List<Long> getHotUserIds() {
+        return users.top().stream().map(Map.Entry::getKey).toList();
+    }
+
+    public Map<String, List<HotKeyDTO>> getHotKeys() {
+        Map<String, List<HotKeyDTO>> hotKeys = new LinkedHashMap<>();
+        hotKeys.put(PRODUCTS, toDTOs(products));
+        hotKeys.put(USERS, toDTOs(users));
+        hotKeys.put(SEARCHES, toDTOs(searches));
+        return hotKeys;
+    }
+
+    @Scheduled(initialDelayString = "${hotkeys.decay-interval-ms:300000}",
+            fixedDelayString = "${hotkeys.decay-interval-ms:300000}")
+    public void decay() {
+        products.decay();
+        users.decay();
+        searches.decay();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(snapshotPath, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 3);
+                if (fields.length == 3) {
+                    seed(fields[0], Long.parseLong(fields[1]), fields[2]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read hot keys from {}", snapshotPath, e);
+            return;
+        }
+        List<Long> productIds = getHotProductIds();
+        List<Long> userIds = getHotUserIds();
+        // Loading through the repositories puts the rows in the second-level cache
+        int loaded = productRepository.findAllById(productIds).size() + userRepository.findAllById(userIds).size();
+        log.info("Warmed the cache with {} hot products and users from {}", loaded, snapshotPath);
+    }
+
+    @PreDestroy
+    public void save() {
+        StringBuilder lines = new StringBuilder();
+        append(lines, PRODUCTS, products);
+        append(lines, USERS, users);
+        append(lines, SEARCHES, searches);
+        if (lines.isEmpty()) {
+            return;
+        }
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, snapshotPath.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(temp, lines, StandardCharsets.UTF_8);
+                Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            log.warn("Could not save hot keys to {}", snapshotPath, e);
+        }
+    }
+
+    private void seed(String kind, long count, String key) {
+        switch (kind) {
+            case PRODUCTS -> products.record(Long.valueOf(key), count);
+            case USERS -> users.record(Long.valueOf(key), count);
+            case SEARCHES -> searches.record(key, count);
+            default -> log.debug("Ignoring hot key of unknown kind {}", kind);
+        }
+    }
+
+    private static <K> void append(StringBuilder lines, String kind, HotKeySketch<K> sketch) {
+        for (Map.Entry<K, Long> entry : sketch.top()) {
+            lines.append(kind).append('\t').append(entry.getValue()).append('\t').append(entry.getKey()).append('\n');
+        }
+    }
+
+    private static <K> List<HotKeyDTO> toDTOs(HotKeySketch<K> sketch) {
+        List<HotKeyDTO> dtos = new ArrayList<>();
+        for (Map.Entry<K, Long> entry : sketch.top()) {
+            dtos.add(new HotKeyDTO(String.valueOf(entry.getKey()), entry.getValue()));
+        }
+        return dtos;
+    }
+
+    /** Lower case with runs of whitespace collapsed, so variants of a term count together. */
+    private static String normalize(String term) {
+        if (term == null) {
+            return "";
+        }
+        String normalized = term.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized.length() > MAX_TERM_LENGTH ? normalized.substring(0, MAX_TERM_LENGTH) : normalized;
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one phase of a checkout or payment operation. The
+ * event's duration is the phase latency; ids of 0 mean "not known yet".
+ */
+@Name(PhaseEvent.NAME)
+@Label("Operation Phase")
+@Category({"E-Commerce", "Phases"})
+@Description("One phase of checkout, payment creation or payment callback processing")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+
+    public static final String NAME = "com.ecommerce.Phase";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Payment Id")
+    long paymentId;
+
+    @Label("Item Count")
+    int itemCount;
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.monitoring;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarizes {@link PhaseEvent}s in a Flight Recorder file: count, mean and
+ * percentile latency per operation and phase. Only needs the JDK, so it can run
+ * straight from the build output:
+ *
+ * <pre>java -cp target/classes com.ecommerce.monitoring.PhaseRecordingAnalyzer checkout.jfr</pre>
+ */
+public final class PhaseRecordingAnalyzer {
+
+    private PhaseRecordingAnalyzer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: PhaseRecordingAnalyzer <recording.jfr>");
+            System.exit(2);
+        }
+        print(summarize(Path.of(args[0])), System.out);
+    }
+
+    public static List<PhaseSummary> summarize(Path recording) throws IOException {
+        Map<String, List<Long>> durations = new TreeMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            if (event.getEventType().getName().equals(PhaseEvent.NAME)) {
+                String key = event.getString("operation") + "\t" + event.getString("phase");
+                durations.computeIfAbsent(key, k -> new ArrayList<>()).add(event.getDuration().toNanos());
+            }
+        }
+
+        List<PhaseSummary> summaries = new ArrayList<>(durations.size());
+        for (Map.Entry<String, List<Long>> entry : durations.entrySet()) {
+            String[] key = entry.getKey().split("\t", 2);
+            List<Long> values = entry.getValue();
+            Collections.sort(values);
+            long total = 0;
+            for (long value : values) {
+                total += value;
+            }
+            summaries.add(new PhaseSummary(key[0], key[1], values.size(), total / values.size(),
+                    percentile(values, 50), percentile(values, 99), values.get(values.size() - 1)));
+        }
+        return summaries;
+    }
+
+    public static void print(List<PhaseSummary> summaries, PrintStream out) {
+        out.printf("%-18s %-22s %8s %10s %10s %10s %10s%n",
+                "operation", "phase", "count", "mean ms", "p50 ms", "p99 ms", "max ms");
+        for (PhaseSummary summary : summaries) {
+            out.printf("%-18s %-22s %8d %10.3f %10.3f %10.3f %10.3f%n",
+                    summary.operation(), summary.phase(), summary.count(),
+                    millis(summary.meanNanos()), millis(summary.p50Nanos()),
+                    millis(summary.p99Nanos()), millis(summary.maxNanos()));
+        }
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public record PhaseSummary(String operation, String phase, int count, long meanNanos,
+                               long p50Nanos, long p99Nanos, long maxNanos) {
+    }
+}
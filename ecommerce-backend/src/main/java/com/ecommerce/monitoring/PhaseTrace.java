@@ -0,0 +1,82 @@
+package com.ecommerce.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits one operation into consecutive phases. Each call to {@link #phase(String)}
+ * closes the phase that has been running since the previous call (or since the trace
+ * started), commits a {@link PhaseEvent} for it and records it in the phase timer,
+ * then starts the next one. Not thread-safe; create one per operation.
+ */
+public final class PhaseTrace {
+
+    private final MeterRegistry meterRegistry;
+    private final String metricName;
+    private final String operation;
+
+    private long userId;
+    private long orderId;
+    private long paymentId;
+    private int itemCount;
+
+    private PhaseEvent event;
+    private long startNanos;
+
+    PhaseTrace(MeterRegistry meterRegistry, String metricName, String operation) {
+        this.meterRegistry = meterRegistry;
+        this.metricName = metricName;
+        this.operation = operation;
+        begin();
+    }
+
+    public PhaseTrace userId(Long userId) {
+        this.userId = userId != null ? userId : 0;
+        return this;
+    }
+
+    public PhaseTrace orderId(Long orderId) {
+        this.orderId = orderId != null ? orderId : 0;
+        return this;
+    }
+
+    public PhaseTrace paymentId(Long paymentId) {
+        this.paymentId = paymentId != null ? paymentId : 0;
+        return this;
+    }
+
+    public PhaseTrace itemCount(int itemCount) {
+        this.itemCount = itemCount;
+        return this;
+    }
+
+    public void phase(String phase) {
+        long now = System.nanoTime();
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.phase = phase;
+            event.userId = userId;
+            event.orderId = orderId;
+            event.paymentId = paymentId;
+            event.itemCount = itemCount;
+            event.commit();
+        }
+        Timer.builder(metricName)
+                .description("Time spent in each phase of " + operation)
+                .tag("operation", operation)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(now - startNanos, TimeUnit.NANOSECONDS);
+        begin();
+    }
+
+    private void begin() {
+        event = new PhaseEvent();
+        event.begin();
+        startNanos = System.nanoTime();
+    }
+}
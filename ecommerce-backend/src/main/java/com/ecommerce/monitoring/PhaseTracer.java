@@ -0,0 +1,31 @@
+package com.ecommerce.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts {@link PhaseTrace}s for the checkout and payment flows. Phases show up as
+ * {@code com.ecommerce.Phase} Flight Recorder events and in the
+ * {@code checkout.phase} / {@code payment.phase} timers.
+ */
+@Component
+public class PhaseTracer {
+
+    private final MeterRegistry meterRegistry;
+
+    public PhaseTracer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public PhaseTrace checkout() {
+        return new PhaseTrace(meterRegistry, "checkout.phase", "checkout");
+    }
+
+    public PhaseTrace paymentCreation() {
+        return new PhaseTrace(meterRegistry, "payment.phase", "create_payment");
+    }
+
+    public PhaseTrace paymentCallback() {
+        return new PhaseTrace(meterRegistry, "payment.phase", "payment_callback");
+    }
+}
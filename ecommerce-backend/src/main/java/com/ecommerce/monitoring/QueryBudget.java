@@ -0,0 +1,21 @@
+package com.ecommerce.monitoring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of JDBC statements a controller endpoint may execute per request.
+ * Reads must stay within it however much data they return; writes that touch one
+ * row per cart line or stock bucket are budgeted for the data {@code QueryBudgetTest}
+ * uses. Exceeding it is logged and counted at runtime and fails the test.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
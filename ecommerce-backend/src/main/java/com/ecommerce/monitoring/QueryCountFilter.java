@@ -0,0 +1,81 @@
+package com.ecommerce.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the statements executed while serving each request, records them per
+ * endpoint and warns when an endpoint goes over its {@link QueryBudget}.
+ */
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String START_ATTRIBUTE = QueryCountFilter.class.getName() + ".start";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountFilter(QueryCounter queryCounter, MeterRegistry meterRegistry) {
+        this.queryCounter = queryCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Statements executed so far by the request being served on this thread.
+     */
+    public long countFor(HttpServletRequest request) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        return start instanceof Long value ? queryCounter.current() - value : 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        request.setAttribute(START_ATTRIBUTE, queryCounter.current());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            record(request, countFor(request));
+        }
+    }
+
+    private void record(HttpServletRequest request, long statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("db.queries.request")
+                .description("JDBC statements per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+            if (budget != null && statements > budget.value()) {
+                Counter.builder("db.queries.budget.exceeded")
+                        .description("Requests that executed more statements than their query budget")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .increment();
+                log.warn("{} {} executed {} statements, budget is {}",
+                        request.getMethod(), uri, statements, budget.value());
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds an {@code X-Query-Count} header with the number of statements the request
+ * executed. Meant for development; enabled with {@code monitoring.query-count.header=true}.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "monitoring.query-count.header", havingValue = "true")
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private final QueryCountFilter queryCountFilter;
+
+    public QueryCountHeaderAdvice(QueryCountFilter queryCountFilter) {
+        this.queryCountFilter = queryCountFilter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            response.getHeaders().set(QUERY_COUNT_HEADER,
+                    Long.toString(queryCountFilter.countFor(servletRequest.getServletRequest())));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts JDBC statements executed by the current thread and the time spent
+ * executing them. A statement is one round trip to the database, so a JDBC batch
+ * counts once. Request and transaction figures are taken as the difference between
+ * two readings of {@link #current()} / {@link #currentNanos()}.
+ */
+@Component
+public class QueryCounter implements QueryExecutionListener {
+
+    private static final int COUNT = 0;
+    private static final int NANOS = 1;
+    private static final int STARTED = 2;
+
+    private static final ThreadLocal<long[]> STATE = ThreadLocal.withInitial(() -> new long[3]);
+
+    private final Map<QueryType, Counter> statements = new EnumMap<>(QueryType.class);
+
+    public QueryCounter(MeterRegistry meterRegistry) {
+        for (QueryType type : QueryType.values()) {
+            statements.put(type, Counter.builder("db.statements")
+                    .description("JDBC statements executed")
+                    .tag("type", type.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    public long current() {
+        return STATE.get()[COUNT];
+    }
+
+    public long currentNanos() {
+        return STATE.get()[NANOS];
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        STATE.get()[STARTED] = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long[] state = STATE.get();
+        state[COUNT]++;
+        state[NANOS] += System.nanoTime() - state[STARTED];
+        String query = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        statements.get(QueryUtils.getQueryType(query)).increment();
+    }
+}
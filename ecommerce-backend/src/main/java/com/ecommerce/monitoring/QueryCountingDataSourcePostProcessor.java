@@ -0,0 +1,109 @@
+package com.ecommerce.monitoring;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.SimpleResultSetProxyLogic;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Wraps the application's {@link DataSource} in a datasource-proxy so every
+ * statement passes through {@link QueryCounter} and {@link SlowQueryRecorder}, and
+ * result sets report their row count when closed. Listeners are looked up lazily
+ * because they need the meter registry, which is not ready when data sources are built.
+ * Repository proxies get a {@link RepositoryMethodInterceptor} so slow statements can
+ * be attributed to the method that issued them.
+ */
+@Component
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<QueryCounter> queryCounter;
+    private final ObjectProvider<SlowQueryRecorder> slowQueryRecorder;
+
+    public QueryCountingDataSourcePostProcessor(ObjectProvider<QueryCounter> queryCounter,
+                                                ObjectProvider<SlowQueryRecorder> slowQueryRecorder) {
+        this.queryCounter = queryCounter;
+        this.slowQueryRecorder = slowQueryRecorder;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactory) {
+            repositoryFactory.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                            new RepositoryMethodInterceptor(repositoryInformation.getRepositoryInterface()))));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(new DelegatingListener(queryCounter))
+                    .listener(new DelegatingListener(slowQueryRecorder))
+                    .proxyResultSet(RowCountingResultSetProxyLogic::new)
+                    .build();
+        }
+        return bean;
+    }
+
+    private static final class DelegatingListener implements QueryExecutionListener {
+
+        private final ObjectProvider<? extends QueryExecutionListener> delegate;
+
+        DelegatingListener(ObjectProvider<? extends QueryExecutionListener> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            delegate.getObject().beforeQuery(execInfo, queryInfoList);
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            delegate.getObject().afterQuery(execInfo, queryInfoList);
+        }
+    }
+
+    private final class RowCountingResultSetProxyLogic extends SimpleResultSetProxyLogic {
+
+        private long rows;
+        private boolean closed;
+
+        RowCountingResultSetProxyLogic(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+            super(resultSet, connectionInfo, proxyConfig);
+        }
+
+        @Override
+        protected Object performProxyLogic(Object proxy, Method method, Object[] args,
+                                           MethodExecutionContext methodContext) throws Throwable {
+            Object result = super.performProxyLogic(proxy, method, args, methodContext);
+            String name = method.getName();
+            if (name.equals("next")) {
+                if (Boolean.TRUE.equals(result)) {
+                    rows++;
+                }
+            } else if (name.equals("close") && !closed) {
+                closed = true;
+                slowQueryRecorder.getObject().resultSetClosed(rows);
+            }
+            return result;
+        }
+    }
+}
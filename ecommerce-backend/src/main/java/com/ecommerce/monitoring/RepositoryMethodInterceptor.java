@@ -0,0 +1,45 @@
+package com.ecommerce.monitoring;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which repository method the current thread is in, as
+ * {@code ProductRepository.findByCategory}, so statements can be attributed to it.
+ * Added to every repository proxy by {@link QueryCountingDataSourcePostProcessor}.
+ */
+final class RepositoryMethodInterceptor implements MethodInterceptor {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final Class<?> repositoryInterface;
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+    RepositoryMethodInterceptor(Class<?> repositoryInterface) {
+        this.repositoryInterface = repositoryInterface;
+    }
+
+    static String current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String previous = CURRENT.get();
+        CURRENT.set(names.computeIfAbsent(invocation.getMethod(),
+                method -> repositoryInterface.getSimpleName() + "." + method.getName()));
+        try {
+            return invocation.proceed();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
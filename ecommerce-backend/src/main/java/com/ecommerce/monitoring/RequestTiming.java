@@ -0,0 +1,87 @@
+package com.ecommerce.monitoring;
+
+/**
+ * Time spent in each layer while serving the request on the current thread. Opened
+ * and closed by {@link ServerTimingFilter}; the layers report into it through
+ * {@link ServerTimingAspect}, {@link SerializationTimingAdvice} and
+ * {@link FlushTimingSessionListener}. Outside a request every call is a no-op.
+ */
+final class RequestTiming {
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    final long startNanos = System.nanoTime();
+
+    long controllerNanos;
+    long serviceNanos;
+    long flushNanos;
+    long serializationStartNanos;
+
+    private int controllerDepth;
+    private long controllerStartNanos;
+    private int serviceDepth;
+    private long serviceStartNanos;
+    private long flushStartNanos;
+
+    private RequestTiming() {
+    }
+
+    static RequestTiming open() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Only the outermost controller call is timed, so forwards and nested calls are
+     * not counted twice. The same goes for {@link #enterService()}.
+     */
+    void enterController() {
+        if (controllerDepth++ == 0) {
+            controllerStartNanos = System.nanoTime();
+        }
+    }
+
+    void exitController() {
+        if (--controllerDepth == 0) {
+            controllerNanos += System.nanoTime() - controllerStartNanos;
+        }
+    }
+
+    void enterService() {
+        if (serviceDepth++ == 0) {
+            serviceStartNanos = System.nanoTime();
+        }
+    }
+
+    void exitService() {
+        if (--serviceDepth == 0) {
+            serviceNanos += System.nanoTime() - serviceStartNanos;
+        }
+    }
+
+    void flushStarted() {
+        flushStartNanos = System.nanoTime();
+    }
+
+    void flushEnded() {
+        if (flushStartNanos != 0) {
+            flushNanos += System.nanoTime() - flushStartNanos;
+            flushStartNanos = 0;
+        }
+    }
+
+    void serializationStarted() {
+        if (serializationStartNanos == 0) {
+            serializationStartNanos = System.nanoTime();
+        }
+    }
+}
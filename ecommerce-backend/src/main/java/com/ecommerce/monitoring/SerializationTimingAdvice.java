@@ -0,0 +1,35 @@
+package com.ecommerce.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks the point where the response body is handed to the message converter, so
+ * {@link ServerTimingFilter} can report JSON serialization time.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "monitoring.server-timing.enabled", havingValue = "true")
+public class SerializationTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.serializationStarted();
+        }
+        return body;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times controller and service methods for the {@code Server-Timing} header.
+ * Controller time covers the handler method only; serialization of the returned
+ * {@code ApiResponse} is timed separately.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "monitoring.server-timing.enabled", havingValue = "true")
+public class ServerTimingAspect {
+
+    @Around("within(com.ecommerce.controller..*) && execution(public * *(..))")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            return joinPoint.proceed();
+        }
+        timing.enterController();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timing.exitController();
+        }
+    }
+
+    @Around("within(com.ecommerce.service..*) && execution(public * *(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            return joinPoint.proceed();
+        }
+        timing.enterService();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timing.exitService();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks {@link FlushTimingSessionListener} into every Hibernate session while
+ * {@code monitoring.server-timing.enabled=true}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "monitoring.server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer flushTimingCustomizer() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                FlushTimingSessionListener.class.getName());
+    }
+}
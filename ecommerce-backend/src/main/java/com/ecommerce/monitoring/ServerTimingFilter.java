@@ -0,0 +1,144 @@
+package com.ecommerce.monitoring;
+
+import com.ecommerce.controller.ReportController;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adds a {@code Server-Timing} header breaking each response down into controller,
+ * service, JDBC, Hibernate flush and JSON serialization time, and writes a sampled
+ * JSON line to the {@code com.ecommerce.monitoring.slow-requests} logger for requests
+ * slower than {@code monitoring.server-timing.slow-threshold-ms}. The body is buffered
+ * so the header can be set after serialization, which is why the streamed order export
+ * is skipped. Enabled with {@code monitoring.server-timing.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "monitoring.server-timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final Logger slowRequestLog = LoggerFactory.getLogger("com.ecommerce.monitoring.slow-requests");
+
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${monitoring.server-timing.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    @Value("${monitoring.server-timing.slow-sample-rate:1.0}")
+    private double slowSampleRate;
+
+    public ServerTimingFilter(QueryCounter queryCounter, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.queryCounter = queryCounter;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return ReportController.ORDER_EXPORT_PATH.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long statementsBefore = queryCounter.current();
+        long dbNanosBefore = queryCounter.currentNanos();
+        RequestTiming timing = RequestTiming.open();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            long endNanos = System.nanoTime();
+            RequestTiming.close();
+            Breakdown breakdown = new Breakdown(
+                    endNanos - timing.startNanos,
+                    timing.controllerNanos,
+                    timing.serviceNanos,
+                    queryCounter.currentNanos() - dbNanosBefore,
+                    queryCounter.current() - statementsBefore,
+                    timing.flushNanos,
+                    timing.serializationStartNanos != 0 ? endNanos - timing.serializationStartNanos : 0);
+            wrapper.setHeader(SERVER_TIMING_HEADER, breakdown.header());
+            wrapper.copyBodyToResponse();
+            if (breakdown.totalNanos() >= slowThresholdMs * 1_000_000) {
+                recordSlow(request, response.getStatus(), breakdown);
+            }
+        }
+    }
+
+    private void recordSlow(HttpServletRequest request, int status, Breakdown breakdown) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Counter.builder("http.server.requests.slow")
+                .description("Requests slower than monitoring.server-timing.slow-threshold-ms")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .increment();
+
+        if (!slowRequestLog.isWarnEnabled() || ThreadLocalRandom.current().nextDouble() >= slowSampleRate) {
+            return;
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("method", request.getMethod());
+        entry.put("uri", uri);
+        entry.put("path", request.getRequestURI());
+        entry.put("status", status);
+        entry.put("totalMs", millis(breakdown.totalNanos()));
+        entry.put("controllerMs", millis(breakdown.controllerNanos()));
+        entry.put("serviceMs", millis(breakdown.serviceNanos()));
+        entry.put("dbMs", millis(breakdown.dbNanos()));
+        entry.put("dbStatements", breakdown.statements());
+        entry.put("flushMs", millis(breakdown.flushNanos()));
+        entry.put("serializeMs", millis(breakdown.serializeNanos()));
+        try {
+            slowRequestLog.warn(objectMapper.writeValueAsString(entry));
+        } catch (JsonProcessingException e) {
+            slowRequestLog.warn("{}", entry);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private record Breakdown(long totalNanos, long controllerNanos, long serviceNanos, long dbNanos,
+                             long statements, long flushNanos, long serializeNanos) {
+
+        String header() {
+            return metric("controller", controllerNanos)
+                    + ", " + metric("service", serviceNanos)
+                    + ", " + metric("db", dbNanos) + ";desc=\"" + statements + " statements\""
+                    + ", " + metric("flush", flushNanos)
+                    + ", " + metric("serialize", serializeNanos)
+                    + ", " + metric("total", totalNanos);
+        }
+
+        private static String metric(String name, long nanos) {
+            return name + ";dur=" + String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.ecommerce.monitoring;
+
+import com.ecommerce.dto.SlowQueryDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent statements slower than {@code monitoring.slow-query.threshold-ms}
+ * in a fixed-size ring buffer, together with their row count and the repository method
+ * (or application frame) that issued them. Bind values can hold addresses, payment ids
+ * and other customer data, so they are only shown with
+ * {@code monitoring.slow-query.capture-parameters=true}, and only kept at all when that
+ * or {@code monitoring.slow-query.explain-enabled=true} is set, since EXPLAIN re-binds
+ * them. For queries the time
+ * includes reading the result set, so the row count is known when the entry is taken.
+ * Fast statements cost two {@link System#nanoTime()} calls and nothing is logged per
+ * statement.
+ */
+@Component
+public class SlowQueryRecorder implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryRecorder.class);
+
+    private static final int MAX_BATCH_ENTRIES = 10;
+    private static final int MAX_PARAMETER_LENGTH = 100;
+    private static final String UNKNOWN_CALLER = "unknown";
+
+    private final ThreadLocal<Pending> pending = ThreadLocal.withInitial(Pending::new);
+    private final AtomicReferenceArray<SlowQuery> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+    private final long thresholdNanos;
+    private final boolean captureParameters;
+    private final boolean explainEnabled;
+    private final ObjectProvider<DataSource> dataSource;
+    private final Counter slowStatements;
+
+    public SlowQueryRecorder(@Value("${monitoring.slow-query.threshold-ms:100}") long thresholdMs,
+                             @Value("${monitoring.slow-query.capacity:200}") int capacity,
+                             @Value("${monitoring.slow-query.capture-parameters:false}") boolean captureParameters,
+                             @Value("${monitoring.slow-query.explain-enabled:false}") boolean explainEnabled,
+                             ObjectProvider<DataSource> dataSource,
+                             MeterRegistry meterRegistry) {
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.thresholdNanos = thresholdMs * 1_000_000;
+        this.captureParameters = captureParameters;
+        this.explainEnabled = explainEnabled;
+        this.dataSource = dataSource;
+        this.slowStatements = Counter.builder("db.statements.slow")
+                .description("JDBC statements slower than monitoring.slow-query.threshold-ms")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Pending current = pending.get();
+        if (current.queries != null) {
+            // A result set left open while another statement runs; its row count is unknown
+            finish(current, System.nanoTime(), -1);
+        }
+        current.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long now = System.nanoTime();
+        Pending current = pending.get();
+        current.executeNanos = now - current.startNanos;
+        current.queries = queryInfoList;
+        current.batchSize = execInfo.isBatch() ? execInfo.getBatchSize() : 1;
+        current.repositoryMethod = RepositoryMethodInterceptor.current();
+        Object result = execInfo.getResult();
+        if (!(result instanceof ResultSet) || !execInfo.isSuccess()) {
+            finish(current, now, updateCount(result));
+        }
+    }
+
+    /**
+     * Called by the result set proxy when the result set of the last query on this
+     * thread is closed.
+     */
+    void resultSetClosed(long rows) {
+        Pending current = pending.get();
+        if (current.queries != null) {
+            finish(current, System.nanoTime(), rows);
+        }
+    }
+
+    public List<SlowQueryDTO> getSlowQueries(boolean explain) {
+        long last = sequence.get();
+        long first = Math.max(1, last - buffer.length() + 1);
+        List<SlowQueryDTO> result = new ArrayList<>();
+        for (long id = last; id >= first; id--) {
+            SlowQuery entry = buffer.get(slot(id));
+            if (entry != null && entry.id == id) {
+                result.add(entry.toDTO(explain && explainEnabled ? plan(entry) : null));
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    private void finish(Pending current, long endNanos, long rows) {
+        List<QueryInfo> queries = current.queries;
+        current.queries = null;
+        long totalNanos = endNanos - current.startNanos;
+        if (totalNanos < thresholdNanos || queries.isEmpty()) {
+            return;
+        }
+
+        QueryInfo query = queries.get(0);
+        long id = sequence.incrementAndGet();
+        boolean keepOperations = (captureParameters || explainEnabled) && !query.getParametersList().isEmpty();
+        SlowQuery entry = new SlowQuery(id, LocalDateTime.now(), query.getQuery(),
+                keepOperations ? query.getParametersList().get(0) : List.of(),
+                captureParameters ? formatParameters(query) : List.of(), current.batchSize,
+                rows >= 0 ? rows : null, current.executeNanos, totalNanos,
+                current.repositoryMethod, current.repositoryMethod == null ? caller() : null,
+                Thread.currentThread().getName());
+        buffer.set(slot(id), entry);
+        slowStatements.increment();
+        log.warn("Slow statement #{} took {} ms in {}: {}", id, String.format(Locale.ROOT, "%.1f", totalNanos / 1e6),
+                entry.repositoryMethod != null ? entry.repositoryMethod : entry.caller, entry.sql);
+    }
+
+    private int slot(long id) {
+        return (int) ((id - 1) % buffer.length());
+    }
+
+    private String plan(SlowQuery entry) {
+        String plan = entry.plan;
+        if (plan == null) {
+            plan = explain(entry);
+            entry.plan = plan;
+        }
+        return plan;
+    }
+
+    /**
+     * Runs {@code EXPLAIN} with the captured bind values on a connection that bypasses
+     * the datasource proxy, so plans do not show up as statements of their own.
+     */
+    private String explain(SlowQuery entry) {
+        String keyword = entry.sql.stripLeading().split("\\s", 2)[0].toLowerCase(Locale.ROOT);
+        if (!List.of("select", "with", "update", "delete", "insert").contains(keyword)) {
+            return null;
+        }
+        DataSource target = dataSource.getObject();
+        if (target instanceof ProxyDataSource proxy) {
+            target = proxy.getDataSource();
+        }
+        try (Connection connection = target.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + entry.sql)) {
+            for (ParameterSetOperation operation : entry.parameterOperations) {
+                if (!ParameterSetOperation.isRegisterOutParameterOperation(operation)) {
+                    operation.getMethod().invoke(statement, operation.getArgs());
+                }
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return formatPlan(resultSet);
+            }
+        } catch (SQLException | IllegalAccessException | InvocationTargetException e) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private static String formatPlan(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columns = metaData.getColumnCount();
+        StringBuilder plan = new StringBuilder();
+        if (columns > 1) {
+            for (int i = 1; i <= columns; i++) {
+                plan.append(i > 1 ? "\t" : "").append(metaData.getColumnLabel(i));
+            }
+        }
+        while (resultSet.next()) {
+            if (!plan.isEmpty()) {
+                plan.append('\n');
+            }
+            for (int i = 1; i <= columns; i++) {
+                plan.append(i > 1 ? "\t" : "").append(resultSet.getString(i));
+            }
+        }
+        return plan.toString();
+    }
+
+    private static List<List<String>> formatParameters(QueryInfo query) {
+        List<List<String>> batches = new ArrayList<>();
+        for (List<ParameterSetOperation> operations : query.getParametersList()) {
+            if (batches.size() == MAX_BATCH_ENTRIES) {
+                break;
+            }
+            List<String> values = new ArrayList<>(operations.size());
+            for (ParameterSetOperation operation : operations) {
+                values.add(formatParameter(operation));
+            }
+            batches.add(values);
+        }
+        return batches;
+    }
+
+    private static String formatParameter(ParameterSetOperation operation) {
+        if (ParameterSetOperation.isSetNullParameterOperation(operation)) {
+            return null;
+        }
+        Object[] args = operation.getArgs();
+        Object value = args.length > 1 ? args[1] : null;
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        String text = String.valueOf(value);
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    /**
+     * The innermost application frame outside this package, for statements that do not
+     * come from a repository method, such as flushes at commit or plain JDBC; {@code unknown}
+     * when there is none, such as for statements run by the framework on its own.
+     */
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("com.ecommerce.")
+                        && !frame.getClassName().startsWith("com.ecommerce.monitoring.")
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName())
+                .orElse(UNKNOWN_CALLER));
+    }
+
+    private static final class Pending {
+        long startNanos;
+        long executeNanos;
+        int batchSize;
+        List<QueryInfo> queries;
+        String repositoryMethod;
+    }
+
+    private static final class SlowQuery {
+        final long id;
+        final LocalDateTime occurredAt;
+        final String sql;
+        final List<ParameterSetOperation> parameterOperations;
+        final List<List<String>> parameters;
+        final int batchSize;
+        final Long rows;
+        final long executeNanos;
+        final long totalNanos;
+        final String repositoryMethod;
+        final String caller;
+        final String thread;
+        volatile String plan;
+
+        SlowQuery(long id, LocalDateTime occurredAt, String sql, List<ParameterSetOperation> parameterOperations,
+                  List<List<String>> parameters, int batchSize, Long rows, long executeNanos, long totalNanos,
+                  String repositoryMethod, String caller, String thread) {
+            this.id = id;
+            this.occurredAt = occurredAt;
+            this.sql = sql;
+            this.parameterOperations = parameterOperations;
+            this.parameters = parameters;
+            this.batchSize = batchSize;
+            this.rows = rows;
+            this.executeNanos = executeNanos;
+            this.totalNanos = totalNanos;
+            this.repositoryMethod = repositoryMethod;
+            this.caller = caller;
+            this.thread = thread;
+        }
+
+        SlowQueryDTO toDTO(String plan) {
+            return new SlowQueryDTO(id, occurredAt, sql, parameters, batchSize, rows,
+                    executeNanos / 1e6, totalNanos / 1e6, repositoryMethod, caller, thread, plan);
+        }
+    }
+}
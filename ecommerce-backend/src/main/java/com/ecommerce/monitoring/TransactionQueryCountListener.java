@@ -0,0 +1,67 @@
+package com.ecommerce.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Records how many statements each transaction executed, tagged with the
+ * transaction name (the {@code @Transactional} method, or {@code unnamed} for
+ * programmatic transactions). Spring Boot registers this listener with the
+ * auto-configured transaction manager.
+ */
+@Component
+public class TransactionQueryCountListener implements TransactionExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionQueryCountListener.class);
+
+    private static final ThreadLocal<Deque<Long>> STARTS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+
+    public TransactionQueryCountListener(QueryCounter queryCounter, MeterRegistry meterRegistry) {
+        this.queryCounter = queryCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null) {
+            STARTS.get().push(queryCounter.current());
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        record(transaction, commitFailure == null ? "commit" : "failed");
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        record(transaction, "rollback");
+    }
+
+    private void record(TransactionExecution transaction, String outcome) {
+        Long start = STARTS.get().poll();
+        if (start == null) {
+            return;
+        }
+        long statements = queryCounter.current() - start;
+        String name = transaction.getTransactionName().isEmpty() ? "unnamed" : transaction.getTransactionName();
+        DistributionSummary.builder("db.queries.transaction")
+                .description("JDBC statements per transaction")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(statements);
+        log.trace("Transaction {} executed {} statements ({})", name, statements, outcome);
+    }
+}
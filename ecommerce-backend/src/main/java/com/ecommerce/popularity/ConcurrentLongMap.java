@@ -0,0 +1,143 @@
+package com.ecommerce.popularity;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Concurrent map from {@code long} keys to values that are added once and never removed,
+ * held in open-addressing arrays so keys are not boxed. Lookups take no lock: a value is
+ * written before its key, so a reader that finds the key also sees the value. Inserts
+ * take a lock and, when the table is half full, publish a copy twice its size; readers
+ * still on the old table find every key inserted before the copy.
+ */
+final class ConcurrentLongMap<V> {
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private final ReentrantLock insertLock = new ReentrantLock();
+    private volatile Table<V> table;
+    private volatile int size;
+
+    ConcurrentLongMap(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2L) {
+            capacity <<= 1;
+        }
+        this.table = new Table<>(capacity);
+    }
+
+    V get(long key) {
+        checkKey(key);
+        return table.find(key);
+    }
+
+    V computeIfAbsent(long key, LongFunction<V> factory) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        insertLock.lock();
+        try {
+            Table<V> current = table;
+            value = current.find(key);
+            if (value != null) {
+                return value;
+            }
+            if ((size + 1) * 2 > current.capacity()) {
+                current = current.copy(current.capacity() * 2);
+                table = current;
+            }
+            value = factory.apply(key);
+            current.insert(key, value);
+            size++;
+            return value;
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    void forEach(LongObjConsumer<V> action) {
+        Table<V> current = table;
+        for (int i = 0; i < current.capacity(); i++) {
+            long key = current.keys.get(i);
+            if (key != FREE) {
+                action.accept(key, current.values.get(i));
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static void checkKey(long key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Reserved key " + key);
+        }
+    }
+
+    @FunctionalInterface
+    interface LongObjConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private static final class Table<V> {
+
+        private final AtomicLongArray keys;
+        private final AtomicReferenceArray<V> values;
+        private final int mask;
+
+        Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                keys.set(i, FREE);
+            }
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        V find(long key) {
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                long k = keys.get(i);
+                if (k == key) {
+                    return values.get(i);
+                }
+                if (k == FREE) {
+                    return null;
+                }
+            }
+        }
+
+        /** Called with the insert lock held, for a key that is not in the table. */
+        void insert(long key, V value) {
+            int i = slot(key);
+            while (keys.get(i) != FREE) {
+                i = (i + 1) & mask;
+            }
+            values.set(i, value);
+            keys.set(i, key);
+        }
+
+        Table<V> copy(int capacity) {
+            Table<V> copy = new Table<>(capacity);
+            for (int i = 0; i <= mask; i++) {
+                long key = keys.get(i);
+                if (key != FREE) {
+                    copy.insert(key, values.get(i));
+                }
+            }
+            return copy;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
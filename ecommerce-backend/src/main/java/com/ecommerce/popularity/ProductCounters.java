@@ -0,0 +1,76 @@
+package com.ecommerce.popularity;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Popularity counts of one product. Each count is a {@link LongAdder}, which spreads
+ * concurrent increments over per-thread cells, so a hot product does not turn every view
+ * into a contended CAS. The totals include counts not yet written to the database; the
+ * pending adders hold only those, and are drained by each flush.
+ */
+final class ProductCounters {
+
+    private final LongAdder views = new LongAdder();
+    private final LongAdder cartAdds = new LongAdder();
+    private final LongAdder unitsSold = new LongAdder();
+    private final LongAdder pendingViews = new LongAdder();
+    private final LongAdder pendingCartAdds = new LongAdder();
+    private final LongAdder pendingUnitsSold = new LongAdder();
+
+    void viewed() {
+        views.increment();
+        pendingViews.increment();
+    }
+
+    void addedToCart() {
+        cartAdds.increment();
+        pendingCartAdds.increment();
+    }
+
+    void sold(long units) {
+        unitsSold.add(units);
+        pendingUnitsSold.add(units);
+    }
+
+    /** Adds counts already stored in the database. */
+    void load(long storedViews, long storedCartAdds, long storedUnitsSold) {
+        views.add(storedViews);
+        cartAdds.add(storedCartAdds);
+        unitsSold.add(storedUnitsSold);
+    }
+
+    long views() {
+        return views.sum();
+    }
+
+    long cartAdds() {
+        return cartAdds.sum();
+    }
+
+    long unitsSold() {
+        return unitsSold.sum();
+    }
+
+    /**
+     * Takes the counts added since the last drain. Increments racing with the drain are
+     * not lost: they land in this delta or in the next one.
+     */
+    Delta drain(long productId) {
+        return new Delta(productId, pendingViews.sumThenReset(), pendingCartAdds.sumThenReset(),
+                pendingUnitsSold.sumThenReset());
+    }
+
+    /** Puts back a delta that could not be written, for the next flush. */
+    void restore(Delta delta) {
+        pendingViews.add(delta.views());
+        pendingCartAdds.add(delta.cartAdds());
+        pendingUnitsSold.add(delta.unitsSold());
+    }
+
+    record Delta(long productId, long views, long cartAdds, long unitsSold) {
+
+        boolean isEmpty() {
+            return views == 0 && cartAdds == 0 && unitsSold == 0;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ecommerce.popularity;
+
+import com.ecommerce.dto.ProductPopularityDTO;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.popularity.ProductCounters.Delta;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Counts product views, cart adds and units sold for ranking. Events only increment
+ * in-memory {@link ProductCounters}; every {@code popularity.flush-interval-ms} the counts
+ * added since the last flush are written as one batch of delta updates
+ * ({@code view_count = view_count + ?}), so a busy product costs one row update per flush
+ * instead of one per event. Deltas are added rather than totals overwritten, so several
+ * instances can flush into the same rows.
+ * <p>
+ * The rankings are served from memory: the stored counts are loaded at startup, and this
+ * instance's own events are added as they happen. A flush that fails keeps its deltas for
+ * the next one; counts not yet flushed when the process dies are lost, which a ranking
+ * can afford.
+ */
+@Service
+public class ProductPopularityService {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPopularityService.class);
+
+    private static final String SELECT_COUNTS =
+            "SELECT product_id, view_count, cart_add_count, units_sold FROM product_popularity";
+
+    private static final String ADD_COUNTS =
+            "UPDATE product_popularity SET view_count = view_count + ?, cart_add_count = cart_add_count + ?, " +
+            "units_sold = units_sold + ?, updated_at = ? WHERE product_id = ?";
+
+    private static final String INSERT_COUNTS =
+            "INSERT INTO product_popularity (product_id, view_count, cart_add_count, units_sold, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final Comparator<Ranked> BY_COUNT =
+            Comparator.comparingLong(Ranked::count).thenComparing(Ranked::productId, Comparator.reverseOrder());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentLongMap<ProductCounters> counters = new ConcurrentLongMap<>(1024);
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter flushedRows;
+
+    public ProductPopularityService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.query(SELECT_COUNTS, rs -> {
+            counters(rs.getLong(1)).load(rs.getLong(2), rs.getLong(3), rs.getLong(4));
+        });
+        this.flushedRows = Counter.builder("popularity.flushed.rows")
+                .description("Product popularity rows updated by counter flushes")
+                .register(meterRegistry);
+        Gauge.builder("popularity.products", counters, ConcurrentLongMap::size)
+                .description("Products with popularity counters in memory")
+                .register(meterRegistry);
+    }
+
+    public void productViewed(long productId) {
+        counters(productId).viewed();
+    }
+
+    public void addedToCart(long productId) {
+        counters(productId).addedToCart();
+    }
+
+    public void sold(long productId, int units) {
+        counters(productId).sold(units);
+    }
+
+    public List<ProductPopularityDTO> getMostViewed(int limit) {
+        return top(limit, ProductCounters::views);
+    }
+
+    public List<ProductPopularityDTO> getBestSelling(int limit) {
+        return top(limit, ProductCounters::unitsSold);
+    }
+
+    @Scheduled(fixedDelayString = "${popularity.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Delta> deltas = new ArrayList<>();
+            counters.forEach((productId, product) -> {
+                Delta delta = product.drain(productId);
+                if (!delta.isEmpty()) {
+                    deltas.add(delta);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(deltas));
+            } catch (RuntimeException e) {
+                deltas.forEach(delta -> counters.get(delta.productId()).restore(delta));
+                log.warn("Could not flush popularity counts of {} products; retrying on the next flush",
+                        deltas.size(), e);
+                return;
+            }
+            flushedRows.increment(deltas.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(List<Delta> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] updated = jdbcTemplate.batchUpdate(ADD_COUNTS, deltas, deltas.size(), (ps, delta) -> {
+            ps.setLong(1, delta.views());
+            ps.setLong(2, delta.cartAdds());
+            ps.setLong(3, delta.unitsSold());
+            ps.setTimestamp(4, now);
+            ps.setLong(5, delta.productId());
+        });
+        List<Delta> missing = new ArrayList<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            if (updated[0][i] == 0) {
+                missing.add(deltas.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        // First counts of a product; if another instance inserts it first, the batch is retried as updates
+        jdbcTemplate.batchUpdate(INSERT_COUNTS, missing, missing.size(), (ps, delta) -> {
+            ps.setLong(1, delta.productId());
+            ps.setLong(2, delta.views());
+            ps.setLong(3, delta.cartAdds());
+            ps.setLong(4, delta.unitsSold());
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    /** The {@code limit} products with the highest count, in O(products * log limit). */
+    private List<ProductPopularityDTO> top(int limit, ToLongFunction<ProductCounters> count) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        PriorityQueue<Ranked> lowestFirst = new PriorityQueue<>(limit + 1, BY_COUNT);
+        counters.forEach((productId, product) -> {
+            long value = count.applyAsLong(product);
+            if (value == 0) {
+                return;
+            }
+            Ranked ranked = new Ranked(productId, value, product);
+            if (lowestFirst.size() < limit) {
+                lowestFirst.add(ranked);
+            } else if (BY_COUNT.compare(ranked, lowestFirst.peek()) > 0) {
+                lowestFirst.poll();
+                lowestFirst.add(ranked);
+            }
+        });
+        List<Ranked> ranked = new ArrayList<>(lowestFirst);
+        ranked.sort(BY_COUNT.reversed());
+        return ranked.stream().map(r -> toDTO(r.productId(), r.counters())).toList();
+    }
+
+    private ProductCounters counters(long productId) {
+        return counters.computeIfAbsent(productId, id -> new ProductCounters());
+    }
+
+    private static ProductPopularityDTO toDTO(long productId, ProductCounters product) {
+        return new ProductPopularityDTO(productId, product.views(), product.cartAdds(), product.unitsSold());
+    }
+
+    private record Ranked(long productId, long count, ProductCounters counters) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.reporting;
+
+import com.ecommerce.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+public enum ExportFormat {
+
+    /** One line per order line, order columns repeated. */
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+
+    /** One JSON object per order, its lines nested. */
+    NDJSON(new MediaType("application", "x-ndjson"), "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat parse(String format) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown export format " + format + "; use csv or ndjson");
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.ecommerce.reporting;
+
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes every order placed between two dates, with its lines, as CSV or NDJSON. Orders
+ * are read in pages of {@code reporting.export.page-size}, each one query read through a
+ * forward-only cursor with {@code reporting.export.fetch-size} rows per round trip, and
+ * the next page starts after the last order of the previous one (keyset paging on
+ * {@code (created_at, id)}). Memory use is bounded by one page however long the range is.
+ * <p>
+ * The export runs outside any transaction: each page is a single autocommit read that
+ * takes no locks, and the connection goes back to the pool before the page is written,
+ * so a slow download neither holds a connection nor keeps a long-lived snapshot open.
+ * Orders committed while the export runs are included if they sort after the current page.
+ */
+@Service
+public class OrderExportService {
+
+    static final String CSV_HEADER = "order_id,created_at,user_id,status,total_amount,shipping_address," +
+            "product_id,quantity,unit_price,subtotal";
+
+    // created_at >= cursor bounds the index range scan; ids only break ties within one timestamp
+    private static final String SELECT_PAGE =
+            "SELECT o.id, o.created_at, o.user_id, o.status, o.total_amount, o.shipping_address, " +
+            "oi.product_id, oi.quantity, oi.unit_price, oi.subtotal " +
+            "FROM (SELECT id, created_at, user_id, status, total_amount, shipping_address FROM orders " +
+            "WHERE created_at >= ? AND created_at < ? AND (created_at > ? OR (created_at = ? AND id > ?)) " +
+            "ORDER BY created_at, id LIMIT ?) o " +
+            "LEFT JOIN order_items oi ON oi.order_id = o.id " +
+            "ORDER BY o.created_at, o.id, oi.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+    private final Counter exportedOrders;
+
+    public OrderExportService(DataSource dataSource, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${reporting.export.page-size:1000}") int pageSize,
+                              @Value("${reporting.export.fetch-size:500}") int fetchSize) {
+        // Its own template, so the fetch size does not apply to other queries
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+        this.exportedOrders = Counter.builder("orders.exported")
+                .description("Orders written by order exports")
+                .register(meterRegistry);
+    }
+
+    /** Orders placed from {@code from} to {@code to}, both days included. */
+    public void export(LocalDate from, LocalDate to, ExportFormat format, OutputStream out) throws IOException {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        LocalDateTime cursorAt = from.atStartOfDay();
+        long cursorId = 0;
+        try (OrderWriter writer = format == ExportFormat.CSV ? new CsvWriter(out) : new NdjsonWriter(out)) {
+            List<ExportedOrder> page;
+            do {
+                page = readPage(cursorAt, cursorId, end);
+                for (ExportedOrder order : page) {
+                    writer.write(order);
+                }
+                // Each page reaches the client before the next one is read
+                writer.flush();
+                exportedOrders.increment(page.size());
+                if (!page.isEmpty()) {
+                    ExportedOrder last = page.get(page.size() - 1);
+                    cursorAt = last.createdAt();
+                    cursorId = last.id();
+                }
+            } while (page.size() == pageSize);
+        }
+    }
+
+    private List<ExportedOrder> readPage(LocalDateTime cursorAt, long cursorId, LocalDateTime end) {
+        List<ExportedOrder> page = new ArrayList<>(pageSize);
+        Timestamp cursor = Timestamp.valueOf(cursorAt);
+        jdbcTemplate.query(SELECT_PAGE, rs -> {
+            long id = rs.getLong(1);
+            ExportedOrder order = page.isEmpty() ? null : page.get(page.size() - 1);
+            if (order == null || order.id() != id) {
+                order = new ExportedOrder(id, rs.getTimestamp(2).toLocalDateTime(), rs.getLong(3), rs.getString(4),
+                        Money.of(rs.getBigDecimal(5)), rs.getString(6), new ArrayList<>());
+                page.add(order);
+            }
+            long productId = rs.getLong(7);
+            if (!rs.wasNull()) {
+                order.lines().add(line(rs, productId));
+            }
+        }, cursor, Timestamp.valueOf(end), cursor, cursor, cursorId, pageSize);
+        return page;
+    }
+
+    private static ExportedLine line(ResultSet rs, long productId) throws SQLException {
+        return new ExportedLine(productId, rs.getInt(8), Money.of(rs.getBigDecimal(9)), Money.of(rs.getBigDecimal(10)));
+    }
+
+    record ExportedOrder(long id, LocalDateTime createdAt, long userId, String status, Money totalAmount,
+                         String shippingAddress, List<ExportedLine> lines) {
+    }
+
+    record ExportedLine(long productId, int quantity, Money unitPrice, Money subtotal) {
+    }
+
+    private interface OrderWriter extends AutoCloseable {
+
+        void write(ExportedOrder order) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /** RFC 4180: fields with a comma, quote or line break are quoted, quotes doubled. */
+    private static final class CsvWriter implements OrderWriter {
+
+        private final Writer out;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.out.write(CSV_HEADER);
+            this.out.write("\r\n");
+        }
+
+        @Override
+        public void write(ExportedOrder order) throws IOException {
+            if (order.lines().isEmpty()) {
+                writeRow(order, null);
+            }
+            for (ExportedLine line : order.lines()) {
+                writeRow(order, line);
+            }
+        }
+
+        private void writeRow(ExportedOrder order, ExportedLine line) throws IOException {
+            out.write(Long.toString(order.id()));
+            out.write(',');
+            out.write(order.createdAt().toString());
+            out.write(',');
+            out.write(Long.toString(order.userId()));
+            out.write(',');
+            field(order.status());
+            out.write(',');
+            out.write(order.totalAmount().toString());
+            out.write(',');
+            field(order.shippingAddress());
+            if (line != null) {
+                out.write(',');
+                out.write(Long.toString(line.productId()));
+                out.write(',');
+                out.write(Integer.toString(line.quantity()));
+                out.write(',');
+                out.write(line.unitPrice().toString());
+                out.write(',');
+                out.write(line.subtotal().toString());
+            } else {
+                out.write(",,,,");
+            }
+            out.write("\r\n");
+        }
+
+        private void field(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    private final class NdjsonWriter implements OrderWriter {
+
+        private final JsonGenerator json;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(out);
+            // Objects are separated by the newlines written below, not by spaces
+            this.json.setRootValueSeparator(null);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(ExportedOrder order) throws IOException {
+            json.writeStartObject();
+            json.writeNumberField("id", order.id());
+            json.writeStringField("createdAt", order.createdAt().toString());
+            json.writeNumberField("userId", order.userId());
+            json.writeStringField("status", order.status());
+            json.writeNumberField("totalAmount", order.totalAmount().toBigDecimal());
+            json.writeStringField("shippingAddress", order.shippingAddress());
+            json.writeArrayFieldStart("items");
+            for (ExportedLine line : order.lines()) {
+                json.writeStartObject();
+                json.writeNumberField("productId", line.productId());
+                json.writeNumberField("quantity", line.quantity());
+                json.writeNumberField("unitPrice", line.unitPrice().toBigDecimal());
+                json.writeNumberField("subtotal", line.subtotal().toBigDecimal());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.reporting;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The counts of one rollup bucket, a fixed number of {@code long} fields. Totals include
+ * what has not been written to the database yet; the pending counts hold only that, and
+ * are drained by each flush.
+ */
+final class RollupCounts {
+
+    private final AtomicLongArray totals;
+    private final AtomicLongArray pending;
+
+    RollupCounts(int fields) {
+        this.totals = new AtomicLongArray(fields);
+        this.pending = new AtomicLongArray(fields);
+    }
+
+    void add(int field, long delta) {
+        totals.addAndGet(field, delta);
+        pending.addAndGet(field, delta);
+    }
+
+    /** Adds counts already stored in the database. */
+    void load(int field, long stored) {
+        totals.addAndGet(field, stored);
+    }
+
+    long get(int field) {
+        return totals.get(field);
+    }
+
+    /** Takes the counts added since the last drain, or null if there are none. */
+    long[] drain() {
+        long[] delta = new long[pending.length()];
+        boolean empty = true;
+        for (int field = 0; field < delta.length; field++) {
+            delta[field] = pending.getAndSet(field, 0);
+            empty &= delta[field] == 0;
+        }
+        return empty ? null : delta;
+    }
+
+    /** Puts back a delta that could not be written, for the next flush. */
+    void restore(long[] delta) {
+        for (int field = 0; field < delta.length; field++) {
+            pending.addAndGet(field, delta[field]);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.reporting;
+
+import com.ecommerce.model.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published inside the transaction that places, pays or cancels an order. The sales
+ * rollups take it after commit, so an attempt that rolls back or is retried is never
+ * counted. Every event is dated with the day its order was placed.
+ */
+public record SalesEvent(Type type, LocalDate orderDate, Money amount, List<Line> lines) {
+
+    public enum Type {
+        PLACED,
+        PAID,
+        CANCELLED
+    }
+
+    public static SalesEvent placed(LocalDateTime orderCreatedAt, Money total, List<Line> lines) {
+        return new SalesEvent(Type.PLACED, orderCreatedAt.toLocalDate(), total, lines);
+    }
+
+    public static SalesEvent paid(LocalDateTime orderCreatedAt, Money total) {
+        return new SalesEvent(Type.PAID, orderCreatedAt.toLocalDate(), total, List.of());
+    }
+
+    public static SalesEvent cancelled(LocalDateTime orderCreatedAt, Money total, List<Line> lines) {
+        return new SalesEvent(Type.CANCELLED, orderCreatedAt.toLocalDate(), total, lines);
+    }
+
+    /** One order line; {@code category} is null for products without one. */
+    public record Line(String category, int quantity, Money subtotal) {
+    }
+}
@@ -0,0 +1,356 @@
+package com.ecommerce.reporting;
+
+import com.ecommerce.dto.CategorySalesDTO;
+import com.ecommerce.dto.DailySalesDTO;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps sales pre-aggregated per day and per day and category, so reports read one bucket
+ * per day (and category) instead of scanning {@code orders} and {@code order_items}.
+ * Committed {@link SalesEvent}s are added to in-memory rollups; every
+ * {@code reporting.flush-interval-ms} the buckets changed since the last flush are
+ * written as one batch of delta updates to {@code sales_daily} and
+ * {@code sales_by_category}. Deltas are added rather than totals overwritten, so several
+ * instances can flush into the same rows.
+ * <p>
+ * Reports are answered from memory: the stored rollups are loaded at startup and this
+ * instance's own events are added as they commit. A failed flush keeps its deltas for the
+ * next one.
+ */
+@Service
+public class SalesRollupService {
+
+    public static final String UNCATEGORIZED = "Uncategorized";
+    public static final int DEFAULT_DAYS = 30;
+    public static final int MAX_DAYS = 366;
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    // Fields of a daily bucket
+    private static final int ORDERS_PLACED = 0;
+    private static final int ORDERS_PAID = 1;
+    private static final int ORDERS_CANCELLED = 2;
+    private static final int UNITS_SOLD = 3;
+    private static final int UNITS_CANCELLED = 4;
+    private static final int REVENUE = 5;
+    private static final int PAID_REVENUE = 6;
+    private static final int CANCELLED_REVENUE = 7;
+    private static final int DAILY_FIELDS = 8;
+
+    // Fields of a category bucket
+    private static final int CATEGORY_UNITS_SOLD = 0;
+    private static final int CATEGORY_UNITS_CANCELLED = 1;
+    private static final int CATEGORY_REVENUE = 2;
+    private static final int CATEGORY_CANCELLED_REVENUE = 3;
+    private static final int CATEGORY_FIELDS = 4;
+
+    private static final String SELECT_DAILY =
+            "SELECT sales_date, orders_placed, orders_paid, orders_cancelled, units_sold, units_cancelled, " +
+            "revenue, paid_revenue, cancelled_revenue FROM sales_daily";
+
+    private static final String SELECT_CATEGORIES =
+            "SELECT sales_date, category, units_sold, units_cancelled, revenue, cancelled_revenue " +
+            "FROM sales_by_category";
+
+    private static final String ADD_DAILY =
+            "UPDATE sales_daily SET orders_placed = orders_placed + ?, orders_paid = orders_paid + ?, " +
+            "orders_cancelled = orders_cancelled + ?, units_sold = units_sold + ?, " +
+            "units_cancelled = units_cancelled + ?, revenue = revenue + ?, paid_revenue = paid_revenue + ?, " +
+            "cancelled_revenue = cancelled_revenue + ?, updated_at = ? WHERE sales_date = ?";
+
+    private static final String INSERT_DAILY =
+            "INSERT INTO sales_daily (orders_placed, orders_paid, orders_cancelled, units_sold, units_cancelled, " +
+            "revenue, paid_revenue, cancelled_revenue, updated_at, sales_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ADD_CATEGORY =
+            "UPDATE sales_by_category SET units_sold = units_sold + ?, units_cancelled = units_cancelled + ?, " +
+            "revenue = revenue + ?, cancelled_revenue = cancelled_revenue + ?, updated_at = ? " +
+            "WHERE sales_date = ? AND category = ?";
+
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO sales_by_category (units_sold, units_cancelled, revenue, cancelled_revenue, updated_at, " +
+            "sales_date, category) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentSkipListMap<LocalDate, Day> days = new ConcurrentSkipListMap<>();
+    private final Set<LocalDate> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter flushedRows;
+
+    public SalesRollupService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.query(SELECT_DAILY, rs -> {
+            RollupCounts totals = day(rs.getDate(1).toLocalDate()).totals;
+            for (int field = ORDERS_PLACED; field <= UNITS_CANCELLED; field++) {
+                totals.load(field, rs.getLong(field + 2));
+            }
+            for (int field = REVENUE; field <= CANCELLED_REVENUE; field++) {
+                totals.load(field, Money.of(rs.getBigDecimal(field + 2)).getMinorUnits());
+            }
+        });
+        jdbcTemplate.query(SELECT_CATEGORIES, rs -> {
+            RollupCounts category = day(rs.getDate(1).toLocalDate()).category(rs.getString(2));
+            category.load(CATEGORY_UNITS_SOLD, rs.getLong(3));
+            category.load(CATEGORY_UNITS_CANCELLED, rs.getLong(4));
+            category.load(CATEGORY_REVENUE, Money.of(rs.getBigDecimal(5)).getMinorUnits());
+            category.load(CATEGORY_CANCELLED_REVENUE, Money.of(rs.getBigDecimal(6)).getMinorUnits());
+        });
+        this.flushedRows = Counter.builder("sales.rollup.flushed.rows")
+                .description("Sales rollup rows updated by flushes")
+                .register(meterRegistry);
+        Gauge.builder("sales.rollup.days", days, Map::size)
+                .description("Days with sales rollups in memory")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSale(SalesEvent event) {
+        Day day = day(event.orderDate());
+        long amount = event.amount().getMinorUnits();
+        switch (event.type()) {
+            case PLACED -> {
+                day.totals.add(ORDERS_PLACED, 1);
+                day.totals.add(REVENUE, amount);
+                for (SalesEvent.Line line : event.lines()) {
+                    day.totals.add(UNITS_SOLD, line.quantity());
+                    RollupCounts category = day.category(line.category());
+                    category.add(CATEGORY_UNITS_SOLD, line.quantity());
+                    category.add(CATEGORY_REVENUE, line.subtotal().getMinorUnits());
+                }
+            }
+            case PAID -> {
+                day.totals.add(ORDERS_PAID, 1);
+                day.totals.add(PAID_REVENUE, amount);
+            }
+            case CANCELLED -> {
+                day.totals.add(ORDERS_CANCELLED, 1);
+                day.totals.add(CANCELLED_REVENUE, amount);
+                for (SalesEvent.Line line : event.lines()) {
+                    day.totals.add(UNITS_CANCELLED, line.quantity());
+                    RollupCounts category = day.category(line.category());
+                    category.add(CATEGORY_UNITS_CANCELLED, line.quantity());
+                    category.add(CATEGORY_CANCELLED_REVENUE, line.subtotal().getMinorUnits());
+                }
+            }
+        }
+        // Marked after the counts are added, so a flush that misses them finds the day dirty again
+        dirty.add(event.orderDate());
+    }
+
+    /** One entry per day with sales between {@code from} and {@code to}, both included. */
+    public List<DailySalesDTO> getDailySales(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        checkRange(start, end);
+        List<DailySalesDTO> report = new ArrayList<>();
+        for (Map.Entry<LocalDate, Day> entry : days.subMap(start, true, end, true).entrySet()) {
+            RollupCounts totals = entry.getValue().totals;
+            report.add(new DailySalesDTO(entry.getKey(),
+                    totals.get(ORDERS_PLACED), totals.get(ORDERS_PAID), totals.get(ORDERS_CANCELLED),
+                    totals.get(UNITS_SOLD), totals.get(UNITS_CANCELLED),
+                    Money.ofMinor(totals.get(REVENUE)), Money.ofMinor(totals.get(PAID_REVENUE)),
+                    Money.ofMinor(totals.get(CANCELLED_REVENUE)),
+                    Money.ofMinor(totals.get(REVENUE) - totals.get(CANCELLED_REVENUE))));
+        }
+        return report;
+    }
+
+    /** Sales per category summed over the days from {@code from} to {@code to}, highest net revenue first. */
+    public List<CategorySalesDTO> getSalesByCategory(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        checkRange(start, end);
+        Map<String, long[]> sums = new TreeMap<>();
+        for (Day day : days.subMap(start, true, end, true).values()) {
+            day.categories.forEach((category, counts) -> {
+                long[] sum = sums.computeIfAbsent(category, c -> new long[CATEGORY_FIELDS]);
+                for (int field = 0; field < CATEGORY_FIELDS; field++) {
+                    sum[field] += counts.get(field);
+                }
+            });
+        }
+        List<CategorySalesDTO> report = new ArrayList<>(sums.size());
+        sums.forEach((category, sum) -> report.add(new CategorySalesDTO(category,
+                sum[CATEGORY_UNITS_SOLD], sum[CATEGORY_UNITS_CANCELLED],
+                Money.ofMinor(sum[CATEGORY_REVENUE]), Money.ofMinor(sum[CATEGORY_CANCELLED_REVENUE]),
+                Money.ofMinor(sum[CATEGORY_REVENUE] - sum[CATEGORY_CANCELLED_REVENUE]))));
+        report.sort(Comparator.comparing(CategorySalesDTO::getNetRevenue).reversed());
+        return report;
+    }
+
+    @Scheduled(fixedDelayString = "${reporting.flush-interval-ms:5000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<DailyDelta> daily = new ArrayList<>();
+            List<CategoryDelta> categories = new ArrayList<>();
+            for (Iterator<LocalDate> it = dirty.iterator(); it.hasNext(); ) {
+                LocalDate date = it.next();
+                it.remove();
+                Day day = days.get(date);
+                long[] delta = day.totals.drain();
+                if (delta != null) {
+                    daily.add(new DailyDelta(date, delta));
+                }
+                day.categories.forEach((category, counts) -> {
+                    long[] categoryDelta = counts.drain();
+                    if (categoryDelta != null) {
+                        categories.add(new CategoryDelta(date, category, categoryDelta));
+                    }
+                });
+            }
+            if (daily.isEmpty() && categories.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                    writeDaily(daily, now);
+                    writeCategories(categories, now);
+                });
+            } catch (RuntimeException e) {
+                daily.forEach(delta -> days.get(delta.date()).totals.restore(delta.counts()));
+                categories.forEach(delta -> days.get(delta.date()).category(delta.category()).restore(delta.counts()));
+                daily.forEach(delta -> dirty.add(delta.date()));
+                categories.forEach(delta -> dirty.add(delta.date()));
+                log.warn("Could not flush sales rollups of {} days; retrying on the next flush", daily.size(), e);
+                return;
+            }
+            flushedRows.increment(daily.size() + categories.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void writeDaily(List<DailyDelta> deltas, Timestamp now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int[][] updated = jdbcTemplate.batchUpdate(ADD_DAILY, deltas, deltas.size(),
+                (ps, delta) -> setDaily(ps, delta, now));
+        List<DailyDelta> missing = new ArrayList<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            if (updated[0][i] == 0) {
+                missing.add(deltas.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            // The columns are bound in the same order as the update, so one setter serves both
+            jdbcTemplate.batchUpdate(INSERT_DAILY, missing, missing.size(), (ps, delta) -> setDaily(ps, delta, now));
+        }
+    }
+
+    private void writeCategories(List<CategoryDelta> deltas, Timestamp now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int[][] updated = jdbcTemplate.batchUpdate(ADD_CATEGORY, deltas, deltas.size(),
+                (ps, delta) -> setCategory(ps, delta, now));
+        List<CategoryDelta> missing = new ArrayList<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            if (updated[0][i] == 0) {
+                missing.add(deltas.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CATEGORY, missing, missing.size(),
+                    (ps, delta) -> setCategory(ps, delta, now));
+        }
+    }
+
+    private static void setDaily(PreparedStatement ps, DailyDelta delta, Timestamp now) throws SQLException {
+        long[] counts = delta.counts();
+        for (int field = ORDERS_PLACED; field <= UNITS_CANCELLED; field++) {
+            ps.setLong(field + 1, counts[field]);
+        }
+        for (int field = REVENUE; field <= CANCELLED_REVENUE; field++) {
+            ps.setBigDecimal(field + 1, Money.ofMinor(counts[field]).toBigDecimal());
+        }
+        ps.setTimestamp(DAILY_FIELDS + 1, now);
+        ps.setDate(DAILY_FIELDS + 2, Date.valueOf(delta.date()));
+    }
+
+    private static void setCategory(PreparedStatement ps, CategoryDelta delta, Timestamp now) throws SQLException {
+        long[] counts = delta.counts();
+        ps.setLong(1, counts[CATEGORY_UNITS_SOLD]);
+        ps.setLong(2, counts[CATEGORY_UNITS_CANCELLED]);
+        ps.setBigDecimal(3, Money.ofMinor(counts[CATEGORY_REVENUE]).toBigDecimal());
+        ps.setBigDecimal(4, Money.ofMinor(counts[CATEGORY_CANCELLED_REVENUE]).toBigDecimal());
+        ps.setTimestamp(5, now);
+        ps.setDate(6, Date.valueOf(delta.date()));
+        ps.setString(7, delta.category());
+    }
+
+    private Day day(LocalDate date) {
+        return days.computeIfAbsent(date, d -> new Day());
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new BadRequestException("A report covers at most " + MAX_DAYS + " days");
+        }
+    }
+
+    private static final class Day {
+
+        private final RollupCounts totals = new RollupCounts(DAILY_FIELDS);
+        private final Map<String, RollupCounts> categories = new ConcurrentHashMap<>();
+
+        RollupCounts category(String category) {
+            return categories.computeIfAbsent(category != null ? category : UNCATEGORIZED,
+                    c -> new RollupCounts(CATEGORY_FIELDS));
+        }
+    }
+
+    private record DailyDelta(LocalDate date, long[] counts) {
+    }
+
+    private record CategoryDelta(LocalDate date, String category, long[] counts) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.repository;
+
+public interface BucketStockView {
+    Integer getBucketIndex();
+    Integer getStock();
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.repository;
+
+public interface BucketTotalView {
+    Long getProductId();
+    Long getStock();
+}
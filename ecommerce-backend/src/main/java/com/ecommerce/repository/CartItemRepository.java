@@ -3,7 +3,11 @@ package com.ecommerce.repository;
 import com.ecommerce.model.CartItem;
 import com.ecommerce.model.User;
 import com.ecommerce.model.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,9 +16,21 @@ import java.util.Optional;
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByUser(User user);
+
+    @EntityGraph(attributePaths = "product")
     List<CartItem> findByUserId(Long userId);
+
     Optional<CartItem> findByUserAndProduct(User user, Product product);
+
+    @EntityGraph(attributePaths = "product")
     Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
-    void deleteByUserId(Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from CartItem c where c.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
     void deleteByUser(User user);
+
+    @Query("select c.product.id as productId, c.quantity as quantity from CartItem c where c.user.id = :userId")
+    List<CartLineView> findLinesByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,6 @@
+package com.ecommerce.repository;
+
+public interface CartLineView {
+    Long getProductId();
+    Integer getQuantity();
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.responseStatus = :status, r.responseBody = :body where r.key = :key")
+    int complete(@Param("key") String key, @Param("status") int status, @Param("body") String body);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.InventoryBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryBucketRepository extends JpaRepository<InventoryBucket, Long> {
+    List<InventoryBucket> findByProductIdOrderByBucketIndex(Long productId);
+
+    @Query("select b.bucketIndex as bucketIndex, b.stock as stock " +
+            "from InventoryBucket b where b.product.id = :productId order by b.bucketIndex")
+    List<BucketStockView> findBucketStock(@Param("productId") Long productId);
+
+    @Query("select b.product.id as productId, sum(b.stock) as stock " +
+            "from InventoryBucket b where b.product.id in :productIds group by b.product.id")
+    List<BucketTotalView> sumStockByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query("select coalesce(sum(b.stock), 0) from InventoryBucket b where b.product.id = :productId")
+    long sumStockByProductId(@Param("productId") Long productId);
+
+    /** Bucket stock with the rows locked, so no deduction can commit until the caller's transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.stock from InventoryBucket b where b.product.id = :productId order by b.bucketIndex")
+    List<Integer> lockStockByProductId(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("update InventoryBucket b set b.stock = b.stock - :quantity " +
+            "where b.product.id = :productId and b.bucketIndex = :bucketIndex and b.stock >= :quantity")
+    int deduct(@Param("productId") Long productId, @Param("bucketIndex") int bucketIndex, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update InventoryBucket b set b.stock = b.stock + :quantity " +
+            "where b.product.id = :productId and b.bucketIndex = :bucketIndex")
+    int restock(@Param("productId") Long productId, @Param("bucketIndex") int bucketIndex, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("delete from InventoryBucket b where b.product.id = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
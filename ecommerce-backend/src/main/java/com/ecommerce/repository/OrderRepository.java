@@ -3,9 +3,12 @@ package com.ecommerce.repository;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -13,4 +16,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     List<Order> findByStatus(Order.OrderStatus status);
     List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // Everything OrderDTO needs in one statement: user, payment, items and their products
+    @Query("select o from Order o join fetch o.user left join fetch o.payment " +
+            "left join fetch o.orderItems i left join fetch i.product " +
+            "where o.id = :orderId")
+    Optional<Order> findWithDetailsById(@Param("orderId") Long orderId);
+
+    @Query("select o from Order o join fetch o.user left join fetch o.payment " +
+            "left join fetch o.orderItems i left join fetch i.product " +
+            "where o.user.id = :userId order by o.createdAt desc, o.id desc")
+    List<Order> findWithDetailsByUserId(@Param("userId") Long userId);
 }
@@ -1,14 +1,25 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    List<Product> findByCategory(String category);
     List<Product> findByNameContainingIgnoreCase(String name);
     List<Product> findByStockGreaterThan(Integer stock);
+    List<ProductStockView> findStockByIdIn(Collection<Long> ids);
+
+    // Caches the matching ids; the products themselves come from the entity cache
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "product-category-queries")
+    })
+    List<Product> findByCategory(String category);
 }
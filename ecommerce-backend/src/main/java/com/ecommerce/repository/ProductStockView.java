@@ -0,0 +1,8 @@
+package com.ecommerce.repository;
+
+public interface ProductStockView {
+    Long getId();
+    String getName();
+    Integer getStock();
+    Integer getFlashSaleBuckets();
+}
@@ -0,0 +1,154 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Encodes an anonymous cart as a signed token the client carries in the
+ * {@code X-Cart-Token} header, so browsing carts never touch {@code cart_items}.
+ * <p>
+ * Layout: {@code version | varint count | (varint productId, varint quantity)* | mac},
+ * base64url without padding. Lines are sorted by product id so equal carts
+ * always produce equal tokens.
+ * <p>
+ * The signing secret has no default: anyone who knows it can forge carts of any
+ * content, so startup fails unless {@code cart.anonymous.secret} is set to at least
+ * {@value #MIN_SECRET_LENGTH} characters.
+ */
+@Component
+public class AnonymousCartCodec {
+
+    static final int MIN_SECRET_LENGTH = 32;
+
+    private static final byte VERSION = 1;
+    private static final int MAC_LENGTH = 16;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private final Mac prototype;
+    private final int maxItems;
+
+    public AnonymousCartCodec(@Value("${cart.anonymous.secret:}") String secret,
+                              @Value("${cart.anonymous.max-items:100}") int maxItems) {
+        if (secret.length() < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("cart.anonymous.secret must be set to at least " + MIN_SECRET_LENGTH +
+                    " characters (for example through the CART_ANONYMOUS_SECRET environment variable)");
+        }
+        try {
+            this.prototype = Mac.getInstance(MAC_ALGORITHM);
+            this.prototype.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise cart token signer", e);
+        }
+        this.maxItems = maxItems;
+    }
+
+    public String encode(Map<Long, Integer> items) {
+        if (items.size() > maxItems) {
+            throw new BadRequestException("Cart cannot hold more than " + maxItems + " different products");
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + items.size() * 6 + MAC_LENGTH);
+        out.write(VERSION);
+        writeVarLong(out, items.size());
+        new TreeMap<>(items).forEach((productId, quantity) -> {
+            if (quantity <= 0) {
+                throw new BadRequestException("Quantity must be positive");
+            }
+            writeVarLong(out, productId);
+            writeVarLong(out, quantity);
+        });
+
+        byte[] payload = out.toByteArray();
+        byte[] mac = sign(payload, payload.length);
+        byte[] token = Arrays.copyOf(payload, payload.length + MAC_LENGTH);
+        System.arraycopy(mac, 0, token, payload.length, MAC_LENGTH);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    public Map<Long, Integer> decode(String token) {
+        Map<Long, Integer> items = new TreeMap<>();
+        if (token == null || token.isBlank()) {
+            return items;
+        }
+
+        byte[] raw;
+        try {
+            raw = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cart token");
+        }
+        if (raw.length < 2 + MAC_LENGTH || raw[0] != VERSION) {
+            throw new BadRequestException("Invalid cart token");
+        }
+
+        int payloadLength = raw.length - MAC_LENGTH;
+        byte[] expected = Arrays.copyOf(sign(raw, payloadLength), MAC_LENGTH);
+        byte[] actual = Arrays.copyOfRange(raw, payloadLength, raw.length);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new BadRequestException("Invalid cart token");
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(raw, 1, payloadLength - 1);
+        try {
+            long count = readVarLong(in);
+            if (count > maxItems) {
+                throw new BadRequestException("Invalid cart token");
+            }
+            for (long i = 0; i < count; i++) {
+                long productId = readVarLong(in);
+                long quantity = readVarLong(in);
+                if (quantity <= 0 || quantity > Integer.MAX_VALUE) {
+                    throw new BadRequestException("Invalid cart token");
+                }
+                items.put(productId, (int) quantity);
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new BadRequestException("Invalid cart token");
+        }
+        return items;
+    }
+
+    private byte[] sign(byte[] data, int length) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            mac.update(data, 0, length);
+            return mac.doFinal();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Cart token signer cannot be cloned", e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new BadRequestException("Invalid cart token");
+    }
+}
@@ -3,17 +3,24 @@ package com.ecommerce.service;
 import com.ecommerce.dto.AddToCartRequest;
 import com.ecommerce.dto.CartItemDTO;
 import com.ecommerce.dto.CartResponse;
+import com.ecommerce.dto.StockAvailabilityResponse;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Money;
 import com.ecommerce.model.Product;
 import com.ecommerce.model.User;
+import com.ecommerce.monitoring.HotKeyTracker;
+import com.ecommerce.popularity.ProductPopularityService;
 import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.CartLineView;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -23,41 +30,29 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final UserService userService;
     private final ProductService productService;
+    private final AnonymousCartCodec anonymousCartCodec;
+    private final HotKeyTracker hotKeyTracker;
+    private final ProductPopularityService productPopularityService;
 
-    public CartService(CartItemRepository cartItemRepository, UserService userService, ProductService productService) {
+    public CartService(CartItemRepository cartItemRepository, UserService userService, ProductService productService,
+                       AnonymousCartCodec anonymousCartCodec, HotKeyTracker hotKeyTracker,
+                       ProductPopularityService productPopularityService) {
         this.cartItemRepository = cartItemRepository;
         this.userService = userService;
         this.productService = productService;
+        this.anonymousCartCodec = anonymousCartCodec;
+        this.hotKeyTracker = hotKeyTracker;
+        this.productPopularityService = productPopularityService;
     }
 
     @Transactional
     public CartItemDTO addToCart(AddToCartRequest request) {
+        hotKeyTracker.addedToCart(request.getUserId(), request.getProductId());
         User user = userService.getUserEntityById(request.getUserId());
         Product product = productService.getProductEntityById(request.getProductId());
-
-        if (product.getStock() < request.getQuantity()) {
-            throw new BadRequestException("Insufficient stock. Available: " + product.getStock());
-        }
-
-        Optional<CartItem> existingCartItem = cartItemRepository.findByUserAndProduct(user, product);
-
-        CartItem cartItem;
-        if (existingCartItem.isPresent()) {
-            cartItem = existingCartItem.get();
-            int newQuantity = cartItem.getQuantity() + request.getQuantity();
-            if (product.getStock() < newQuantity) {
-                throw new BadRequestException("Insufficient stock. Available: " + product.getStock());
-            }
-            cartItem.setQuantity(newQuantity);
-        } else {
-            cartItem = new CartItem();
-            cartItem.setUser(user);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(request.getQuantity());
-        }
-
-        CartItem savedCartItem = cartItemRepository.save(cartItem);
-        return mapToDTO(savedCartItem);
+        CartItemDTO item = mapToDTO(addItem(user, product, request.getQuantity()));
+        productPopularityService.addedToCart(product.getId());
+        return item;
     }
 
     public CartResponse getCart(Long userId) {
@@ -68,21 +63,7 @@ public class CartService {
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
 
-        BigDecimal totalAmount = items.stream()
-                .map(CartItemDTO::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        int totalItems = items.stream()
-                .mapToInt(CartItemDTO::getQuantity)
-                .sum();
-
-        CartResponse response = new CartResponse();
-        response.setUserId(userId);
-        response.setItems(items);
-        response.setTotalAmount(totalAmount);
-        response.setTotalItems(totalItems);
-
-        return response;
+        return buildResponse(userId, items);
     }
 
     @Transactional
@@ -101,9 +82,9 @@ public class CartService {
             return null;
         }
 
-        Product product = cartItem.getProduct();
-        if (product.getStock() < quantity) {
-            throw new BadRequestException("Insufficient stock. Available: " + product.getStock());
+        int available = productService.getAvailableStock(cartItem.getProduct());
+        if (available < quantity) {
+            throw new BadRequestException("Insufficient stock. Available: " + available);
         }
 
         cartItem.setQuantity(quantity);
@@ -118,10 +99,151 @@ public class CartService {
         cartItemRepository.delete(cartItem);
     }
 
+    public StockAvailabilityResponse checkCartAvailability(Long userId) {
+        userService.getUserEntityById(userId);
+
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        for (CartLineView line : cartItemRepository.findLinesByUserId(userId)) {
+            requested.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        return productService.checkAvailability(requested);
+    }
+
+    public StockAvailabilityResponse checkAnonymousCartAvailability(String cartToken) {
+        return productService.checkAvailability(anonymousCartCodec.decode(cartToken));
+    }
+
     public List<CartItem> getCartItemEntities(Long userId) {
         return cartItemRepository.findByUserId(userId);
     }
 
+    public CartResponse getAnonymousCart(String cartToken) {
+        return priceAnonymousCart(anonymousCartCodec.decode(cartToken));
+    }
+
+    public String addToAnonymousCart(String cartToken, Long productId, Integer quantity) {
+        Map<Long, Integer> items = anonymousCartCodec.decode(cartToken);
+        Product product = productService.getProductEntityById(productId);
+
+        int available = productService.getAvailableStock(product);
+        int current = items.getOrDefault(productId, 0);
+        // Compared as a difference so a huge quantity cannot overflow the sum
+        if (quantity > available - current) {
+            throw new BadRequestException("Insufficient stock. Available: " + available);
+        }
+
+        items.put(productId, current + quantity);
+        return anonymousCartCodec.encode(items);
+    }
+
+    public String updateAnonymousCartItemQuantity(String cartToken, Long productId, Integer quantity) {
+        Map<Long, Integer> items = anonymousCartCodec.decode(cartToken);
+        if (!items.containsKey(productId)) {
+            throw new ResourceNotFoundException("Cart item not found");
+        }
+
+        if (quantity <= 0) {
+            items.remove(productId);
+        } else {
+            Product product = productService.getProductEntityById(productId);
+            int available = productService.getAvailableStock(product);
+            if (available < quantity) {
+                throw new BadRequestException("Insufficient stock. Available: " + available);
+            }
+            items.put(productId, quantity);
+        }
+        return anonymousCartCodec.encode(items);
+    }
+
+    @Transactional
+    public CartResponse mergeAnonymousCart(Long userId, String cartToken) {
+        mergeAnonymousCartItems(userId, cartToken);
+        return getCart(userId);
+    }
+
+    @Transactional
+    public void mergeAnonymousCartItems(Long userId, String cartToken) {
+        Map<Long, Integer> items = anonymousCartCodec.decode(cartToken);
+        if (items.isEmpty()) {
+            return;
+        }
+
+        User user = userService.getUserEntityById(userId);
+        Map<Long, Product> products = productService.getProductEntitiesByIds(items.keySet());
+        for (Map.Entry<Long, Integer> entry : items.entrySet()) {
+            Product product = products.get(entry.getKey());
+            // Deleted since it was added; the priced cart already leaves it out
+            if (product == null) {
+                continue;
+            }
+            addItem(user, product, entry.getValue());
+        }
+    }
+
+    private CartResponse priceAnonymousCart(Map<Long, Integer> lines) {
+        Map<Long, Product> products = productService.getProductEntitiesByIds(lines.keySet());
+
+        List<CartItemDTO> items = new ArrayList<>(lines.size());
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            Product product = products.get(line.getKey());
+            if (product == null) {
+                continue;
+            }
+            CartItemDTO dto = new CartItemDTO();
+            dto.setProductId(product.getId());
+            dto.setProductName(product.getName());
+            dto.setProductPrice(product.getPrice());
+            dto.setQuantity(line.getValue());
+            dto.setSubtotal(product.getPrice().times(line.getValue()));
+            items.add(dto);
+        }
+
+        return buildResponse(null, items);
+    }
+
+    private CartItem addItem(User user, Product product, int quantity) {
+        int available = productService.getAvailableStock(product);
+        if (available < quantity) {
+            throw new BadRequestException("Insufficient stock. Available: " + available);
+        }
+
+        Optional<CartItem> existingCartItem = cartItemRepository.findByUserAndProduct(user, product);
+
+        CartItem cartItem;
+        if (existingCartItem.isPresent()) {
+            cartItem = existingCartItem.get();
+            int newQuantity = cartItem.getQuantity() + quantity;
+            if (available < newQuantity) {
+                throw new BadRequestException("Insufficient stock. Available: " + available);
+            }
+            cartItem.setQuantity(newQuantity);
+        } else {
+            cartItem = new CartItem();
+            cartItem.setUser(user);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(quantity);
+        }
+
+        return cartItemRepository.save(cartItem);
+    }
+
+    private CartResponse buildResponse(Long userId, List<CartItemDTO> items) {
+        Money totalAmount = Money.ZERO;
+        int totalItems = 0;
+        for (CartItemDTO item : items) {
+            totalAmount = totalAmount.plus(item.getSubtotal());
+            totalItems += item.getQuantity();
+        }
+
+        CartResponse response = new CartResponse();
+        response.setUserId(userId);
+        response.setItems(items);
+        response.setTotalAmount(totalAmount);
+        response.setTotalItems(totalItems);
+
+        return response;
+    }
+
     private CartItemDTO mapToDTO(CartItem cartItem) {
         CartItemDTO dto = new CartItemDTO();
         dto.setId(cartItem.getId());
@@ -130,7 +252,7 @@ public class CartService {
         dto.setProductName(cartItem.getProduct().getName());
         dto.setProductPrice(cartItem.getProduct().getPrice());
         dto.setQuantity(cartItem.getQuantity());
-        dto.setSubtotal(cartItem.getProduct().getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
+        dto.setSubtotal(cartItem.getProduct().getPrice().times(cartItem.getQuantity()));
         return dto;
     }
 }
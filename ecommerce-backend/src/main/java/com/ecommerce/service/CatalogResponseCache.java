@@ -0,0 +1,244 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.ProductDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized catalog responses for {@code GET /api/products} and
+ * {@code GET /api/products/category/{category}}, kept as JSON bytes plus a gzip copy
+ * and a strong ETag, so a catalog read is a byte-array write.
+ * <p>
+ * Each product is serialized once and kept as a JSON fragment; a response is the
+ * fragments spliced into an {@link ApiResponse} envelope. A committed product change
+ * ({@link ProductChangedEvent}) marks the product dirty. At most once per
+ * {@code catalog.response.min-refresh-interval-ms}, a read reloads the dirty products and
+ * marks the responses that contain them stale; a stale response is rebuilt from the
+ * fragments by the next read of it.
+ * <p>
+ * Only one thread refreshes or rebuilds at a time. Readers that find a cached response
+ * while it does are served the previous bytes instead of waiting, so a steady stream of
+ * checkouts never makes catalog reads queue behind the lock.
+ */
+@Component
+public class CatalogResponseCache {
+
+    private static final String ALL = "";
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<String, CatalogResponse> responses = new ConcurrentHashMap<>();
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long minRefreshIntervalNanos;
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter builds;
+
+    // Guarded by lock
+    private final TreeMap<Long, Fragment> fragments = new TreeMap<>();
+    private volatile boolean loaded;
+    private volatile long lastRefreshNanos;
+
+    public CatalogResponseCache(ProductService productService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${catalog.response.min-refresh-interval-ms:1000}") long minRefreshIntervalMs) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.minRefreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minRefreshIntervalMs);
+        this.hits = responseCounter(meterRegistry, "hit");
+        this.staleHits = responseCounter(meterRegistry, "stale");
+        this.builds = responseCounter(meterRegistry, "build");
+    }
+
+    public CatalogResponse getAllProducts() {
+        return get(ALL);
+    }
+
+    public CatalogResponse getProductsByCategory(String category) {
+        return get(Objects.requireNonNull(category));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        dirty.addAll(event.productIds());
+    }
+
+    private CatalogResponse get(String key) {
+        CatalogResponse cached = loaded ? responses.get(key) : null;
+        if (cached != null) {
+            if (!stale.contains(key) && !refreshDue()) {
+                hits.increment();
+                return cached;
+            }
+            if (!lock.tryLock()) {
+                // Another thread is refreshing or rebuilding; serve the previous bytes meanwhile
+                staleHits.increment();
+                return cached;
+            }
+        } else {
+            lock.lock();
+        }
+        try {
+            refresh();
+            CatalogResponse response = responses.get(key);
+            if (response == null || stale.contains(key)) {
+                response = build(key);
+                stale.remove(key);
+                // Unknown categories are not kept, so arbitrary paths cannot grow the map
+                if (key.equals(ALL) || response.size() > 0) {
+                    responses.put(key, response);
+                } else {
+                    responses.remove(key);
+                }
+            }
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean refreshDue() {
+        return !dirty.isEmpty() && System.nanoTime() - lastRefreshNanos >= minRefreshIntervalNanos;
+    }
+
+    private void refresh() {
+        if (!loaded) {
+            // Changes committed while loading stay dirty and are picked up next time
+            dirty.clear();
+            for (ProductDTO product : productService.getAllProducts()) {
+                fragments.put(product.getId(), fragment(product));
+            }
+            lastRefreshNanos = System.nanoTime();
+            loaded = true;
+            return;
+        }
+        if (!refreshDue()) {
+            return;
+        }
+        lastRefreshNanos = System.nanoTime();
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove();
+        }
+        List<ProductDTO> products;
+        try {
+            products = productService.getProductsByIds(ids);
+        } catch (RuntimeException e) {
+            dirty.addAll(ids);
+            throw e;
+        }
+        markStale(ALL);
+        for (Long id : ids) {
+            Fragment removed = fragments.remove(id);
+            if (removed != null && removed.category() != null) {
+                markStale(removed.category());
+            }
+        }
+        for (ProductDTO product : products) {
+            fragments.put(product.getId(), fragment(product));
+            if (product.getCategory() != null) {
+                markStale(product.getCategory());
+            }
+        }
+    }
+
+    private void markStale(String key) {
+        if (responses.containsKey(key)) {
+            stale.add(key);
+        }
+    }
+
+    private CatalogResponse build(String key) {
+        List<RawValue> data = new ArrayList<>();
+        for (Fragment fragment : fragments.values()) {
+            if (key.equals(ALL) || key.equals(fragment.category())) {
+                data.add(fragment.json());
+            }
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(ApiResponse.success(data));
+            builds.increment();
+            return new CatalogResponse(json, gzip(json), etag(json), data.size());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog", e);
+        }
+    }
+
+    private Fragment fragment(ProductDTO product) {
+        try {
+            return new Fragment(product.getCategory(), new RawValue(objectMapper.writeValueAsString(product)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize product " + product.getId(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        // Rebuilds happen on the request path, so favour speed over the last few percent of size
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        }) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter responseCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("catalog.responses")
+                .description("Catalog reads served from cached bytes (hit), from the previous bytes during a "
+                        + "refresh (stale) and responses rebuilt (build)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Fragment(String category, RawValue json) {
+    }
+
+    /**
+     * One serialized catalog response. {@code etag} identifies the JSON; the gzip copy
+     * is a separate representation and is tagged with a {@code -gzip} suffix.
+     */
+    public record CatalogResponse(byte[] json, byte[] gzip, String etag, int size) {
+    }
+}
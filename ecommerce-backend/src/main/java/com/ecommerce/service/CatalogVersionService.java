@@ -0,0 +1,164 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.BadRequestException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Numbers catalog changes so clients can sync incrementally. Products changed by a
+ * committed transaction ({@link ProductChangedEvent}) are collected and stamped in
+ * batches: every flush takes the next version and writes it to
+ * {@code products.catalog_version}, or to {@code catalog_tombstones} for products that
+ * no longer exist. The version is published only after the batch has committed, so a
+ * client that has seen version {@code v} has seen every change up to {@code v}.
+ * <p>
+ * Stamping after commit keeps the version write off the checkout transaction, and a
+ * flash sale stamps a product once per flush rather than once per order. Versions are
+ * handed out by this instance, continuing from the highest one stored.
+ */
+@Service
+public class CatalogVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogVersionService.class);
+
+    private static final String STAMP_PRODUCT =
+            "UPDATE products SET catalog_version = ? WHERE id = ?";
+
+    private static final String DELETE_TOMBSTONE =
+            "DELETE FROM catalog_tombstones WHERE product_id = ?";
+
+    private static final String INSERT_TOMBSTONE =
+            "INSERT INTO catalog_tombstones (product_id, catalog_version, deleted_at) VALUES (?, ?, ?)";
+
+    private static final String SELECT_CHANGED_PRODUCTS =
+            "SELECT id FROM products WHERE catalog_version > ?";
+
+    private static final String SELECT_TOMBSTONES =
+            "SELECT product_id FROM catalog_tombstones WHERE catalog_version > ? ORDER BY product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong version;
+
+    public CatalogVersionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.version = new AtomicLong(Math.max(
+                maxVersion("SELECT MAX(catalog_version) FROM products"),
+                maxVersion("SELECT MAX(catalog_version) FROM catalog_tombstones")));
+        Gauge.builder("catalog.version", version, AtomicLong::get)
+                .description("Latest published catalog change version")
+                .register(meterRegistry);
+        Gauge.builder("catalog.version.pending", pending, Set::size)
+                .description("Changed products waiting for a catalog version")
+                .register(meterRegistry);
+    }
+
+    public long getCurrentVersion() {
+        return version.get();
+    }
+
+    /**
+     * Ids of the products changed and removed after {@code since}; without {@code since},
+     * every product. The returned version is the {@code since} for the next call.
+     * Products changed while the response is assembled may appear again next time.
+     */
+    public CatalogChanges getChangesSince(Long since) {
+        long current = version.get();
+        if (since != null && (since < 0 || since > current)) {
+            throw new BadRequestException("Unknown catalog version " + since + "; current version is " + current +
+                    ". Sync again without since to reload the catalog.");
+        }
+        long after = since != null ? since : -1;
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_CHANGED_PRODUCTS, Long.class, after);
+        List<Long> deleted = since != null ? jdbcTemplate.queryForList(SELECT_TOMBSTONES, Long.class, after) : List.of();
+        return new CatalogChanges(current, ids, deleted);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        pending.addAll(event.productIds());
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.version.flush-interval-ms:200}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+                ids.add(it.next());
+                it.remove();
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            long next = version.get() + 1;
+            try {
+                transactionTemplate.executeWithoutResult(status -> stamp(ids, next));
+            } catch (RuntimeException e) {
+                pending.addAll(ids);
+                log.warn("Could not stamp catalog version {} on {} products; retrying on the next flush",
+                        next, ids.size(), e);
+                return;
+            }
+            version.set(next);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void stamp(List<Long> ids, long next) {
+        int[][] updated = jdbcTemplate.batchUpdate(STAMP_PRODUCT, ids, ids.size(), (ps, id) -> {
+            ps.setLong(1, next);
+            ps.setLong(2, id);
+        });
+        List<Long> removed = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (updated[0][i] == 0) {
+                removed.add(ids.get(i));
+            }
+        }
+        if (removed.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(DELETE_TOMBSTONE, removed, removed.size(), (ps, id) -> ps.setLong(1, id));
+        jdbcTemplate.batchUpdate(INSERT_TOMBSTONE, removed, removed.size(), (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setLong(2, next);
+            ps.setTimestamp(3, now);
+        });
+    }
+
+    private long maxVersion(String sql) {
+        Long max = jdbcTemplate.queryForObject(sql, Long.class);
+        return max != null ? max : 0;
+    }
+
+    public record CatalogChanges(long version, List<Long> productIds, List<Long> deleted) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.InventoryBucket;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.BucketStockView;
+import com.ecommerce.repository.BucketTotalView;
+import com.ecommerce.repository.InventoryBucketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Flash-sale inventory: the stock of a hot product is split across
+ * {@code inventory_buckets} rows so concurrent checkouts lock different rows
+ * instead of queueing on {@code products.stock}. While a product is in flash-sale
+ * mode its {@code products.stock} is kept at zero and the buckets are authoritative.
+ * <p>
+ * Re-bucketing and leaving flash-sale mode lock the bucket rows before summing them, so
+ * a deduction cannot commit between the sum and the delete and be counted back into
+ * the stock it already took. Bucket deductions never touch the product row, so its
+ * {@code @Version} alone would not catch that.
+ */
+@Service
+public class FlashSaleInventoryService {
+
+    private final InventoryBucketRepository inventoryBucketRepository;
+
+    @Value("${inventory.flash-sale.max-buckets:64}")
+    private int maxBuckets;
+
+    public FlashSaleInventoryService(InventoryBucketRepository inventoryBucketRepository) {
+        this.inventoryBucketRepository = inventoryBucketRepository;
+    }
+
+    @Transactional
+    public void enable(Product product, int buckets) {
+        if (buckets < 1 || buckets > maxBuckets) {
+            throw new BadRequestException("Bucket count must be between 1 and " + maxBuckets);
+        }
+
+        int total = lockAvailableStock(product);
+        inventoryBucketRepository.deleteByProductId(product.getId());
+
+        List<InventoryBucket> rows = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            rows.add(new InventoryBucket(null, product, i, share(total, buckets, i)));
+        }
+        inventoryBucketRepository.saveAll(rows);
+
+        product.setStock(0);
+        product.setFlashSaleBuckets(buckets);
+    }
+
+    @Transactional
+    public void disable(Product product) {
+        if (!product.isFlashSale()) {
+            return;
+        }
+        int total = lockAvailableStock(product);
+        inventoryBucketRepository.deleteByProductId(product.getId());
+
+        product.setStock(total);
+        product.setFlashSaleBuckets(0);
+    }
+
+    @Transactional
+    public void resetStock(Product product, int total) {
+        for (InventoryBucket bucket : inventoryBucketRepository.findByProductIdOrderByBucketIndex(product.getId())) {
+            bucket.setStock(share(total, product.getFlashSaleBuckets(), bucket.getBucketIndex()));
+        }
+    }
+
+    public int getAvailableStock(Product product) {
+        if (!product.isFlashSale()) {
+            return product.getStock();
+        }
+        return (int) inventoryBucketRepository.sumStockByProductId(product.getId());
+    }
+
+    public Map<Long, Integer> getAvailableStock(Collection<Long> flashSaleProductIds) {
+        if (flashSaleProductIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return inventoryBucketRepository.sumStockByProductIds(flashSaleProductIds).stream()
+                .collect(Collectors.toMap(BucketTotalView::getProductId, view -> view.getStock().intValue()));
+    }
+
+    /**
+     * Deducts {@code quantity} from the product's buckets. Tries a single randomly
+     * chosen bucket first and walks the others when it runs dry; a quantity larger
+     * than any single bucket is drained across several. Returns {@code false} when
+     * the buckets together cannot cover it, in which case the caller must roll back.
+     */
+    @Transactional
+    public boolean deduct(Long productId, int buckets, int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(buckets);
+        for (int i = 0; i < buckets; i++) {
+            if (inventoryBucketRepository.deduct(productId, (start + i) % buckets, quantity) == 1) {
+                return true;
+            }
+        }
+
+        int remaining = quantity;
+        for (BucketStockView bucket : inventoryBucketRepository.findBucketStock(productId)) {
+            int take = Math.min(bucket.getStock(), remaining);
+            if (take > 0 && inventoryBucketRepository.deduct(productId, bucket.getBucketIndex(), take) == 1) {
+                remaining -= take;
+            }
+            if (remaining == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds {@code quantity} back to one of the product's buckets and returns the number of
+     * rows updated: zero when the flash sale ended after the caller loaded the product.
+     */
+    @Transactional
+    public int restock(Long productId, int buckets, int quantity) {
+        return inventoryBucketRepository.restock(productId, ThreadLocalRandom.current().nextInt(buckets), quantity);
+    }
+
+    private int lockAvailableStock(Product product) {
+        if (!product.isFlashSale()) {
+            return product.getStock();
+        }
+        return inventoryBucketRepository.lockStockByProductId(product.getId()).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    private static int share(int total, int buckets, int index) {
+        return total / buckets + (index < total % buckets ? 1 : 0);
+    }
+}
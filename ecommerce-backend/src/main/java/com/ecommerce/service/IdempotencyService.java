@@ -0,0 +1,376 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.exception.ConflictException;
+import com.ecommerce.model.IdempotencyRecord;
+import com.ecommerce.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Makes order and payment creation safe to retry. The first request with a given
+ * {@code Idempotency-Key} claims the key with an insert into {@code idempotency_keys},
+ * runs and stores its response; later requests with the same key get that response back
+ * with an {@code Idempotent-Replayed} header. Duplicates arriving while the first request
+ * is still running wait for its result on this instance, and get a 409 if it is running
+ * on another one. Recent responses are kept in memory so a retry storm costs a map
+ * lookup; the table is the fallback after a restart, across instances and once an
+ * entry has been trimmed from memory. A request that fails releases its key, so the
+ * client can retry it.
+ * <p>
+ * {@link #execute} claims and completes the key in transactions of their own, so a crash
+ * between the action's commit and the completion leaves the key in progress until it
+ * expires. {@link #executeInTransaction} closes that window for actions that only touch
+ * the database.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock trimLock = new ReentrantLock();
+    private final IdempotencyRecordRepository repository;
+    private final OptimisticLockRetrier optimisticLockRetrier;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final long waitTimeoutMs;
+    private final Counter memoryReplays;
+    private final Counter databaseReplays;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              OptimisticLockRetrier optimisticLockRetrier,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.cache.max-entries:10000}") int maxEntries,
+                              @Value("${idempotency.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.repository = repository;
+        this.optimisticLockRetrier = optimisticLockRetrier;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.maxEntries = maxEntries;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.memoryReplays = replayCounter(meterRegistry, "memory");
+        this.databaseReplays = replayCounter(meterRegistry, "database");
+        Gauge.builder("idempotency.keys.cached", entries, Map::size)
+                .description("Idempotency keys held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} once per key and endpoint. Without a key the action simply
+     * runs. Reusing a key for a different request body is rejected.
+     */
+    public <T> ResponseEntity<ApiResponse<T>> execute(String endpoint, String key, Object request, Class<T> dataType,
+                                                      Supplier<ResponseEntity<ApiResponse<T>>> action) {
+        return execute(endpoint, key, request, dataType, action, false);
+    }
+
+    /**
+     * Like {@link #execute}, but claims the key, runs {@code action} and stores its response
+     * in one transaction: a crash either rolls all three back or leaves the key completed.
+     * A duplicate on another instance waits on the key's row until that transaction ends.
+     * Only for actions that do nothing outside the database before they commit; optimistic
+     * lock conflicts are retried around the whole transaction.
+     */
+    public <T> ResponseEntity<ApiResponse<T>> executeInTransaction(String endpoint, String key, Object request,
+                                                                   Class<T> dataType,
+                                                                   Supplier<ResponseEntity<ApiResponse<T>>> action) {
+        return execute(endpoint, key, request, dataType, action, true);
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> execute(String endpoint, String key, Object request, Class<T> dataType,
+                                                       Supplier<ResponseEntity<ApiResponse<T>>> action,
+                                                       boolean inTransaction) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(IDEMPOTENCY_KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String scopedKey = endpoint + ":" + key;
+        String requestHash = hash(request);
+
+        Entry entry = new Entry(requestHash, System.nanoTime() + ttl.toNanos());
+        Entry existing = entries.putIfAbsent(scopedKey, entry);
+        if (existing != null && existing.isExpired(System.nanoTime())) {
+            entries.remove(scopedKey, existing);
+            existing = entries.putIfAbsent(scopedKey, entry);
+        }
+        if (existing != null) {
+            return replay(existing, requestHash);
+        }
+        if (entries.size() > maxEntries) {
+            trim();
+        }
+
+        try {
+            ResponseEntity<ApiResponse<T>> response = inTransaction
+                    ? runInTransaction(endpoint, scopedKey, requestHash, dataType, action)
+                    : claimAndRun(scopedKey, requestHash, dataType, action);
+            entry.response.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            entries.remove(scopedKey, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> claimAndRun(String scopedKey, String requestHash, Class<T> dataType,
+                                                           Supplier<ResponseEntity<ApiResponse<T>>> action) {
+        IdempotencyRecord stored = claim(scopedKey, requestHash);
+        if (stored != null) {
+            return replay(stored, requestHash, dataType);
+        }
+
+        ResponseEntity<ApiResponse<T>> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(scopedKey, e);
+            throw e;
+        }
+        repository.complete(scopedKey, response.getStatusCode().value(), write(response.getBody()));
+        return response;
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> runInTransaction(String endpoint, String scopedKey, String requestHash,
+                                                                Class<T> dataType,
+                                                                Supplier<ResponseEntity<ApiResponse<T>>> action) {
+        try {
+            return optimisticLockRetrier.execute("IdempotencyService." + endpoint, () -> {
+                LocalDateTime now = LocalDateTime.now();
+                try {
+                    repository.saveAndFlush(new IdempotencyRecord(scopedKey, requestHash, now, now.plus(ttl)));
+                } catch (DataIntegrityViolationException e) {
+                    throw new KeyTakenException(e);
+                }
+                ResponseEntity<ApiResponse<T>> response = action.get();
+                repository.complete(scopedKey, response.getStatusCode().value(), write(response.getBody()));
+                return response;
+            });
+        } catch (KeyTakenException e) {
+            IdempotencyRecord stored = taken(scopedKey, LocalDateTime.now());
+            if (stored == null) {
+                return runInTransaction(endpoint, scopedKey, requestHash, dataType, action);
+            }
+            return replay(stored, requestHash, dataType);
+        }
+    }
+
+    /**
+     * Inserts the key, or returns the completed record if an earlier request already
+     * stored its response.
+     */
+    private IdempotencyRecord claim(String scopedKey, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            repository.saveAndFlush(new IdempotencyRecord(scopedKey, requestHash, now, now.plus(ttl)));
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord record = taken(scopedKey, now);
+            return record != null ? record : claim(scopedKey, requestHash);
+        }
+    }
+
+    /**
+     * Looks at a key that could not be inserted: returns its completed record, deletes it
+     * and returns null if it has expired, and fails if it is still in progress.
+     */
+    private IdempotencyRecord taken(String scopedKey, LocalDateTime now) {
+        IdempotencyRecord record = repository.findById(scopedKey).orElse(null);
+        if (record != null && record.getExpiresAt().isBefore(now)) {
+            repository.delete(record);
+            return null;
+        }
+        if (record == null || !record.isCompleted()) {
+            throw inProgress();
+        }
+        return record;
+    }
+
+    private void release(String scopedKey, RuntimeException failure) {
+        try {
+            repository.deleteById(scopedKey);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+            log.warn("Could not release idempotency key {}; it stays in progress until it expires", scopedKey, e);
+        }
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> replay(IdempotencyRecord stored, String requestHash, Class<T> dataType) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw keyReused();
+        }
+        databaseReplays.increment();
+        return withReplayHeader(ResponseEntity.status(stored.getResponseStatus())
+                .body(read(stored.getResponseBody(), dataType)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<ApiResponse<T>> replay(Entry entry, String requestHash) {
+        if (!entry.requestHash.equals(requestHash)) {
+            throw keyReused();
+        }
+        try {
+            ResponseEntity<ApiResponse<T>> response =
+                    (ResponseEntity<ApiResponse<T>>) entry.response.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            memoryReplays.increment();
+            return withReplayHeader(response);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        }
+    }
+
+    /**
+     * Keeps the in-memory map bounded. Completed responses are still in the table, so
+     * dropping them only costs a query on the next replay.
+     */
+    private void trim() {
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            int target = maxEntries * 3 / 4;
+            for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                if (entries.size() <= target) {
+                    break;
+                }
+                if (candidate.getValue().response.isDone()) {
+                    entries.remove(candidate.getKey(), candidate.getValue());
+                }
+            }
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> withReplayHeader(ResponseEntity<ApiResponse<T>> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(headers -> {
+                    headers.addAll(response.getHeaders());
+                    headers.set(REPLAYED_HEADER, "true");
+                })
+                .body(response.getBody());
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash request", e);
+        }
+    }
+
+    private String write(ApiResponse<?> body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store response", e);
+        }
+    }
+
+    private <T> ApiResponse<T> read(String body, Class<T> dataType) {
+        JavaType type = objectMapper.getTypeFactory().constructParametricType(ApiResponse.class, dataType);
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored response", e);
+        }
+    }
+
+    private static ConflictException inProgress() {
+        return new ConflictException("A request with this " + IDEMPOTENCY_KEY_HEADER + " is still in progress");
+    }
+
+    private static BadRequestException keyReused() {
+        return new BadRequestException(IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+    }
+
+    private static Counter replayCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("idempotency.replays")
+                .description("Requests answered with the stored response of an earlier request with the same key")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carries a failed key insert out of the transaction, which rolls back before the
+     * existing record is read.
+     */
+    private static final class KeyTakenException extends RuntimeException {
+        KeyTakenException(DataIntegrityViolationException cause) {
+            super(cause.getMessage(), cause, false, false);
+        }
+    }
+
+    private static final class Entry {
+        final String requestHash;
+        final long expiresAtNanos;
+        final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        Entry(String requestHash, long expiresAtNanos) {
+            this.requestHash = requestHash;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos > 0;
+        }
+    }
+}
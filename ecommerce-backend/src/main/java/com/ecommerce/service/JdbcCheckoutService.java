@@ -0,0 +1,245 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.OrderDTO;
+import com.ecommerce.dto.OrderItemDTO;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import com.ecommerce.reporting.SalesEvent;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkout implementation that talks to the database with plain JDBC instead of
+ * Hibernate: one join to read the cart, batched guarded stock updates, batched
+ * inserts for the order lines and a single delete for the cart. Produces the same
+ * {@link OrderDTO} as {@link OrderService#createOrder(CreateOrderRequest)}.
+ * Enabled with {@code checkout.jdbc.enabled=true}.
+ */
+@Service
+public class JdbcCheckoutService {
+
+    private static final String SELECT_USER =
+            "SELECT id, name, address FROM users WHERE id = :userId";
+
+    private static final String SELECT_CART =
+            "SELECT ci.product_id, ci.quantity, p.name, p.price, p.stock, p.flash_sale_buckets, p.category " +
+            "FROM cart_items ci JOIN products p ON p.id = ci.product_id " +
+            "WHERE ci.user_id = :userId ORDER BY ci.id";
+
+    private static final String DEDUCT_STOCK =
+            "UPDATE products SET stock = stock - :quantity, version = version + 1, updated_at = :now " +
+            "WHERE id = :productId AND stock >= :quantity";
+
+    private static final String INSERT_ORDER =
+            "INSERT INTO orders (user_id, total_amount, status, shipping_address, version, created_at, updated_at) " +
+            "VALUES (:userId, :totalAmount, :status, :shippingAddress, 0, :now, :now)";
+
+    private static final String INSERT_ORDER_ITEM =
+            "INSERT INTO order_items (order_id, product_id, quantity, unit_price, subtotal) " +
+            "VALUES (:orderId, :productId, :quantity, :unitPrice, :subtotal)";
+
+    private static final String DELETE_CART =
+            "DELETE FROM cart_items WHERE user_id = :userId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final FlashSaleInventoryService flashSaleInventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JdbcCheckoutService(NamedParameterJdbcTemplate jdbcTemplate, FlashSaleInventoryService flashSaleInventoryService,
+                               ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flashSaleInventoryService = flashSaleInventoryService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public OrderDTO createOrder(CreateOrderRequest request) {
+        // Push any JPA changes made earlier in this transaction (e.g. a merged anonymous cart)
+        entityManager.flush();
+
+        Long userId = request.getUserId();
+        MapSqlParameterSource userParams = new MapSqlParameterSource("userId", userId);
+
+        List<Map<String, Object>> users = jdbcTemplate.queryForList(SELECT_USER, userParams);
+        if (users.isEmpty()) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        Map<String, Object> user = users.get(0);
+
+        List<CartLine> cartLines = jdbcTemplate.query(SELECT_CART, userParams, (rs, rowNum) -> new CartLine(
+                rs.getLong("product_id"),
+                rs.getInt("quantity"),
+                rs.getString("name"),
+                Money.of(rs.getBigDecimal("price")),
+                rs.getInt("stock"),
+                rs.getInt("flash_sale_buckets"),
+                rs.getString("category")));
+
+        if (cartLines.isEmpty()) {
+            throw new BadRequestException("Cart is empty. Add items to cart before placing an order.");
+        }
+
+        // Flash-sale products keep their stock in buckets
+        Map<Long, Integer> bucketStock = flashSaleInventoryService.getAvailableStock(cartLines.stream()
+                .filter(line -> line.flashSaleBuckets > 0)
+                .map(CartLine::productId)
+                .toList());
+        List<CartLine> lines = cartLines.stream()
+                .map(line -> line.flashSaleBuckets > 0 ? line.withStock(bucketStock.getOrDefault(line.productId, 0)) : line)
+                .toList();
+
+        // Validate stock availability
+        for (CartLine line : lines) {
+            if (line.stock < line.quantity) {
+                throw insufficientStock(line);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        // Deduct stock; the guard makes a concurrent checkout fail instead of overselling
+        List<CartLine> rowStockLines = new ArrayList<>(lines.size());
+        for (CartLine line : lines) {
+            if (line.flashSaleBuckets == 0) {
+                rowStockLines.add(line);
+            } else if (!flashSaleInventoryService.deduct(line.productId, line.flashSaleBuckets, line.quantity)) {
+                throw insufficientStock(line);
+            }
+        }
+        SqlParameterSource[] deductions = new SqlParameterSource[rowStockLines.size()];
+        for (int i = 0; i < rowStockLines.size(); i++) {
+            CartLine line = rowStockLines.get(i);
+            deductions[i] = new MapSqlParameterSource()
+                    .addValue("productId", line.productId)
+                    .addValue("quantity", line.quantity)
+                    .addValue("now", now);
+        }
+        int[] updated = jdbcTemplate.batchUpdate(DEDUCT_STOCK, deductions);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw insufficientStock(rowStockLines.get(i));
+            }
+        }
+        evictProductsAfterCommit(rowStockLines.stream().map(CartLine::productId).toList());
+        eventPublisher.publishEvent(new ProductChangedEvent(lines.stream().map(CartLine::productId).toList()));
+
+        // Create order
+        Money totalAmount = Money.ZERO;
+        for (CartLine line : lines) {
+            totalAmount = totalAmount.plus(line.subtotal());
+        }
+        String shippingAddress = request.getShippingAddress() != null ?
+                request.getShippingAddress() : (String) user.get("address");
+
+        KeyHolder orderKey = new GeneratedKeyHolder();
+        jdbcTemplate.update(INSERT_ORDER, new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("totalAmount", totalAmount.toBigDecimal())
+                .addValue("status", Order.OrderStatus.PENDING.name())
+                .addValue("shippingAddress", shippingAddress)
+                .addValue("now", now), orderKey, new String[]{"id"});
+        Long orderId = orderKey.getKey().longValue();
+
+        // Create order items
+        SqlParameterSource[] orderItems = new SqlParameterSource[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            CartLine line = lines.get(i);
+            orderItems[i] = new MapSqlParameterSource()
+                    .addValue("orderId", orderId)
+                    .addValue("productId", line.productId)
+                    .addValue("quantity", line.quantity)
+                    .addValue("unitPrice", line.price.toBigDecimal())
+                    .addValue("subtotal", line.subtotal().toBigDecimal());
+        }
+        KeyHolder itemKeys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, orderItems, itemKeys, new String[]{"id"});
+        eventPublisher.publishEvent(SalesEvent.placed(now, totalAmount, lines.stream()
+                .map(line -> new SalesEvent.Line(line.category, line.quantity, line.subtotal()))
+                .toList()));
+
+        // Clear cart after order creation
+        jdbcTemplate.update(DELETE_CART, userParams);
+
+        List<OrderItemDTO> items = new ArrayList<>(lines.size());
+        List<Map<String, Object>> keys = itemKeys.getKeyList();
+        for (int i = 0; i < lines.size(); i++) {
+            CartLine line = lines.get(i);
+            OrderItemDTO item = new OrderItemDTO();
+            item.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            item.setProductId(line.productId);
+            item.setProductName(line.name);
+            item.setQuantity(line.quantity);
+            item.setUnitPrice(line.price);
+            item.setSubtotal(line.subtotal());
+            items.add(item);
+        }
+
+        OrderDTO dto = new OrderDTO();
+        dto.setId(orderId);
+        dto.setUserId(userId);
+        dto.setUserName((String) user.get("name"));
+        dto.setTotalAmount(totalAmount);
+        dto.setStatus(Order.OrderStatus.PENDING.name());
+        dto.setShippingAddress(shippingAddress);
+        dto.setCreatedAt(now);
+        dto.setUpdatedAt(now);
+        dto.setItems(items);
+        return dto;
+    }
+
+    /**
+     * Stock is updated behind Hibernate's back, so the second-level cache would keep
+     * serving the old values. Evicting after commit also drops anything a concurrent
+     * reader cached from the pre-commit row.
+     */
+    private void evictProductsAfterCommit(List<Long> productIds) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productIds.forEach(productId -> cache.evict(Product.class, productId));
+            }
+        });
+    }
+
+    private BadRequestException insufficientStock(CartLine line) {
+        return new BadRequestException(
+                "Insufficient stock for product: " + line.name +
+                        ". Available: " + line.stock +
+                        ", Requested: " + line.quantity);
+    }
+
+    private record CartLine(long productId, int quantity, String name, Money price, int stock,
+                            int flashSaleBuckets, String category) {
+        CartLine withStock(int available) {
+            return new CartLine(productId, quantity, name, price, available, flashSaleBuckets, category);
+        }
+
+        Money subtotal() {
+            return price.times(quantity);
+        }
+    }
+}
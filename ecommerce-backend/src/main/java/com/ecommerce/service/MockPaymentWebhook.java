@@ -0,0 +1,55 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.PaymentCallbackRequest;
+import com.ecommerce.model.Payment;
+import com.ecommerce.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plays the gateway's part in mock payment mode: some time after a payment is created
+ * it sends the success callback. Runs on the {@code @Async} executor, which is the
+ * virtual-thread executor when {@code spring.threads.virtual.enabled=true}.
+ */
+@Component
+public class MockPaymentWebhook {
+
+    private static final Logger log = LoggerFactory.getLogger(MockPaymentWebhook.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+
+    @Value("${payment.mock.webhook-delay-ms:3000}")
+    private long webhookDelayMs;
+
+    public MockPaymentWebhook(PaymentRepository paymentRepository, @Lazy PaymentService paymentService) {
+        this.paymentRepository = paymentRepository;
+        this.paymentService = paymentService;
+    }
+
+    @Async
+    public void trigger(String mockOrderId) {
+        try {
+            // Simulate the delay before the gateway calls back
+            Thread.sleep(webhookDelayMs);
+
+            Payment payment = paymentRepository.findByRazorpayOrderId(mockOrderId).orElse(null);
+            if (payment != null && payment.getStatus() == Payment.PaymentStatus.CREATED) {
+                PaymentCallbackRequest mockCallback = new PaymentCallbackRequest();
+                mockCallback.setRazorpay_order_id(mockOrderId);
+                mockCallback.setRazorpay_payment_id("mock_payment_" + System.currentTimeMillis());
+                mockCallback.setRazorpay_signature("mock_signature_" + System.currentTimeMillis());
+
+                paymentService.processPaymentCallback(mockCallback);
+                log.info("Mock webhook triggered for order: {}", mockOrderId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Mock webhook thread interrupted", e);
+        }
+    }
+}
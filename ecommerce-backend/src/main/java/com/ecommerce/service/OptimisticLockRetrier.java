@@ -0,0 +1,106 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.RetryStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a unit of work in its own transaction and re-runs it when the commit fails
+ * on a {@code @Version} check, backing off with full jitter between attempts.
+ * When called inside an existing transaction the work simply joins it and the
+ * outermost caller owns the retry.
+ */
+@Component
+public class OptimisticLockRetrier {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticLockRetrier.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+
+    @Value("${retry.optimistic.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${retry.optimistic.base-backoff-ms:5}")
+    private long baseBackoffMs;
+
+    @Value("${retry.optimistic.max-backoff-ms:100}")
+    private long maxBackoffMs;
+
+    public OptimisticLockRetrier(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T execute(String method, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        MethodStats methodStats = stats.computeIfAbsent(method, key -> new MethodStats());
+        methodStats.calls.increment();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                methodStats.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    methodStats.exhausted.increment();
+                    log.warn("{} gave up after {} optimistic lock conflicts", method, attempt);
+                    throw e;
+                }
+                methodStats.retries.increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    public void execute(String method, Runnable work) {
+        execute(method, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public List<RetryStatsDTO> getStats() {
+        return stats.entrySet().stream()
+                .map(entry -> new RetryStatsDTO(entry.getKey(),
+                        entry.getValue().calls.sum(),
+                        entry.getValue().conflicts.sum(),
+                        entry.getValue().retries.sum(),
+                        entry.getValue().exhausted.sum()))
+                .sorted((a, b) -> a.getMethod().compareTo(b.getMethod()))
+                .collect(Collectors.toList());
+    }
+
+    private void backOff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+        long sleep = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off", e);
+        }
+    }
+
+    private static final class MethodStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+}
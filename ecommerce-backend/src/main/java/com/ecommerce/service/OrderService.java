@@ -4,11 +4,18 @@ import com.ecommerce.dto.*;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.*;
+import com.ecommerce.monitoring.BusinessMetrics;
+import com.ecommerce.monitoring.PhaseTrace;
+import com.ecommerce.monitoring.PhaseTracer;
+import com.ecommerce.popularity.ProductPopularityService;
+import com.ecommerce.reporting.SalesEvent;
 import com.ecommerce.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,18 +27,75 @@ public class OrderService {
     private final UserService userService;
     private final CartService cartService;
     private final ProductService productService;
+    private final JdbcCheckoutService jdbcCheckoutService;
+    private final OptimisticLockRetrier optimisticLockRetrier;
+    private final BusinessMetrics businessMetrics;
+    private final PhaseTracer phaseTracer;
+    private final ProductPopularityService productPopularityService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public OrderService(OrderRepository orderRepository, UserService userService, CartService cartService, ProductService productService) {
+    @Value("${checkout.jdbc.enabled:false}")
+    private boolean jdbcCheckoutEnabled;
+
+    public OrderService(OrderRepository orderRepository, UserService userService, CartService cartService,
+                        ProductService productService, JdbcCheckoutService jdbcCheckoutService,
+                        OptimisticLockRetrier optimisticLockRetrier, BusinessMetrics businessMetrics,
+                        PhaseTracer phaseTracer, ProductPopularityService productPopularityService,
+                        ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.userService = userService;
         this.cartService = cartService;
         this.productService = productService;
+        this.jdbcCheckoutService = jdbcCheckoutService;
+        this.optimisticLockRetrier = optimisticLockRetrier;
+        this.businessMetrics = businessMetrics;
+        this.phaseTracer = phaseTracer;
+        this.productPopularityService = productPopularityService;
+        this.eventPublisher = eventPublisher;
     }
 
-    @Transactional
     public OrderDTO createOrder(CreateOrderRequest request) {
+        OrderDTO order = optimisticLockRetrier.execute("OrderService.createOrder", () -> placeOrder(request));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A caller's transaction (e.g. an idempotent request) may still roll the order back or retry it
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordPlaced(order);
+                }
+            });
+        } else {
+            recordPlaced(order);
+        }
+        return order;
+    }
+
+    private void recordPlaced(OrderDTO order) {
+        businessMetrics.orderPlaced(jdbcCheckoutEnabled ? "jdbc" : "jpa", order.getItems().size());
+        for (OrderItemDTO item : order.getItems()) {
+            productPopularityService.sold(item.getProductId(), item.getQuantity());
+        }
+    }
+
+    private OrderDTO placeOrder(CreateOrderRequest request) {
+        PhaseTrace trace = phaseTracer.checkout().userId(request.getUserId());
+
+        // Anonymous carts are only persisted at checkout
+        if (request.getCartToken() != null) {
+            cartService.mergeAnonymousCartItems(request.getUserId(), request.getCartToken());
+            trace.phase("merge_anonymous_cart");
+        }
+
+        if (jdbcCheckoutEnabled) {
+            OrderDTO order = jdbcCheckoutService.createOrder(request);
+            trace.orderId(order.getId()).itemCount(order.getItems().size()).phase("jdbc_checkout");
+            return order;
+        }
+
         User user = userService.getUserEntityById(request.getUserId());
+
         List<CartItem> cartItems = cartService.getCartItemEntities(request.getUserId());
+        trace.itemCount(cartItems.size()).phase("load_cart");
 
         if (cartItems.isEmpty()) {
             throw new BadRequestException("Cart is empty. Add items to cart before placing an order.");
@@ -40,13 +104,15 @@ public class OrderService {
         // Validate stock availability
         for (CartItem cartItem : cartItems) {
             Product product = cartItem.getProduct();
-            if (product.getStock() < cartItem.getQuantity()) {
+            int available = productService.getAvailableStock(product);
+            if (available < cartItem.getQuantity()) {
                 throw new BadRequestException(
                         "Insufficient stock for product: " + product.getName() +
-                                ". Available: " + product.getStock() +
+                                ". Available: " + available +
                                 ", Requested: " + cartItem.getQuantity());
             }
         }
+        trace.phase("validate_stock");
 
         // Create order
         Order order = new Order();
@@ -57,7 +123,7 @@ public class OrderService {
 
         // Create order items
         List<OrderItem> orderItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        Money totalAmount = Money.ZERO;
 
         for (CartItem cartItem : cartItems) {
             OrderItem orderItem = new OrderItem();
@@ -65,29 +131,36 @@ public class OrderService {
             orderItem.setProduct(cartItem.getProduct());
             orderItem.setQuantity(cartItem.getQuantity());
             orderItem.setUnitPrice(cartItem.getProduct().getPrice());
-            BigDecimal subtotal = cartItem.getProduct().getPrice()
-                    .multiply(BigDecimal.valueOf(cartItem.getQuantity()));
+            Money subtotal = cartItem.getProduct().getPrice().times(cartItem.getQuantity());
             orderItem.setSubtotal(subtotal);
             orderItems.add(orderItem);
-            totalAmount = totalAmount.add(subtotal);
+            totalAmount = totalAmount.plus(subtotal);
+        }
 
-            // Deduct stock
+        // Deduct stock
+        for (CartItem cartItem : cartItems) {
             productService.updateStock(cartItem.getProduct().getId(), cartItem.getQuantity());
         }
+        trace.phase("deduct_stock");
 
         order.setOrderItems(orderItems);
         order.setTotalAmount(totalAmount);
 
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(SalesEvent.placed(savedOrder.getCreatedAt(), totalAmount, salesLines(orderItems)));
+        trace.orderId(savedOrder.getId()).phase("persist_order");
 
         // Clear cart after order creation
         cartService.clearCart(request.getUserId());
+        trace.phase("clear_cart");
 
-        return mapToDTO(savedOrder);
+        OrderDTO dto = mapToDTO(savedOrder);
+        trace.phase("map_dto");
+        return dto;
     }
 
     public OrderDTO getOrderById(Long orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithDetailsById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         return mapToDTO(order);
     }
@@ -99,23 +172,28 @@ public class OrderService {
 
     public List<OrderDTO> getOrdersByUserId(Long userId) {
         userService.getUserEntityById(userId);
-        return orderRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+        return orderRepository.findWithDetailsByUserId(userId).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
-    @Transactional
     public OrderDTO updateOrderStatus(Long orderId, Order.OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
-        return mapToDTO(updatedOrder);
+        return optimisticLockRetrier.execute("OrderService.updateOrderStatus", () -> {
+            Order order = orderRepository.findWithDetailsById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+            publishStatusChange(order, status);
+            order.setStatus(status);
+            Order updatedOrder = orderRepository.save(order);
+            return mapToDTO(updatedOrder);
+        });
     }
 
-    @Transactional
     public OrderDTO cancelOrder(Long orderId) {
-        Order order = orderRepository.findById(orderId)
+        return optimisticLockRetrier.execute("OrderService.cancelOrder", () -> cancel(orderId));
+    }
+
+    private OrderDTO cancel(Long orderId) {
+        Order order = orderRepository.findWithDetailsById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
 
         if (order.getStatus() == Order.OrderStatus.SHIPPED ||
@@ -125,15 +203,34 @@ public class OrderService {
 
         // Restore stock
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStock(product.getStock() + item.getQuantity());
+            productService.restoreStock(item.getProduct(), item.getQuantity());
         }
 
+        publishStatusChange(order, Order.OrderStatus.CANCELLED);
         order.setStatus(Order.OrderStatus.CANCELLED);
         Order updatedOrder = orderRepository.save(order);
         return mapToDTO(updatedOrder);
     }
 
+    /** Paying or cancelling an order changes the sales rollups; repeating a status does not. */
+    private void publishStatusChange(Order order, Order.OrderStatus status) {
+        if (order.getStatus() == status) {
+            return;
+        }
+        if (status == Order.OrderStatus.PAID) {
+            eventPublisher.publishEvent(SalesEvent.paid(order.getCreatedAt(), order.getTotalAmount()));
+        } else if (status == Order.OrderStatus.CANCELLED) {
+            eventPublisher.publishEvent(SalesEvent.cancelled(order.getCreatedAt(), order.getTotalAmount(),
+                    salesLines(order.getOrderItems())));
+        }
+    }
+
+    private static List<SalesEvent.Line> salesLines(List<OrderItem> items) {
+        return items.stream()
+                .map(item -> new SalesEvent.Line(item.getProduct().getCategory(), item.getQuantity(), item.getSubtotal()))
+                .toList();
+    }
+
     private OrderDTO mapToDTO(Order order) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
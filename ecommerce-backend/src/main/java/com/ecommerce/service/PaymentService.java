@@ -7,18 +7,22 @@ import com.ecommerce.exception.PaymentException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.Payment;
+import com.ecommerce.monitoring.BusinessMetrics;
+import com.ecommerce.monitoring.PhaseTrace;
+import com.ecommerce.monitoring.PhaseTracer;
+import com.ecommerce.reporting.SalesEvent;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.PaymentRepository;
-import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
 import com.razorpay.Utils;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class PaymentService {
@@ -27,10 +31,25 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
-
-    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository) {
+    private final OptimisticLockRetrier optimisticLockRetrier;
+    private final BusinessMetrics businessMetrics;
+    private final PhaseTracer phaseTracer;
+    private final RazorpayGateway razorpayGateway;
+    private final MockPaymentWebhook mockPaymentWebhook;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository,
+                          OptimisticLockRetrier optimisticLockRetrier, BusinessMetrics businessMetrics,
+                          PhaseTracer phaseTracer, RazorpayGateway razorpayGateway,
+                          MockPaymentWebhook mockPaymentWebhook, ApplicationEventPublisher eventPublisher) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
+        this.optimisticLockRetrier = optimisticLockRetrier;
+        this.businessMetrics = businessMetrics;
+        this.phaseTracer = phaseTracer;
+        this.razorpayGateway = razorpayGateway;
+        this.mockPaymentWebhook = mockPaymentWebhook;
+        this.eventPublisher = eventPublisher;
     }
 
     @Value("${razorpay.key.id}")
@@ -42,73 +61,110 @@ public class PaymentService {
     @Value("${payment.mock.enabled:false}")
     private boolean mockPaymentEnabled;
 
-    @Transactional
+    /**
+     * Creates the gateway order outside any transaction, so a slow gateway does not hold
+     * a database connection, then records the payment in a short transaction of its own.
+     */
     public PaymentDTO createPayment(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-
-        if (order.getStatus() != Order.OrderStatus.PENDING) {
-            throw new BadRequestException("Order is not in PENDING status. Current status: " + order.getStatus());
-        }
+        PhaseTrace trace = phaseTracer.paymentCreation().orderId(orderId);
+        Order order = loadPayableOrder(orderId);
+        trace.userId(order.getUser().getId()).phase("load_order");
 
         // Check if payment already exists
         if (order.getPayment() != null && order.getPayment().getRazorpayOrderId() != null) {
             return mapToDTO(order.getPayment());
         }
 
-        Payment payment = new Payment();
-        payment.setOrder(order);
-        payment.setAmount(order.getTotalAmount());
-        payment.setCurrency("INR");
-
+        String gatewayOrderId;
         if (mockPaymentEnabled) {
             // Mock payment mode
-            String mockOrderId = "mock_order_" + System.currentTimeMillis();
-            payment.setRazorpayOrderId(mockOrderId);
-            payment.setStatus(Payment.PaymentStatus.CREATED);
-            Payment savedPayment = paymentRepository.save(payment);
-
-            order.setStatus(Order.OrderStatus.PAYMENT_PENDING);
-            orderRepository.save(order);
-
-            // Trigger mock webhook after 3 seconds
-            triggerMockWebhook(mockOrderId);
-
-            return mapToDTO(savedPayment);
+            gatewayOrderId = "mock_order_" + orderId + "_" + System.currentTimeMillis();
         } else {
             // Razorpay integration
             try {
-                RazorpayClient razorpay = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
+                gatewayOrderId = razorpayGateway.createOrder(order.getTotalAmount(), "INR", "order_" + orderId);
+                trace.phase("gateway_create_order");
+            } catch (RazorpayException e) {
+                log.error("Razorpay order creation failed: {}", e.getMessage());
+                throw new PaymentException("Failed to create Razorpay order: " + e.getMessage(), e);
+            }
+        }
 
-                JSONObject orderRequest = new JSONObject();
-                orderRequest.put("amount", order.getTotalAmount().multiply(new java.math.BigDecimal(100)).intValue());
-                orderRequest.put("currency", "INR");
-                orderRequest.put("receipt", "order_" + orderId);
+        Payment savedPayment = optimisticLockRetrier.execute("PaymentService.createPayment",
+                () -> persistPayment(orderId, gatewayOrderId, trace));
+        boolean created = gatewayOrderId.equals(savedPayment.getRazorpayOrderId());
+        if (created) {
+            businessMetrics.paymentInitiated();
+        }
 
-                com.razorpay.Order razorpayOrder = razorpay.orders.create(orderRequest);
-                String razorpayOrderId = razorpayOrder.get("id");
+        if (mockPaymentEnabled && created) {
+            // Deliver the mock webhook once the payment is committed
+            mockPaymentWebhook.trigger(gatewayOrderId);
+            trace.phase("mock_webhook");
+        }
 
-                payment.setRazorpayOrderId(razorpayOrderId);
-                payment.setStatus(Payment.PaymentStatus.CREATED);
+        PaymentDTO dto = mapToDTO(savedPayment);
+        trace.phase("map_dto");
+        return dto;
+    }
 
-                Payment savedPayment = paymentRepository.save(payment);
+    private Payment persistPayment(Long orderId, String gatewayOrderId, PhaseTrace trace) {
+        // Re-check inside the transaction: a concurrent request may have created the payment
+        Order order = loadPayableOrder(orderId);
+        if (order.getPayment() != null && order.getPayment().getRazorpayOrderId() != null) {
+            return order.getPayment();
+        }
 
-                order.setStatus(Order.OrderStatus.PAYMENT_PENDING);
-                orderRepository.save(order);
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setAmount(order.getTotalAmount());
+        payment.setCurrency("INR");
+        payment.setRazorpayOrderId(gatewayOrderId);
+        payment.setStatus(Payment.PaymentStatus.CREATED);
+        Payment savedPayment = paymentRepository.save(payment);
+        trace.paymentId(savedPayment.getId()).phase("persist_payment");
+
+        order.setStatus(Order.OrderStatus.PAYMENT_PENDING);
+        orderRepository.save(order);
+        trace.phase("update_order");
+        return savedPayment;
+    }
 
-                return mapToDTO(savedPayment);
-            } catch (RazorpayException e) {
-                log.error("Razorpay order creation failed: {}", e.getMessage());
-                throw new PaymentException("Failed to create Razorpay order: " + e.getMessage(), e);
-            }
+    private Order loadPayableOrder(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        if (order.getStatus() != Order.OrderStatus.PENDING) {
+            throw new BadRequestException("Order is not in PENDING status. Current status: " + order.getStatus());
         }
+        return order;
     }
 
-    @Transactional
     public PaymentDTO processPaymentCallback(PaymentCallbackRequest request) {
+        LocalDateTime receivedAt = LocalDateTime.now();
+        // Set by every attempt but recorded once, so optimistic lock retries do not time the webhook again
+        AtomicReference<LocalDateTime> paymentCreatedAt = new AtomicReference<>();
+        try {
+            PhaseTrace trace = phaseTracer.paymentCallback();
+            PaymentDTO payment = optimisticLockRetrier.execute("PaymentService.processPaymentCallback",
+                    () -> applyPaymentCallback(request, paymentCreatedAt, trace));
+            trace.phase("commit");
+            businessMetrics.paymentSucceeded();
+            return payment;
+        } catch (PaymentException e) {
+            businessMetrics.paymentFailed();
+            throw e;
+        } finally {
+            businessMetrics.webhookReceived(paymentCreatedAt.get(), receivedAt);
+        }
+    }
+
+    private PaymentDTO applyPaymentCallback(PaymentCallbackRequest request,
+                                            AtomicReference<LocalDateTime> paymentCreatedAt, PhaseTrace trace) {
         Payment payment = paymentRepository.findByRazorpayOrderId(request.getRazorpay_order_id())
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "razorpayOrderId",
                         request.getRazorpay_order_id()));
+        paymentCreatedAt.set(payment.getCreatedAt());
+        trace.paymentId(payment.getId()).orderId(payment.getOrder().getId()).phase("load_payment");
 
         if (mockPaymentEnabled) {
             // Mock payment verification - always succeeds
@@ -118,18 +174,22 @@ public class PaymentService {
             payment.setPaymentMethod("mock");
 
             Order order = payment.getOrder();
-            order.setStatus(Order.OrderStatus.PAID);
+            markPaid(order);
             orderRepository.save(order);
 
             Payment savedPayment = paymentRepository.save(payment);
+            trace.phase("update_payment");
             log.info("Mock payment successful for order: {}", order.getId());
-            return mapToDTO(savedPayment);
+            PaymentDTO dto = mapToDTO(savedPayment);
+            trace.phase("map_dto");
+            return dto;
         } else {
             // Verify Razorpay signature
             try {
                 String generatedSignature = request.getRazorpay_order_id() + "|" + request.getRazorpay_payment_id();
                 boolean isValid = Utils.verifySignature(generatedSignature, request.getRazorpay_signature(),
                         razorpayKeySecret);
+                trace.phase("verify_signature");
 
                 if (isValid) {
                     payment.setRazorpayPaymentId(request.getRazorpay_payment_id());
@@ -138,12 +198,15 @@ public class PaymentService {
                     payment.setPaymentMethod("razorpay");
 
                     Order order = payment.getOrder();
-                    order.setStatus(Order.OrderStatus.PAID);
+                    markPaid(order);
                     orderRepository.save(order);
 
                     Payment savedPayment = paymentRepository.save(payment);
+                    trace.phase("update_payment");
                     log.info("Payment successful for order: {}", order.getId());
-                    return mapToDTO(savedPayment);
+                    PaymentDTO dto = mapToDTO(savedPayment);
+                    trace.phase("map_dto");
+                    return dto;
                 } else {
                     payment.setStatus(Payment.PaymentStatus.FAILED);
                     paymentRepository.save(payment);
@@ -162,6 +225,14 @@ public class PaymentService {
         }
     }
 
+    /** A repeated callback for an order already paid is not counted again. */
+    private void markPaid(Order order) {
+        if (order.getStatus() != Order.OrderStatus.PAID) {
+            eventPublisher.publishEvent(SalesEvent.paid(order.getCreatedAt(), order.getTotalAmount()));
+        }
+        order.setStatus(Order.OrderStatus.PAID);
+    }
+
     public PaymentDTO getPaymentByOrderId(Long orderId) {
         Payment payment = paymentRepository.findByOrderId(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "orderId", orderId));
@@ -172,28 +243,6 @@ public class PaymentService {
         return razorpayKeyId;
     }
 
-    @Async
-    protected void triggerMockWebhook(String mockOrderId) {
-        try {
-            // Simulate 3-second delay before webhook callback
-            Thread.sleep(3000);
-
-            Payment payment = paymentRepository.findByRazorpayOrderId(mockOrderId).orElse(null);
-            if (payment != null && payment.getStatus() == Payment.PaymentStatus.CREATED) {
-                PaymentCallbackRequest mockCallback = new PaymentCallbackRequest();
-                mockCallback.setRazorpay_order_id(mockOrderId);
-                mockCallback.setRazorpay_payment_id("mock_payment_" + System.currentTimeMillis());
-                mockCallback.setRazorpay_signature("mock_signature_" + System.currentTimeMillis());
-
-                processPaymentCallback(mockCallback);
-                log.info("Mock webhook triggered for order: {}", mockOrderId);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Mock webhook thread interrupted", e);
-        }
-    }
-
     private PaymentDTO mapToDTO(Payment payment) {
         PaymentDTO dto = new PaymentDTO();
         dto.setId(payment.getId());
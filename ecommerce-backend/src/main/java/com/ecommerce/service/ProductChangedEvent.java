@@ -0,0 +1,15 @@
+package com.ecommerce.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when a transaction changes products as they appear in the catalog, stock
+ * included. Listeners that keep derived copies of the catalog react after commit.
+ */
+public record ProductChangedEvent(Collection<Long> productIds) {
+
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(List.of(productId));
+    }
+}
@@ -1,22 +1,61 @@
 package com.ecommerce.service;
 
+import com.ecommerce.catalog.OffHeapProductCatalog;
+import com.ecommerce.dto.CatalogChangesDTO;
 import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.dto.StockAvailabilityDTO;
+import com.ecommerce.dto.StockAvailabilityResponse;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.exception.ConflictException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.Money;
 import com.ecommerce.model.Product;
+import com.ecommerce.monitoring.HotKeyTracker;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductStockView;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final FlashSaleInventoryService flashSaleInventoryService;
+    private final OptimisticLockRetrier optimisticLockRetrier;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionService catalogVersionService;
+    private final ObjectProvider<OffHeapProductCatalog> offHeapCatalog;
+    private final SingleFlight<Long, ProductDTO> productLoads;
+    private final SingleFlight<Long, Boolean> productEntityLoads;
+    private final HotKeyTracker hotKeyTracker;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, FlashSaleInventoryService flashSaleInventoryService,
+                          OptimisticLockRetrier optimisticLockRetrier, ApplicationEventPublisher eventPublisher,
+                          CatalogVersionService catalogVersionService,
+                          ObjectProvider<OffHeapProductCatalog> offHeapCatalog, MeterRegistry meterRegistry,
+                          HotKeyTracker hotKeyTracker) {
         this.productRepository = productRepository;
+        this.flashSaleInventoryService = flashSaleInventoryService;
+        this.optimisticLockRetrier = optimisticLockRetrier;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersionService = catalogVersionService;
+        this.offHeapCatalog = offHeapCatalog;
+        this.productLoads = new SingleFlight<>("product", meterRegistry);
+        this.productEntityLoads = new SingleFlight<>("product-entity", meterRegistry);
+        this.hotKeyTracker = hotKeyTracker;
     }
 
     @Transactional
@@ -24,77 +63,234 @@ public class ProductService {
         Product product = new Product();
         product.setName(productDTO.getName());
         product.setDescription(productDTO.getDescription());
-        product.setPrice(productDTO.getPrice());
+        product.setPrice(Money.of(productDTO.getPrice()));
         product.setStock(productDTO.getStock());
         product.setCategory(productDTO.getCategory());
         product.setImageUrl(productDTO.getImageUrl());
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct.getId()));
         return mapToDTO(savedProduct);
     }
 
     public ProductDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
-        return mapToDTO(product);
+        hotKeyTracker.productViewed(id);
+        OffHeapProductCatalog catalog = readyCatalog();
+        if (catalog != null) {
+            ProductDTO product = catalog.getProduct(id);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "id", id);
+            }
+            return product;
+        }
+        // A featured product is requested by many callers at once; they share one load
+        return productLoads.load(id, () -> mapToDTO(productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id))));
     }
 
+    /**
+     * Entities belong to the caller's persistence context and cannot be handed to other
+     * threads, so concurrent lookups share only the database load: it puts the product in
+     * the second-level cache, and every caller then reads its own copy from there.
+     */
     public Product getProductEntityById(Long id) {
+        if (!productEntityLoads.load(id, () -> productRepository.findById(id).isPresent())) {
+            throw new ResourceNotFoundException("Product", "id", id);
+        }
         return productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
     }
 
+    public Map<Long, Product> getProductEntitiesByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    public int getAvailableStock(Product product) {
+        return flashSaleInventoryService.getAvailableStock(product);
+    }
+
+    public StockAvailabilityResponse checkAvailability(Map<Long, Integer> requested) {
+        Map<Long, ProductStockView> stock = requested.isEmpty() ? Collections.emptyMap() :
+                productRepository.findStockByIdIn(requested.keySet()).stream()
+                        .collect(Collectors.toMap(ProductStockView::getId, Function.identity()));
+        Map<Long, Integer> bucketStock = flashSaleInventoryService.getAvailableStock(stock.values().stream()
+                .filter(view -> view.getFlashSaleBuckets() > 0)
+                .map(ProductStockView::getId)
+                .collect(Collectors.toList()));
+
+        List<StockAvailabilityDTO> items = new ArrayList<>(requested.size());
+        boolean allAvailable = true;
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            ProductStockView view = stock.get(entry.getKey());
+            int available = view == null ? 0 : bucketStock.getOrDefault(view.getId(), view.getStock());
+            int shortfall = Math.max(0, entry.getValue() - available);
+
+            StockAvailabilityDTO dto = new StockAvailabilityDTO();
+            dto.setProductId(entry.getKey());
+            dto.setProductName(view != null ? view.getName() : null);
+            dto.setRequested(entry.getValue());
+            dto.setAvailable(available);
+            dto.setShortfall(shortfall);
+            dto.setInStock(view != null && shortfall == 0);
+            items.add(dto);
+
+            allAvailable &= dto.isInStock();
+        }
+
+        return new StockAvailabilityResponse(allAvailable, items);
+    }
+
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        OffHeapProductCatalog catalog = readyCatalog();
+        if (catalog != null) {
+            return catalog.getAllProducts();
+        }
+        return mapToDTOs(productRepository.findAll());
+    }
+
+    public List<ProductDTO> getProductsByIds(Collection<Long> ids) {
+        OffHeapProductCatalog catalog = readyCatalog();
+        if (catalog != null) {
+            return catalog.getProducts(ids);
+        }
+        return ids.isEmpty() ? Collections.emptyList() : mapToDTOs(productRepository.findAllById(ids));
+    }
+
+    public CatalogChangesDTO getCatalogChanges(Long since) {
+        CatalogVersionService.CatalogChanges changes = catalogVersionService.getChangesSince(since);
+        List<ProductDTO> products = new ArrayList<>(getProductsByIds(changes.productIds()));
+        products.sort(Comparator.comparing(ProductDTO::getId));
+        return new CatalogChangesDTO(changes.version(), products, changes.deleted());
     }
 
     public List<ProductDTO> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        OffHeapProductCatalog catalog = readyCatalog();
+        if (catalog != null) {
+            return catalog.getProductsByCategory(category);
+        }
+        return mapToDTOs(productRepository.findByCategory(category));
     }
 
     public List<ProductDTO> searchProducts(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        hotKeyTracker.searched(name);
+        return mapToDTOs(productRepository.findByNameContainingIgnoreCase(name));
     }
 
-    @Transactional
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        return optimisticLockRetrier.execute("ProductService.updateProduct", () -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
 
-        product.setName(productDTO.getName());
-        product.setDescription(productDTO.getDescription());
-        product.setPrice(productDTO.getPrice());
-        product.setStock(productDTO.getStock());
-        product.setCategory(productDTO.getCategory());
-        product.setImageUrl(productDTO.getImageUrl());
+            // A stale admin form must not overwrite stock changed by checkouts since it was loaded
+            if (productDTO.getVersion() != null && !productDTO.getVersion().equals(product.getVersion())) {
+                throw new ConflictException("Product was modified since version " + productDTO.getVersion() +
+                        ". Current version: " + product.getVersion());
+            }
+
+            product.setName(productDTO.getName());
+            product.setDescription(productDTO.getDescription());
+            product.setPrice(Money.of(productDTO.getPrice()));
+            product.setCategory(productDTO.getCategory());
+            product.setImageUrl(productDTO.getImageUrl());
+            if (product.isFlashSale()) {
+                flashSaleInventoryService.resetStock(product, productDTO.getStock());
+            } else {
+                product.setStock(productDTO.getStock());
+            }
 
-        Product updatedProduct = productRepository.save(product);
-        return mapToDTO(updatedProduct);
+            Product updatedProduct = productRepository.saveAndFlush(product);
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
+            return mapToDTO(updatedProduct);
+        });
     }
 
-    @Transactional
     public void updateStock(Long productId, Integer quantityToDeduct) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
-        product.setStock(product.getStock() - quantityToDeduct);
-        productRepository.save(product);
+        optimisticLockRetrier.execute("ProductService.updateStock", () -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+            if (product.isFlashSale()) {
+                // Bucketed stock never touches the product row
+                if (!flashSaleInventoryService.deduct(productId, product.getFlashSaleBuckets(), quantityToDeduct)) {
+                    throw new BadRequestException("Insufficient stock for product: " + product.getName());
+                }
+            } else {
+                product.setStock(product.getStock() - quantityToDeduct);
+                productRepository.save(product);
+            }
+            eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        });
+    }
+
+    @Transactional
+    public void restoreStock(Product product, Integer quantity) {
+        if (product.isFlashSale()) {
+            if (flashSaleInventoryService.restock(product.getId(), product.getFlashSaleBuckets(), quantity) == 0) {
+                // The flash sale ended after the product was loaded and its buckets are gone. The
+                // product row is not written here, so its @Version cannot catch this: fail the
+                // attempt so the retrier reloads the product and restores products.stock instead.
+                throw new ObjectOptimisticLockingFailureException(Product.class, product.getId());
+            }
+        } else {
+            product.setStock(product.getStock() + quantity);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.of(product.getId()));
+    }
+
+    public ProductDTO enableFlashSale(Long id, int buckets) {
+        return optimisticLockRetrier.execute("ProductService.enableFlashSale", () -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+            flashSaleInventoryService.enable(product, buckets);
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
+            return mapToDTO(productRepository.saveAndFlush(product));
+        });
+    }
+
+    public ProductDTO disableFlashSale(Long id) {
+        return optimisticLockRetrier.execute("ProductService.disableFlashSale", () -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+            flashSaleInventoryService.disable(product);
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
+            return mapToDTO(productRepository.saveAndFlush(product));
+        });
+    }
+
+    private List<ProductDTO> mapToDTOs(List<Product> products) {
+        // One bucket query for all flash-sale products instead of one per product
+        Map<Long, Integer> bucketStock = flashSaleInventoryService.getAvailableStock(products.stream()
+                .filter(Product::isFlashSale)
+                .map(Product::getId)
+                .collect(Collectors.toList()));
+        return products.stream()
+                .map(product -> mapToDTO(product, bucketStock.getOrDefault(product.getId(), product.getStock())))
+                .collect(Collectors.toList());
+    }
+
+    /** The off-heap catalog when it is enabled and loaded; null means read from the database. */
+    private OffHeapProductCatalog readyCatalog() {
+        OffHeapProductCatalog catalog = offHeapCatalog.getIfAvailable();
+        return catalog != null && catalog.isReady() ? catalog : null;
     }
 
     private ProductDTO mapToDTO(Product product) {
+        return mapToDTO(product, getAvailableStock(product));
+    }
+
+    private ProductDTO mapToDTO(Product product, int availableStock) {
         ProductDTO dto = new ProductDTO();
         dto.setId(product.getId());
         dto.setName(product.getName());
         dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setStock(product.getStock());
+        dto.setPrice(product.getPrice().toBigDecimal());
+        dto.setStock(availableStock);
         dto.setCategory(product.getCategory());
         dto.setImageUrl(product.getImageUrl());
+        dto.setVersion(product.getVersion());
         return dto;
     }
 }
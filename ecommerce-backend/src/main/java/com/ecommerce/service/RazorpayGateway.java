@@ -0,0 +1,38 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Money;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates orders with Razorpay over HTTP. One client is shared by all requests so
+ * its HTTP connection pool is reused. Called outside any database transaction so a
+ * slow gateway does not hold a connection.
+ */
+@Component
+public class RazorpayGateway {
+
+    private final RazorpayClient razorpay;
+
+    public RazorpayGateway(@Value("${razorpay.key.id}") String keyId,
+                           @Value("${razorpay.key.secret}") String keySecret) throws RazorpayException {
+        this.razorpay = new RazorpayClient(keyId, keySecret);
+    }
+
+    /**
+     * Returns the Razorpay order id for an order of {@code amount} in {@code currency}.
+     * Razorpay takes the amount in minor units (paise).
+     */
+    public String createOrder(Money amount, String currency, String receipt) throws RazorpayException {
+        JSONObject orderRequest = new JSONObject();
+        orderRequest.put("amount", amount.getMinorUnits());
+        orderRequest.put("currency", currency);
+        orderRequest.put("receipt", receipt);
+
+        com.razorpay.Order razorpayOrder = razorpay.orders.create(orderRequest);
+        return razorpayOrder.get("id");
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the load, callers
+ * arriving while it runs wait for its result instead of starting their own, and a
+ * failure is rethrown to all of them. Nothing is kept once the load has finished, so
+ * this only removes duplicate work, it is not a cache.
+ * <p>
+ * Waiters are counted in {@code singleflight.coalesced} and keys being loaded in
+ * {@code singleflight.inflight}, both tagged with the loader name.
+ */
+class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("singleflight.coalesced")
+                .description("Lookups that waited for a load already running for the same key")
+                .tag("loader", name)
+                .register(meterRegistry);
+        Gauge.builder("singleflight.inflight", inFlight, Map::size)
+                .description("Keys with a load running")
+                .tag("loader", name)
+                .register(meterRegistry);
+    }
+
+    V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+        try {
+            V value = loader.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
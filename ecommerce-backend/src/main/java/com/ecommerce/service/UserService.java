@@ -5,6 +5,7 @@ import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,9 +16,13 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final SingleFlight<Long, UserDTO> userLoads;
+    private final SingleFlight<Long, Boolean> userEntityLoads;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.userLoads = new SingleFlight<>("user", meterRegistry);
+        this.userEntityLoads = new SingleFlight<>("user-entity", meterRegistry);
     }
 
     @Transactional
@@ -37,12 +42,18 @@ public class UserService {
     }
 
     public UserDTO getUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
-        return mapToDTO(user);
+        return userLoads.load(id, () -> mapToDTO(userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id))));
     }
 
+    /**
+     * Concurrent lookups share the database load, then each reads its own copy from the
+     * second-level cache; see {@link ProductService#getProductEntityById}.
+     */
     public User getUserEntityById(Long id) {
+        if (!userEntityLoads.load(id, () -> userRepository.findById(id).isPresent())) {
+            throw new ResourceNotFoundException("User", "id", id);
+        }
         return userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
     }
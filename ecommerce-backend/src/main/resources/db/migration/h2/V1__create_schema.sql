@@ -0,0 +1,96 @@
+-- Baseline schema for the H2 development database.
+
+CREATE TABLE users (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    email       VARCHAR(255) NOT NULL,
+    phone       VARCHAR(255),
+    address     VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE products (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                VARCHAR(255) NOT NULL,
+    description         VARCHAR(255),
+    price               NUMERIC(10, 2) NOT NULL,
+    stock               INTEGER NOT NULL,
+    category            VARCHAR(255),
+    image_url           VARCHAR(255),
+    flash_sale_buckets  INTEGER DEFAULT 0 NOT NULL,
+    version             BIGINT DEFAULT 0 NOT NULL,
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6)
+);
+
+CREATE INDEX idx_products_category ON products (category);
+
+CREATE TABLE inventory_buckets (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id    BIGINT NOT NULL,
+    bucket_index  INTEGER NOT NULL,
+    stock         INTEGER NOT NULL,
+    CONSTRAINT uk_inventory_buckets_product_bucket UNIQUE (product_id, bucket_index),
+    CONSTRAINT fk_inventory_buckets_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE cart_items (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT NOT NULL,
+    product_id  BIGINT NOT NULL,
+    quantity    INTEGER NOT NULL,
+    created_at  TIMESTAMP(6),
+    CONSTRAINT uk_cart_items_user_product UNIQUE (user_id, product_id),
+    CONSTRAINT fk_cart_items_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_cart_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE INDEX idx_cart_items_product ON cart_items (product_id);
+
+CREATE TABLE orders (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id           BIGINT NOT NULL,
+    total_amount      NUMERIC(10, 2) NOT NULL,
+    status            ENUM ('PENDING', 'PAYMENT_PENDING', 'PAID', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED') NOT NULL,
+    shipping_address  VARCHAR(255),
+    version           BIGINT DEFAULT 0 NOT NULL,
+    created_at        TIMESTAMP(6),
+    updated_at        TIMESTAMP(6),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_orders_user_created_at ON orders (user_id, created_at);
+CREATE INDEX idx_orders_status ON orders (status);
+
+CREATE TABLE order_items (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id    BIGINT NOT NULL,
+    product_id  BIGINT NOT NULL,
+    quantity    INTEGER NOT NULL,
+    unit_price  NUMERIC(10, 2) NOT NULL,
+    subtotal    NUMERIC(10, 2) NOT NULL,
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE INDEX idx_order_items_order ON order_items (order_id);
+CREATE INDEX idx_order_items_product ON order_items (product_id);
+
+CREATE TABLE payments (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id             BIGINT NOT NULL,
+    razorpay_order_id    VARCHAR(255),
+    razorpay_payment_id  VARCHAR(255),
+    razorpay_signature   VARCHAR(255),
+    amount               NUMERIC(10, 2) NOT NULL,
+    currency             VARCHAR(255) NOT NULL,
+    status               ENUM ('PENDING', 'CREATED', 'SUCCESS', 'FAILED', 'REFUNDED') NOT NULL,
+    payment_method       VARCHAR(255),
+    created_at           TIMESTAMP(6),
+    updated_at           TIMESTAMP(6),
+    CONSTRAINT uk_payments_order UNIQUE (order_id),
+    CONSTRAINT uk_payments_razorpay_order_id UNIQUE (razorpay_order_id),
+    CONSTRAINT uk_payments_razorpay_payment_id UNIQUE (razorpay_payment_id),
+    CONSTRAINT fk_payments_order FOREIGN KEY (order_id) REFERENCES orders (id)
+);
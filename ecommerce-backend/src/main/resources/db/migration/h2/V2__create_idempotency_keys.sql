@@ -0,0 +1,13 @@
+-- Responses to POST /api/orders and POST /api/payments/create by Idempotency-Key.
+-- A row without a response status belongs to a request still in progress.
+
+CREATE TABLE idempotency_keys (
+    idempotency_key  VARCHAR(300) NOT NULL PRIMARY KEY,
+    request_hash     VARCHAR(64) NOT NULL,
+    response_status  INTEGER,
+    response_body    CLOB,
+    created_at       TIMESTAMP(6) NOT NULL,
+    expires_at       TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,15 @@
+-- Catalog change versions for GET /api/products/changes. A product's catalog_version is
+-- the version of its last committed change; 0 means unchanged since it was loaded.
+-- Products that no longer exist leave a tombstone with the version of their removal.
+
+ALTER TABLE products ADD COLUMN catalog_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_products_catalog_version ON products (catalog_version);
+
+CREATE TABLE catalog_tombstones (
+    product_id       BIGINT NOT NULL PRIMARY KEY,
+    catalog_version  BIGINT NOT NULL,
+    deleted_at       TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_catalog_tombstones_catalog_version ON catalog_tombstones (catalog_version);
@@ -0,0 +1,61 @@
+-- Sales rollups for the /api/reports/sales endpoints, kept up to date by the application as
+-- orders are placed, paid and cancelled. Every event is booked on the day its order was
+-- placed, so a cancellation reduces the day of the sale it undoes. Amounts and units are
+-- gross; cancellations are counted separately and reports subtract them.
+
+CREATE TABLE sales_daily (
+    sales_date         DATE NOT NULL PRIMARY KEY,
+    orders_placed      BIGINT NOT NULL,
+    orders_paid        BIGINT NOT NULL,
+    orders_cancelled   BIGINT NOT NULL,
+    units_sold         BIGINT NOT NULL,
+    units_cancelled    BIGINT NOT NULL,
+    revenue            DECIMAL(19, 2) NOT NULL,
+    paid_revenue       DECIMAL(19, 2) NOT NULL,
+    cancelled_revenue  DECIMAL(19, 2) NOT NULL,
+    updated_at         TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE sales_by_category (
+    sales_date         DATE NOT NULL,
+    category           VARCHAR(255) NOT NULL,
+    units_sold         BIGINT NOT NULL,
+    units_cancelled    BIGINT NOT NULL,
+    revenue            DECIMAL(19, 2) NOT NULL,
+    cancelled_revenue  DECIMAL(19, 2) NOT NULL,
+    updated_at         TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (sales_date, category)
+);
+
+-- Existing orders are rolled up once here; from now on the application maintains the rows
+
+INSERT INTO sales_daily (sales_date, orders_placed, orders_paid, orders_cancelled, units_sold, units_cancelled,
+                         revenue, paid_revenue, cancelled_revenue, updated_at)
+SELECT CAST(o.created_at AS DATE),
+       COUNT(*),
+       SUM(CASE WHEN p.status = 'SUCCESS' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN o.status = 'CANCELLED' THEN 1 ELSE 0 END),
+       SUM(COALESCE(u.units, 0)),
+       SUM(CASE WHEN o.status = 'CANCELLED' THEN COALESCE(u.units, 0) ELSE 0 END),
+       SUM(o.total_amount),
+       SUM(CASE WHEN p.status = 'SUCCESS' THEN o.total_amount ELSE 0 END),
+       SUM(CASE WHEN o.status = 'CANCELLED' THEN o.total_amount ELSE 0 END),
+       CURRENT_TIMESTAMP
+FROM orders o
+LEFT JOIN payments p ON p.order_id = o.id
+LEFT JOIN (SELECT order_id, SUM(quantity) AS units FROM order_items GROUP BY order_id) u ON u.order_id = o.id
+GROUP BY CAST(o.created_at AS DATE);
+
+INSERT INTO sales_by_category (sales_date, category, units_sold, units_cancelled, revenue, cancelled_revenue,
+                               updated_at)
+SELECT CAST(o.created_at AS DATE),
+       COALESCE(pr.category, 'Uncategorized'),
+       SUM(oi.quantity),
+       SUM(CASE WHEN o.status = 'CANCELLED' THEN oi.quantity ELSE 0 END),
+       SUM(oi.subtotal),
+       SUM(CASE WHEN o.status = 'CANCELLED' THEN oi.subtotal ELSE 0 END),
+       CURRENT_TIMESTAMP
+FROM order_items oi
+JOIN orders o ON o.id = oi.order_id
+JOIN products pr ON pr.id = oi.product_id
+GROUP BY CAST(o.created_at AS DATE), COALESCE(pr.category, 'Uncategorized');
@@ -0,0 +1,92 @@
+-- Baseline schema for MySQL.
+
+CREATE TABLE users (
+    id          BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    email       VARCHAR(255) NOT NULL,
+    phone       VARCHAR(255),
+    address     VARCHAR(255),
+    created_at  DATETIME(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE products (
+    id                  BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    name                VARCHAR(255) NOT NULL,
+    description         VARCHAR(255),
+    price               DECIMAL(10, 2) NOT NULL,
+    stock               INT NOT NULL,
+    category            VARCHAR(255),
+    image_url           VARCHAR(255),
+    flash_sale_buckets  INT NOT NULL DEFAULT 0,
+    version             BIGINT NOT NULL DEFAULT 0,
+    created_at          DATETIME(6),
+    updated_at          DATETIME(6),
+    INDEX idx_products_category (category)
+) ENGINE = InnoDB;
+
+CREATE TABLE inventory_buckets (
+    id            BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    product_id    BIGINT NOT NULL,
+    bucket_index  INT NOT NULL,
+    stock         INT NOT NULL,
+    CONSTRAINT uk_inventory_buckets_product_bucket UNIQUE (product_id, bucket_index),
+    CONSTRAINT fk_inventory_buckets_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE cart_items (
+    id          BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    user_id     BIGINT NOT NULL,
+    product_id  BIGINT NOT NULL,
+    quantity    INT NOT NULL,
+    created_at  DATETIME(6),
+    CONSTRAINT uk_cart_items_user_product UNIQUE (user_id, product_id),
+    INDEX idx_cart_items_product (product_id),
+    CONSTRAINT fk_cart_items_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_cart_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE orders (
+    id                BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    user_id           BIGINT NOT NULL,
+    total_amount      DECIMAL(10, 2) NOT NULL,
+    status            ENUM ('PENDING', 'PAYMENT_PENDING', 'PAID', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED') NOT NULL,
+    shipping_address  VARCHAR(255),
+    version           BIGINT NOT NULL DEFAULT 0,
+    created_at        DATETIME(6),
+    updated_at        DATETIME(6),
+    INDEX idx_orders_user_created_at (user_id, created_at),
+    INDEX idx_orders_status (status),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE order_items (
+    id          BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    order_id    BIGINT NOT NULL,
+    product_id  BIGINT NOT NULL,
+    quantity    INT NOT NULL,
+    unit_price  DECIMAL(10, 2) NOT NULL,
+    subtotal    DECIMAL(10, 2) NOT NULL,
+    INDEX idx_order_items_order (order_id),
+    INDEX idx_order_items_product (product_id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE payments (
+    id                   BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    order_id             BIGINT NOT NULL,
+    razorpay_order_id    VARCHAR(255),
+    razorpay_payment_id  VARCHAR(255),
+    razorpay_signature   VARCHAR(255),
+    amount               DECIMAL(10, 2) NOT NULL,
+    currency             VARCHAR(255) NOT NULL,
+    status               ENUM ('PENDING', 'CREATED', 'SUCCESS', 'FAILED', 'REFUNDED') NOT NULL,
+    payment_method       VARCHAR(255),
+    created_at           DATETIME(6),
+    updated_at           DATETIME(6),
+    CONSTRAINT uk_payments_order UNIQUE (order_id),
+    CONSTRAINT uk_payments_razorpay_order_id UNIQUE (razorpay_order_id),
+    CONSTRAINT uk_payments_razorpay_payment_id UNIQUE (razorpay_payment_id),
+    CONSTRAINT fk_payments_order FOREIGN KEY (order_id) REFERENCES orders (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,12 @@
+-- Responses to POST /api/orders and POST /api/payments/create by Idempotency-Key.
+-- A row without a response status belongs to a request still in progress.
+
+CREATE TABLE idempotency_keys (
+    idempotency_key  VARCHAR(300) NOT NULL PRIMARY KEY,
+    request_hash     VARCHAR(64) NOT NULL,
+    response_status  INT,
+    response_body    LONGTEXT,
+    created_at       DATETIME(6) NOT NULL,
+    expires_at       DATETIME(6) NOT NULL,
+    INDEX idx_idempotency_keys_expires_at (expires_at)
+) ENGINE = InnoDB;
@@ -0,0 +1,11 @@
+-- Popularity counters for GET /api/products/most-viewed and /best-selling. Counts are kept
+-- in memory and added to these rows in batches, so there is no foreign key: a product
+-- removed between two flushes must not fail the whole batch.
+
+CREATE TABLE product_popularity (
+    product_id      BIGINT NOT NULL PRIMARY KEY,
+    view_count      BIGINT NOT NULL DEFAULT 0,
+    cart_add_count  BIGINT NOT NULL DEFAULT 0,
+    units_sold      BIGINT NOT NULL DEFAULT 0,
+    updated_at      DATETIME(6) NOT NULL
+) ENGINE = InnoDB;
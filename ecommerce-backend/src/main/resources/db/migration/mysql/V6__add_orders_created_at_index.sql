@@ -0,0 +1,5 @@
+-- Keyset index for GET /api/reports/orders/export, which reads orders in pages ordered by
+-- (created_at, id). The existing (user_id, created_at) index cannot serve a range on
+-- created_at alone.
+
+CREATE INDEX idx_orders_created_at ON orders (created_at, id);
@@ -0,0 +1,72 @@
+package com.ecommerce;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A virtual thread that blocks inside a {@code synchronized} method or block stays
+ * pinned to its carrier thread (up to Java 23), so application code must guard shared
+ * state with {@code java.util.concurrent} locks instead. Scans the compiled application
+ * classes for monitors.
+ */
+class VirtualThreadPinningTest {
+
+    @Test
+    void applicationCodeHasNoSynchronizedSections() throws Exception {
+        Path classes = Path.of(EcommerceApplication.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<String> monitors = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(classes)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".class")).toList()) {
+                monitors.addAll(findMonitors(file));
+            }
+        }
+
+        assertThat(monitors).as("synchronized sections that would pin virtual threads").isEmpty();
+    }
+
+    private static List<String> findMonitors(Path file) throws IOException {
+        List<String> monitors = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file)) {
+            new ClassReader(in).accept(new ClassVisitor(SpringAsmInfo.ASM_VERSION) {
+                private String className;
+
+                @Override
+                public void visit(int version, int access, String name, String signature, String superName,
+                                  String[] interfaces) {
+                    className = name.replace('/', '.');
+                }
+
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                                 String[] exceptions) {
+                    if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                        monitors.add(className + "." + name + " is synchronized");
+                    }
+                    return new MethodVisitor(SpringAsmInfo.ASM_VERSION) {
+                        @Override
+                        public void visitInsn(int opcode) {
+                            if (opcode == Opcodes.MONITORENTER) {
+                                monitors.add(className + "." + name + " has a synchronized block");
+                            }
+                        }
+                    };
+                }
+            }, ClassReader.SKIP_DEBUG);
+        }
+        return monitors;
+    }
+}
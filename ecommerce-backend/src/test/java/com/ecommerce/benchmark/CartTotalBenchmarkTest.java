@@ -0,0 +1,78 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.model.Money;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares totalling a cart of {@value #LINES} lines with BigDecimal multiply and add, as
+ * the cart and checkout did before, against {@link Money} in long minor units. Run with
+ * {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CartTotalBenchmarkTest {
+
+    private static final int LINES = 10_000;
+    private static final int ROUNDS = 2_000;
+
+    @Test
+    void compareBigDecimalAndMoneyTotals() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BigDecimal[] decimalPrices = new BigDecimal[LINES];
+        Money[] prices = new Money[LINES];
+        int[] quantities = new int[LINES];
+        for (int i = 0; i < LINES; i++) {
+            long paise = random.nextLong(100, 10_000_000);
+            decimalPrices[i] = BigDecimal.valueOf(paise, 2);
+            prices[i] = Money.ofMinor(paise);
+            quantities[i] = random.nextInt(1, 20);
+        }
+
+        // Warm up both paths so the measured rounds run compiled code
+        for (int round = 0; round < ROUNDS / 4; round++) {
+            bigDecimalTotal(decimalPrices, quantities);
+            moneyTotal(prices, quantities);
+        }
+
+        long start = System.nanoTime();
+        BigDecimal decimalTotal = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            decimalTotal = bigDecimalTotal(decimalPrices, quantities);
+        }
+        long decimalElapsed = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Money total = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            total = moneyTotal(prices, quantities);
+        }
+        long moneyElapsed = System.nanoTime() - start;
+
+        if (decimalTotal.compareTo(total.toBigDecimal()) != 0) {
+            throw new AssertionError("Totals differ: " + decimalTotal + " and " + total);
+        }
+        long lines = (long) LINES * ROUNDS;
+        System.out.printf("cart total over %d lines: BigDecimal %.1f ns per line, Money %.1f ns per line (%.1fx)%n",
+                LINES, (double) decimalElapsed / lines, (double) moneyElapsed / lines,
+                (double) decimalElapsed / moneyElapsed);
+    }
+
+    private static BigDecimal bigDecimalTotal(BigDecimal[] prices, int[] quantities) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < prices.length; i++) {
+            total = total.add(prices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    private static Money moneyTotal(Money[] prices, int[] quantities) {
+        Money total = Money.ZERO;
+        for (int i = 0; i < prices.length; i++) {
+            total = total.plus(prices[i].times(quantities[i]));
+        }
+        return total;
+    }
+}
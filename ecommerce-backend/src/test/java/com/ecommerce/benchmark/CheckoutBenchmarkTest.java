@@ -0,0 +1,103 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.OrderDTO;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.JdbcCheckoutService;
+import com.ecommerce.service.OrderService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Compares the JPA and JDBC checkout paths. Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.ecommerce=INFO"
+})
+class CheckoutBenchmarkTest {
+
+    private static final int WARMUP_ORDERS = 200;
+    private static final int MEASURED_ORDERS = 1000;
+    private static final int LINES_PER_CART = 10;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcCheckoutService jdbcCheckoutService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Test
+    void compareJpaAndJdbcCheckout() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < LINES_PER_CART; i++) {
+            Product product = new Product();
+            product.setName("Bench product " + i);
+            product.setPrice(Money.of("199.99"));
+            product.setStock(Integer.MAX_VALUE / 2);
+            product.setCategory("Bench");
+            products.add(productRepository.save(product));
+        }
+
+        run("jpa (warmup)", products, WARMUP_ORDERS, orderService::createOrder);
+        run("jdbc (warmup)", products, WARMUP_ORDERS, jdbcCheckoutService::createOrder);
+        run("jpa", products, MEASURED_ORDERS, orderService::createOrder);
+        run("jdbc", products, MEASURED_ORDERS, jdbcCheckoutService::createOrder);
+    }
+
+    private void run(String label, List<Product> products, int orders,
+                     Function<CreateOrderRequest, OrderDTO> checkout) {
+        List<Long> userIds = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            User user = new User();
+            user.setName("Bench user");
+            user.setEmail(UUID.randomUUID() + "@bench.example.com");
+            user.setAddress("1 Bench Street");
+            user = userRepository.save(user);
+
+            List<CartItem> cart = new ArrayList<>(products.size());
+            for (Product product : products) {
+                CartItem item = new CartItem();
+                item.setUser(user);
+                item.setProduct(product);
+                item.setQuantity(1);
+                cart.add(item);
+            }
+            cartItemRepository.saveAll(cart);
+            userIds.add(user.getId());
+        }
+
+        long start = System.nanoTime();
+        for (Long userId : userIds) {
+            checkout.apply(new CreateOrderRequest(userId, null));
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("checkout %-14s %5d orders x %2d lines: %8.1f orders/s, %7.3f ms/order%n",
+                label, orders, products.size(), orders / (elapsed / 1e9), elapsed / 1e6 / orders);
+    }
+}
@@ -0,0 +1,159 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.RazorpayGateway;
+import com.razorpay.RazorpayException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares payment creation throughput with Tomcat on platform threads and on virtual
+ * threads while the payment gateway takes {@value #GATEWAY_LATENCY_MS} ms per call.
+ * The virtual-thread run needs a Java 21+ runtime and is skipped otherwise. Run with
+ * {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ExecutionModeBenchmarkTest {
+
+    private static final long GATEWAY_LATENCY_MS = 100;
+    private static final int CLIENTS = 500;
+    private static final int WARMUP_PAYMENTS = 500;
+    private static final int MEASURED_PAYMENTS = 3000;
+
+    @Test
+    void comparePlatformAndVirtualThreadsWithSlowGateway() throws Exception {
+        run("platform", false);
+        if (Runtime.version().feature() >= 21) {
+            run("virtual", true);
+        } else {
+            System.out.printf("payments virtual   skipped: virtual threads need Java 21+ (running %d)%n",
+                    Runtime.version().feature());
+        }
+    }
+
+    private void run(String mode, boolean virtualThreads) throws Exception {
+        ApplicationContextInitializer<GenericApplicationContext> slowGateway = context ->
+                context.registerBean("slowRazorpayGateway", RazorpayGateway.class, () -> {
+                    try {
+                        return new SlowGateway();
+                    } catch (RazorpayException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, definition -> definition.setPrimary(true));
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EcommerceApplication.class)
+                .initializers(slowGateway)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.accept-count=1000",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "payment.mock.enabled=false",
+                        // Measures raw throughput from a single client address
+                        "admission.enabled=false",
+                        "rate-limit.enabled=false",
+                        "logging.level.com.ecommerce=WARN")
+                .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            List<Long> orderIds = createPendingOrders(context, WARMUP_PAYMENTS + MEASURED_PAYMENTS);
+
+            HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4)).build();
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            try {
+                createPayments(client, clients, port, orderIds.subList(0, WARMUP_PAYMENTS));
+                long start = System.nanoTime();
+                long totalLatency = createPayments(client, clients, port,
+                        orderIds.subList(WARMUP_PAYMENTS, orderIds.size()));
+                long elapsed = System.nanoTime() - start;
+
+                System.out.printf("payments %-9s %5d payments, %d clients, gateway %d ms: %8.1f payments/s, "
+                                + "%7.1f ms mean latency%n", mode, MEASURED_PAYMENTS, CLIENTS, GATEWAY_LATENCY_MS,
+                        MEASURED_PAYMENTS / (elapsed / 1e9), totalLatency / 1e6 / MEASURED_PAYMENTS);
+            } finally {
+                clients.shutdownNow();
+                clients.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Sends one payment request per order from the client pool and returns the summed latency.
+     */
+    private static long createPayments(HttpClient client, ExecutorService clients, int port, List<Long> orderIds)
+            throws Exception {
+        List<Future<Long>> responses = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/payments/create"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"orderId\":" + orderId + "}"))
+                    .build();
+            responses.add(clients.submit(() -> {
+                long sent = System.nanoTime();
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                assertThat(status).as("payment for order %d", orderId).isBetween(200, 299);
+                return System.nanoTime() - sent;
+            }));
+        }
+        long totalLatency = 0;
+        for (Future<Long> response : responses) {
+            totalLatency += response.get();
+        }
+        return totalLatency;
+    }
+
+    private static List<Long> createPendingOrders(ConfigurableApplicationContext context, int count) {
+        User user = new User();
+        user.setName("Bench payer");
+        user.setEmail(UUID.randomUUID() + "@bench.example.com");
+        user = context.getBean(UserRepository.class).save(user);
+
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setUser(user);
+            order.setTotalAmount(Money.of("499.00"));
+            order.setStatus(Order.OrderStatus.PENDING);
+            orders.add(order);
+        }
+        return context.getBean(OrderRepository.class).saveAll(orders).stream().map(Order::getId).toList();
+    }
+
+    private static final class SlowGateway extends RazorpayGateway {
+
+        SlowGateway() throws RazorpayException {
+            super("rzp_bench_key", "bench_secret");
+        }
+
+        @Override
+        public String createOrder(Money amount, String currency, String receipt) {
+            try {
+                Thread.sleep(GATEWAY_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "order_bench_" + UUID.randomUUID();
+        }
+    }
+}
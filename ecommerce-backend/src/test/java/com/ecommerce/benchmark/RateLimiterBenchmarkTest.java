@@ -0,0 +1,76 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.exception.TooManyRequestsException;
+import com.ecommerce.limit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures the cost of a rate-limit check with {@value #USERS} active users spread over
+ * {@value #THREADS} threads, with part of the checks rejected. Run with
+ * {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class RateLimiterBenchmarkTest {
+
+    private static final int USERS = 10_000;
+    private static final int THREADS = 4;
+    private static final int CHECKS_PER_THREAD = 2_000_000;
+
+    @Test
+    void measureCheckLatency() throws Exception {
+        RateLimiter limiter = new RateLimiter(100_000, 60, 1000, 5,
+                new MockEnvironment().withProperty("rate-limit.default.rate", "100"), new SimpleMeterRegistry());
+        String[] users = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = String.valueOf(i);
+        }
+
+        run(limiter, users, CHECKS_PER_THREAD / 10);
+        long start = System.nanoTime();
+        long rejected = run(limiter, users, CHECKS_PER_THREAD);
+        long elapsed = System.nanoTime() - start;
+
+        long checks = (long) THREADS * CHECKS_PER_THREAD;
+        System.out.printf("rate limiter %d checks on %d threads, %d users: %.0f ns per check, %.1f M checks/s, "
+                        + "%d%% rejected%n", checks, THREADS, USERS, (double) elapsed / checks,
+                checks / (elapsed / 1e3), rejected * 100 / checks);
+    }
+
+    private static long run(RateLimiter limiter, String[] users, int checksPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    long rejected = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < checksPerThread; i++) {
+                        try {
+                            limiter.acquire("bench", RateLimiter.Scope.USER, users[random.nextInt(users.length)]);
+                        } catch (TooManyRequestsException e) {
+                            rejected++;
+                        }
+                    }
+                    return rejected;
+                }));
+            }
+            long rejected = 0;
+            for (Future<Long> result : results) {
+                rejected += result.get();
+            }
+            return rejected;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.catalog;
+
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.service.CatalogVersionService;
+import com.ecommerce.service.ProductChangedEvent;
+import com.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "catalog.store.enabled=true",
+        "catalog.store.snapshot-path=target/test-catalog/catalog.snapshot",
+        "catalog.store.snapshot-interval-ms=3600000",
+        "catalog.version.flush-interval-ms=3600000"
+})
+class OffHeapProductCatalogTest {
+
+    @Autowired
+    private OffHeapProductCatalog catalog;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void servesCommittedChangesAndRestartsFromSnapshotPlusDelta() {
+        assertThat(catalog.isReady()).isTrue();
+        String category = "OffHeap-" + UUID.randomUUID();
+        ProductDTO lamp = productService.createProduct(product("Lamp", category));
+        ProductDTO desk = productService.createProduct(product("Desk", category));
+
+        transactionTemplate.executeWithoutResult(status -> productService.updateStock(lamp.getId(), 4));
+        assertThat(productService.getProductById(lamp.getId()).getStock()).isEqualTo(6);
+        assertThat(productService.getProductsByCategory(category)).extracting(ProductDTO::getName)
+                .containsExactly("Lamp", "Desk");
+
+        catalog.writeSnapshot();
+        assertThat(Files.exists(Path.of("target/test-catalog/catalog.snapshot"))).isTrue();
+
+        // Changes after the snapshot come back through the catalog versions on the next load
+        transactionTemplate.executeWithoutResult(status -> productService.updateStock(desk.getId(), 1));
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", lamp.getId());
+        catalogVersionService.onProductChanged(new ProductChangedEvent(List.of(lamp.getId())));
+        catalogVersionService.flush();
+        catalog.load();
+
+        assertThat(productService.getProductsByCategory(category)).extracting(ProductDTO::getName)
+                .containsExactly("Desk");
+        assertThat(productService.getProductById(desk.getId()).getStock()).isEqualTo(9);
+        assertThatThrownBy(() -> productService.getProductById(lamp.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void reloadsThousandsOfDirtyProductsInChunks() {
+        String category = "OffHeap-" + UUID.randomUUID();
+        ProductDTO lamp = productService.createProduct(product("Lamp", category));
+        ProductDTO desk = productService.createProduct(product("Desk", category));
+        productService.getProductById(lamp.getId());
+
+        // Written behind the catalog's back, as after a restart from an old snapshot
+        jdbcTemplate.update("UPDATE products SET stock = 3 WHERE id = ?", lamp.getId());
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", desk.getId());
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id < 2500; id++) {
+            ids.add(Long.MAX_VALUE - id);
+        }
+        ids.add(lamp.getId());
+        ids.add(desk.getId());
+        catalog.onProductChanged(new ProductChangedEvent(ids));
+
+        assertThat(productService.getProductById(lamp.getId()).getStock()).isEqualTo(3);
+        assertThat(productService.getProductsByCategory(category)).extracting(ProductDTO::getName)
+                .containsExactly("Lamp");
+    }
+
+    private static ProductDTO product(String name, String category) {
+        ProductDTO product = new ProductDTO();
+        product.setName(name);
+        product.setPrice(new BigDecimal("45.00"));
+        product.setStock(10);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.catalog;
+
+import com.ecommerce.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductRecordStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void storesUpdatesAndRemovesProducts() {
+        ProductRecordStore store = new ProductRecordStore(4);
+        store.put(1, "Lamp", "Warm light", new BigDecimal("19.99"), 5, "Home", null, 0, 0);
+        store.put(2, "Café table", null, new BigDecimal("120"), 2, "Home", "/img/table.png", 0, 3);
+
+        ProductDTO lamp = store.get(1, null);
+        assertThat(lamp.getName()).isEqualTo("Lamp");
+        assertThat(lamp.getDescription()).isEqualTo("Warm light");
+        assertThat(lamp.getPrice()).isEqualByComparingTo("19.99");
+        assertThat(lamp.getStock()).isEqualTo(5);
+        assertThat(lamp.getCategory()).isEqualTo("Home");
+        assertThat(lamp.getImageUrl()).isNull();
+
+        ProductDTO table = store.get(2, 7);
+        assertThat(table.getName()).isEqualTo("Café table");
+        assertThat(table.getPrice()).isEqualTo(new BigDecimal("120.00"));
+        assertThat(table.getStock()).isEqualTo(7);
+        assertThat(table.getVersion()).isEqualTo(3);
+
+        store.put(1, "Desk lamp", "Warm light", new BigDecimal("24.50"), 4, "Office", null, 0, 1);
+        assertThat(store.get(1, null).getName()).isEqualTo("Desk lamp");
+        assertThat(store.scan("Home", Map.of())).extracting(ProductDTO::getId).containsExactly(2L);
+        assertThat(store.scan("Office", Map.of())).extracting(ProductDTO::getId).containsExactly(1L);
+        assertThat(store.scan("Garden", Map.of())).isEmpty();
+
+        assertThat(store.remove(2)).isTrue();
+        assertThat(store.remove(2)).isFalse();
+        assertThat(store.get(2, null)).isNull();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void growsAndReusesSlotsInIdOrder() {
+        ProductRecordStore store = new ProductRecordStore(1);
+        for (long id = 1000; id > 0; id--) {
+            store.put(id, "Product " + id, null, BigDecimal.ONE, (int) id, "Bulk", null, id % 10 == 0 ? 4 : 0, 0);
+        }
+        for (long id = 1; id <= 1000; id += 2) {
+            store.remove(id);
+        }
+        store.put(5000, "Late", null, BigDecimal.TEN, 1, "Bulk", null, 0, 0);
+
+        List<ProductDTO> all = store.scan(null, Map.of(10L, 99));
+        assertThat(all).hasSize(501);
+        assertThat(all).extracting(ProductDTO::getId).isSorted();
+        assertThat(all.get(4).getStock()).isEqualTo(99);
+        assertThat(store.flashSaleIds(null)).hasSize(100);
+        assertThat(store.flashSaleIds(List.of(10L, 11L, 12L))).containsExactly(10L);
+        assertThat(store.getAll(List.of(5000L, 3L, 4L, 4L), Map.of())).extracting(ProductDTO::getId)
+                .containsExactly(4L, 5000L);
+    }
+
+    @Test
+    void snapshotRoundTripsTheStore() throws IOException {
+        ProductRecordStore store = new ProductRecordStore(16);
+        for (long id = 1; id <= 100; id++) {
+            store.put(id, "Product " + id, "Description " + id, new BigDecimal(id + ".25"), (int) id,
+                    id % 2 == 0 ? "Even" : "Odd", null, 0, id);
+        }
+        store.remove(50);
+        Path path = tempDir.resolve("catalog.snapshot");
+        store.writeSnapshot(path, 42);
+
+        ProductRecordStore.Snapshot snapshot = ProductRecordStore.loadSnapshot(path);
+        assertThat(snapshot.catalogVersion()).isEqualTo(42);
+        ProductRecordStore loaded = snapshot.store();
+        assertThat(loaded.size()).isEqualTo(99);
+        assertThat(loaded.get(50, null)).isNull();
+        assertThat(loaded.scan("Even", Map.of())).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(store.scan("Even", Map.of()));
+
+        // The loaded store is writable like any other
+        loaded.put(50, "Back", null, BigDecimal.ONE, 1, "New", null, 0, 0);
+        assertThat(loaded.get(50, null).getCategory()).isEqualTo("New");
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSnapshots() throws IOException {
+        Path path = tempDir.resolve("garbage.snapshot");
+        Files.writeString(path, "not a snapshot, just some text");
+        assertThatThrownBy(() -> ProductRecordStore.loadSnapshot(path)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void compactsStringsLeftBehindByUpdates() {
+        ProductRecordStore store = new ProductRecordStore(16);
+        String description = "x".repeat(100_000);
+        for (int i = 0; i < 50; i++) {
+            store.put(1, "Product", description + i, BigDecimal.ONE, i, "Big", null, 0, i);
+        }
+        assertThat(store.get(1, null).getDescription()).isEqualTo(description + 49);
+        assertThat(store.offHeapBytes()).isLessThan(2_000_000);
+    }
+}
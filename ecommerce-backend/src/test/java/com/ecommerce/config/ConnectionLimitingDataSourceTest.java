@@ -0,0 +1,54 @@
+package com.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConnectionLimitingDataSourceTest {
+
+    @Test
+    void waitsForAPermitAndReleasesItOnceOnClose() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:connection-limit;DB_CLOSE_DELAY=-1");
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(h2, 2, 50);
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isZero();
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("after 50 ms");
+
+        first.close();
+        first.close();
+        assertThat(first.isClosed()).isTrue();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+
+        try (Connection third = dataSource.getConnection()) {
+            assertThat(third.isValid(1)).isTrue();
+            assertThat(dataSource.getAvailablePermits()).isZero();
+        }
+        second.close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void closingTheWrapperClosesThePool() throws Exception {
+        HikariDataSource hikari = new HikariDataSource();
+        hikari.setJdbcUrl("jdbc:h2:mem:connection-limit-close");
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(hikari, 2, 50);
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+
+        dataSource.close();
+
+        assertThat(hikari.isClosed()).isTrue();
+    }
+}
@@ -0,0 +1,300 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.AddToCartRequest;
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Payment;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.monitoring.QueryBudget;
+import com.ecommerce.monitoring.QueryCountHeaderAdvice;
+import com.ecommerce.monitoring.QueryCounter;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.PaymentRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.IdempotencyService;
+import com.ecommerce.service.OrderService;
+import com.ecommerce.service.ProductService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Calls every controller endpoint against a data set large enough to expose N+1
+ * selects and fails when an endpoint executes more statements than its
+ * {@link QueryBudget}.
+ */
+@SpringBootTest(properties = {"payment.mock.enabled=true", "monitoring.query-count.header=true"})
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    private static final int ORDERS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequestMappingHandlerMapping requestMappingHandlerMapping;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    private final Set<Method> covered = new HashSet<>();
+
+    @Test
+    void everyEndpointDeclaresABudget() {
+        assertThat(endpoints())
+                .allSatisfy(method -> assertThat(method.isAnnotationPresent(QueryBudget.class))
+                        .as("%s declares a @QueryBudget", method).isTrue());
+    }
+
+    @Test
+    void ordersByUserIsIndependentOfOrderCount() throws Exception {
+        List<Product> products = createProducts(3);
+        User oneOrder = createUserWithOrders(products, 1);
+        User manyOrders = createUserWithOrders(products, ORDERS);
+
+        long single = queryCount(perform(get("/api/orders/user/{userId}", oneOrder.getId())));
+        long many = queryCount(perform(get("/api/orders/user/{userId}", manyOrders.getId())));
+
+        assertThat(many).isEqualTo(single).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void everyEndpointStaysWithinItsBudget() throws Exception {
+        List<Product> products = createProducts(3);
+        Product flashProduct = createProducts(1).get(0);
+        productService.enableFlashSale(flashProduct.getId(), 4);
+        User buyer = createUserWithOrders(products, ORDERS);
+        Long productId = products.get(0).getId();
+
+        // Users
+        Long userId = id(perform(post("/api/users").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Budget Shopper\",\"email\":\"" + UUID.randomUUID() + "@example.com\"}")));
+        perform(get("/api/users/{id}", userId));
+        perform(get("/api/users"));
+
+        // Products
+        Long createdProductId = id(perform(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Budget Lamp\",\"price\":15.00,\"stock\":20,\"category\":\"Budget\"}")));
+        perform(get("/api/products"));
+        perform(get("/api/products/{id}", productId));
+        perform(get("/api/products/category/{category}", "Budget"));
+        perform(get("/api/products/search").param("name", "Budget"));
+        perform(get("/api/products/changes"));
+        perform(get("/api/products/changes").param("since", "0"));
+        perform(get("/api/products/most-viewed"));
+        perform(get("/api/products/best-selling").param("limit", "5"));
+        perform(post("/api/products/availability").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"items\":[" + products.stream()
+                        .map(product -> "{\"productId\":" + product.getId() + ",\"quantity\":1}")
+                        .collect(Collectors.joining(",")) + ",{\"productId\":" + flashProduct.getId() +
+                        ",\"quantity\":1}]}"));
+        perform(put("/api/products/{id}", createdProductId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Budget Lamp\",\"price\":17.00,\"stock\":25,\"category\":\"Budget\",\"version\":0}"));
+        perform(post("/api/products/{id}/flash-sale", createdProductId).param("buckets", "4"));
+        perform(delete("/api/products/{id}/flash-sale", createdProductId));
+
+        // Cart
+        for (Product product : products) {
+            perform(post("/api/cart/add").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"userId\":" + userId + ",\"productId\":" + product.getId() + ",\"quantity\":1}"));
+        }
+        perform(post("/api/cart/add").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":" + userId + ",\"productId\":" + flashProduct.getId() + ",\"quantity\":1}"));
+        perform(get("/api/cart/{userId}", userId));
+        perform(get("/api/cart/{userId}/availability", userId));
+        perform(put("/api/cart/{userId}/items/{productId}", userId, productId).param("quantity", "2"));
+        perform(delete("/api/cart/{userId}/items/{productId}", userId, products.get(2).getId()));
+
+        // Anonymous cart
+        perform(get("/api/cart/anonymous"));
+        String cartToken = perform(post("/api/cart/anonymous/add").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productId\":" + products.get(2).getId() + ",\"quantity\":1}"))
+                .getResponse().getHeader(CartController.CART_TOKEN_HEADER);
+        cartToken = perform(put("/api/cart/anonymous/items/{productId}", products.get(2).getId())
+                .header(CartController.CART_TOKEN_HEADER, cartToken).param("quantity", "2"))
+                .getResponse().getHeader(CartController.CART_TOKEN_HEADER);
+        perform(get("/api/cart/anonymous").header(CartController.CART_TOKEN_HEADER, cartToken));
+        perform(get("/api/cart/anonymous/availability").header(CartController.CART_TOKEN_HEADER, cartToken));
+        perform(post("/api/cart/{userId}/merge", userId).header(CartController.CART_TOKEN_HEADER, cartToken));
+
+        // Orders
+        MockHttpServletRequestBuilder createOrder = post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString())
+                .content("{\"userId\":" + userId + "}");
+        Long orderId = id(perform(createOrder));
+        assertThat(id(perform(createOrder))).as("replayed order").isEqualTo(orderId);
+        perform(get("/api/orders/{orderId}", orderId));
+        perform(get("/api/orders/user/{userId}", buyer.getId()));
+        perform(put("/api/orders/{orderId}/status", orderId).param("status", "PROCESSING"));
+        perform(post("/api/orders/{orderId}/cancel", orderId));
+        perform(delete("/api/cart/{userId}/clear", userId));
+
+        // Payments
+        Long payableOrderId = orderRepository.findByUserIdOrderByCreatedAtDesc(buyer.getId()).get(0).getId();
+        perform(post("/api/payments/create").contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString())
+                .content("{\"orderId\":" + payableOrderId + "}"));
+        perform(get("/api/payments/order/{orderId}", payableOrderId));
+        perform(get("/api/payments/razorpay-key"));
+
+        Order webhookOrder = orderRepository.findByUserIdOrderByCreatedAtDesc(buyer.getId()).get(1);
+        Payment pending = new Payment();
+        pending.setOrder(webhookOrder);
+        pending.setAmount(webhookOrder.getTotalAmount());
+        pending.setCurrency("INR");
+        pending.setRazorpayOrderId("budget_" + UUID.randomUUID());
+        pending.setStatus(Payment.PaymentStatus.CREATED);
+        paymentRepository.save(pending);
+        perform(post("/api/webhooks/payment").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"razorpay_order_id\":\"" + pending.getRazorpayOrderId() +
+                        "\",\"razorpay_payment_id\":\"pay_budget\",\"razorpay_signature\":\"sig\"}"));
+
+        // Reports
+        perform(get("/api/reports/sales/daily"));
+        perform(get("/api/reports/sales/categories").param("from", "2024-01-01").param("to", "2024-12-31"));
+        performStreaming(get(ReportController.ORDER_EXPORT_PATH));
+        performStreaming(get(ReportController.ORDER_EXPORT_PATH).param("format", "ndjson"));
+
+        // Admin
+        perform(get("/api/admin/optimistic-locks"));
+        perform(get("/api/admin/slow-queries").param("explain", "true"));
+        perform(delete("/api/admin/slow-queries"));
+        perform(get("/api/admin/cache-stats"));
+        perform(get("/api/admin/hot-keys"));
+
+        assertThat(covered).containsExactlyInAnyOrderElementsOf(endpoints());
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        String call = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+        assertThat(result.getResponse().getStatus()).as("%s status", call).isBetween(200, 299);
+
+        Method method = ((HandlerMethod) result.getHandler()).getMethod();
+        QueryBudget budget = method.getAnnotation(QueryBudget.class);
+        assertThat(budget).as("%s declares a @QueryBudget", method).isNotNull();
+        assertThat(queryCount(result)).as("statements executed by %s", call).isLessThanOrEqualTo(budget.value());
+
+        covered.add(method);
+        return result;
+    }
+
+    /**
+     * A streamed body is written on an async thread after the controller returns, so it
+     * gets no query count header; the budget covers the statements run on the request thread.
+     */
+    private MvcResult performStreaming(MockHttpServletRequestBuilder request) throws Exception {
+        long before = queryCounter.current();
+        MvcResult started = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        long statements = queryCounter.current() - before;
+        String call = started.getRequest().getMethod() + " " + started.getRequest().getRequestURI();
+
+        Method method = ((HandlerMethod) started.getHandler()).getMethod();
+        QueryBudget budget = method.getAnnotation(QueryBudget.class);
+        assertThat(budget).as("%s declares a @QueryBudget", method).isNotNull();
+        assertThat(statements).as("statements executed by %s", call).isLessThanOrEqualTo(budget.value());
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+        assertThat(result.getResponse().getStatus()).as("%s status", call).isBetween(200, 299);
+        assertThat(result.getResponse().getContentAsString()).as("%s body", call).isNotEmpty();
+
+        covered.add(method);
+        return result;
+    }
+
+    private long queryCount(MvcResult result) {
+        String header = result.getResponse().getHeader(QueryCountHeaderAdvice.QUERY_COUNT_HEADER);
+        assertThat(header).as("%s header", QueryCountHeaderAdvice.QUERY_COUNT_HEADER).isNotNull();
+        return Long.parseLong(header);
+    }
+
+    private Long id(MvcResult result) throws Exception {
+        Number id = JsonPath.read(result.getResponse().getContentAsString(), "$.data.id");
+        return id.longValue();
+    }
+
+    private Set<Method> endpoints() {
+        return requestMappingHandlerMapping.getHandlerMethods().values().stream()
+                .map(HandlerMethod::getMethod)
+                .filter(method -> method.getDeclaringClass().getPackageName().equals(getClass().getPackageName()))
+                .collect(Collectors.toSet());
+    }
+
+    private List<Product> createProducts(int count) {
+        return java.util.stream.IntStream.range(0, count)
+                .mapToObj(i -> {
+                    Product product = new Product();
+                    product.setName("Budget Product " + i);
+                    product.setPrice(Money.ofMinor(10_000 + i * 100L));
+                    product.setStock(1000);
+                    product.setCategory("Budget");
+                    return productRepository.save(product);
+                })
+                .toList();
+    }
+
+    private User createUserWithOrders(List<Product> products, int orders) {
+        User user = new User();
+        user.setName("Budget Buyer");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setAddress("1 Budget Lane");
+        user = userRepository.save(user);
+
+        for (int i = 0; i < orders; i++) {
+            for (Product product : products) {
+                cartService.addToCart(new AddToCartRequest(user.getId(), product.getId(), 1));
+            }
+            orderService.createOrder(new CreateOrderRequest(user.getId(), null));
+        }
+        return user;
+    }
+}
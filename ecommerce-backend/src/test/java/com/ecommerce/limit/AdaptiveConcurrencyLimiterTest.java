@@ -0,0 +1,78 @@
+package com.ecommerce.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.abandon();
+        assertThat(limiter.getInflight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsWhileLatencyHoldsAndShrinksWhenRequestsQueue() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 100);
+
+        runAtLimit(limiter, 200, 10 * MS);
+        int grown = limiter.getLimit();
+        assertThat(grown).isGreaterThan(50);
+
+        runAtLimit(limiter, 5, 40 * MS);
+        assertThat(limiter.getLimit()).isLessThan(grown / 2);
+    }
+
+    @Test
+    void doesNotGrowWithoutLoad() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 100);
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(10 * MS, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void backsOffOnDropsDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 4, 100);
+
+        limiter.tryAcquire();
+        limiter.release(10 * MS, true);
+        assertThat(limiter.getLimit()).isEqualTo(18);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(10 * MS, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    /**
+     * Fills the limiter and completes every admitted request with the given latency,
+     * {@code rounds} times.
+     */
+    private static void runAtLimit(AdaptiveConcurrencyLimiter limiter, int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(rttNanos, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.limit;
+
+import com.ecommerce.controller.OrderController;
+import com.ecommerce.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the interceptor in front of a real write controller and a read controller, with
+ * both budgets pinned at one request in flight.
+ */
+class AdmissionControlInterceptorTest {
+
+    private final AdaptiveConcurrencyLimiter read = new AdaptiveConcurrencyLimiter("read", 1, 1, 1);
+    private final AdaptiveConcurrencyLimiter write = new AdaptiveConcurrencyLimiter("write", 1, 1, 1);
+
+    // The order controller has no services: admitted requests fail inside the handler
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new OrderController(null, null), new CatalogController())
+            .addInterceptors(new AdmissionControlInterceptor(read, write, 3, new SimpleMeterRegistry()))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void aFullWriteBudgetAnswers503WithRetryAfterWhileReadsKeepTheirOwn() throws Exception {
+        assertThat(write.tryAcquire()).isTrue();
+
+        mockMvc.perform(createOrder())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+        mockMvc.perform(get("/api/catalog"))
+                .andExpect(status().isOk());
+
+        assertThat(write.getInflight()).isEqualTo(1);
+        assertThat(read.getInflight()).isZero();
+    }
+
+    @Test
+    void releasesThePermitWhenTheHandlerThrows() throws Exception {
+        mockMvc.perform(createOrder()).andExpect(status().isInternalServerError());
+        assertThat(write.getInflight()).isZero();
+
+        // Admitted again rather than shed
+        mockMvc.perform(createOrder()).andExpect(status().isInternalServerError());
+        assertThat(write.getInflight()).isZero();
+    }
+
+    @Test
+    void releasesThePermitOnceWhenHandlingGoesAsync() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/catalog/async"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(read.getInflight()).as("released when the request thread is").isZero();
+
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        assertThat(read.getInflight()).as("the async dispatch is not admitted again").isZero();
+
+        mockMvc.perform(get("/api/catalog")).andExpect(status().isOk());
+        assertThat(read.getInflight()).isZero();
+    }
+
+    private static RequestBuilder createOrder() {
+        return post("/api/orders").contentType(MediaType.APPLICATION_JSON).content("{\"userId\":1}");
+    }
+
+    @RestController
+    static class CatalogController {
+
+        @GetMapping("/api/catalog")
+        String catalog() {
+            return "catalog";
+        }
+
+        @GetMapping("/api/catalog/async")
+        Callable<String> asyncCatalog() {
+            return () -> "catalog";
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.ecommerce.limit;
+
+import com.ecommerce.exception.TooManyRequestsException;
+import com.ecommerce.limit.RateLimiter.Scope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("rate-limit.endpoints.cart-add.rate", "2")
+            .withProperty("rate-limit.endpoints.cart-add.burst", "3");
+
+    @Test
+    void allowsABurstThenRefillsAtTheConfiguredRate() {
+        RateLimiter limiter = new RateLimiter(100, 60, 1000, 5, environment, new SimpleMeterRegistry());
+        long now = 0;
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("cart-add", Scope.USER, "7", now)).isZero();
+        }
+        assertThat(limiter.tryAcquire("cart-add", Scope.USER, "7", now)).isEqualTo(SECOND / 2);
+        assertThat(limiter.tryAcquire("cart-add", Scope.USER, "8", now)).as("other user").isZero();
+
+        now += SECOND / 2;
+        assertThat(limiter.tryAcquire("cart-add", Scope.USER, "7", now)).isZero();
+        assertThat(limiter.tryAcquire("cart-add", Scope.USER, "7", now)).isPositive();
+    }
+
+    @Test
+    void givesAddressesMoreRoomThanUsersAndFallsBackToTheDefaultLimit() {
+        RateLimiter limiter = new RateLimiter(100, 60, 1000, 5, environment, new SimpleMeterRegistry());
+
+        assertThat(acceptedInOneInstant(limiter, "cart-add", Scope.IP)).isEqualTo(15);
+        assertThat(acceptedInOneInstant(limiter, "order-update", Scope.USER)).isEqualTo(20);
+    }
+
+    @Test
+    void staysBoundedAndEvictsIdleBucketsOnTheSweepInterval() {
+        RateLimiter limiter = new RateLimiter(2, 60, 1000, 5, environment, new SimpleMeterRegistry());
+
+        limiter.tryAcquire("cart-add", Scope.USER, "1", 0);
+        limiter.tryAcquire("cart-add", Scope.USER, "2", 0);
+        assertThat(limiter.tryAcquire("cart-add", Scope.USER, "3", SECOND / 2)).as("overflow bucket").isZero();
+        assertThat(limiter.bucketCount()).as("no sweep before the full-map interval").isEqualTo(2);
+
+        limiter.tryAcquire("cart-add", Scope.USER, "3", 61 * SECOND);
+        assertThat(limiter.bucketCount()).isEqualTo(1);
+    }
+
+    @Test
+    void clientsBeyondTheBoundShareOneOverflowBucket() {
+        RateLimiter limiter = new RateLimiter(2, 60, 1000, 5, environment, new SimpleMeterRegistry());
+        limiter.tryAcquire("cart-add", Scope.USER, "1", 0);
+        limiter.tryAcquire("cart-add", Scope.USER, "2", 0);
+
+        // A client cycling through ids gets one burst between all of them
+        int accepted = 0;
+        for (int id = 3; id < 100; id++) {
+            if (limiter.tryAcquire("cart-add", Scope.USER, Integer.toString(id), 0) == 0) {
+                accepted++;
+            }
+        }
+        assertThat(accepted).isEqualTo(3);
+        assertThat(limiter.bucketCount()).isEqualTo(2);
+        assertThat(limiter.tryAcquire("cart-add", Scope.USER, "1", 0)).as("tracked client").isZero();
+    }
+
+    @Test
+    void aFloodOfIdsDoesNotLockOutNewcomersAfterOneSweep() {
+        RateLimiter limiter = new RateLimiter(10, 60, 1000, 5, environment, new SimpleMeterRegistry());
+        for (int id = 0; id < 1000; id++) {
+            limiter.tryAcquire("cart-add", Scope.USER, "flood-" + id, 0);
+        }
+        assertThat(limiter.tryAcquire("cart-add", Scope.USER, "fresh", 0)).as("overflow drained").isPositive();
+
+        // The flood's buckets have refilled, so the full map is swept long before the interval
+        assertThat(limiter.tryAcquire("cart-add", Scope.USER, "fresh", 2 * SECOND)).isZero();
+        assertThat(limiter.bucketCount()).isEqualTo(1);
+
+        for (int id = 1000; id < 2000; id++) {
+            limiter.tryAcquire("cart-add", Scope.USER, "flood-" + id, 2 * SECOND);
+        }
+        limiter.tryAcquire("cart-add", Scope.USER, "other", 2 * SECOND + SECOND / 2);
+        assertThat(limiter.bucketCount()).as("at most one early sweep per full-map interval").isEqualTo(10);
+        assertThat(limiter.tryAcquire("cart-add", Scope.USER, "fresh", 2 * SECOND + SECOND / 2)).as("tracked")
+                .isZero();
+    }
+
+    @Test
+    void rejectsWithRetryAfter() {
+        RateLimiter limiter = new RateLimiter(100, 60, 1000, 5, environment, new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("cart-add", Scope.USER, "7");
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("cart-add", Scope.USER, "7"))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(1));
+    }
+
+    private static int acceptedInOneInstant(RateLimiter limiter, String endpoint, Scope scope) {
+        int accepted = 0;
+        while (limiter.tryAcquire(endpoint, scope, "client", 0) == 0) {
+            accepted++;
+        }
+        return accepted;
+    }
+}
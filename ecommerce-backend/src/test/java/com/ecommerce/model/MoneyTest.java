@@ -0,0 +1,51 @@
+package com.ecommerce.model;
+
+import com.ecommerce.dto.CartResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void multipliesAndAddsInMinorUnits() {
+        Money price = Money.of("199.99");
+        assertThat(price.getMinorUnits()).isEqualTo(19_999);
+        assertThat(price.times(3).plus(Money.of("0.03"))).isEqualTo(Money.of("600.00"));
+        assertThat(Money.of(new BigDecimal("12.345")).toString()).isEqualTo("12.35");
+        assertThat(Money.of(new BigDecimal("7")).toBigDecimal()).isEqualTo(new BigDecimal("7.00"));
+        assertThat(Money.ofMinor(0)).isSameAs(Money.ZERO);
+    }
+
+    @Test
+    void keepsAmountsBeyondTheIntRangeOfPaise() {
+        // Five crore rupees: more paise than an int holds
+        Money total = Money.of("99999.99").times(500);
+        assertThat(total.getMinorUnits()).isEqualTo(4_999_999_500L);
+        assertThat(total.toBigDecimal()).isEqualByComparingTo("49999995.00");
+
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE / 2).times(3))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void mapsToTheDecimalColumnAndJsonNumber() throws Exception {
+        MoneyConverter converter = new MoneyConverter();
+        assertThat(converter.convertToDatabaseColumn(Money.of("2999.50"))).isEqualTo(new BigDecimal("2999.50"));
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("2999.50"))).isEqualTo(Money.ofMinor(299_950));
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        CartResponse cart = new CartResponse(7L, List.of(), Money.of("2999.50"), 1);
+        String json = objectMapper.writeValueAsString(cart);
+        assertThat(json).contains("\"totalAmount\":2999.50");
+        assertThat(objectMapper.readValue(json, CartResponse.class).getTotalAmount()).isEqualTo(Money.of("2999.50"));
+    }
+}
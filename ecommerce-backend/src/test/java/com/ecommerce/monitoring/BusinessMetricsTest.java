@@ -0,0 +1,138 @@
+package com.ecommerce.monitoring;
+
+import com.ecommerce.dto.AddToCartRequest;
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.OrderDTO;
+import com.ecommerce.dto.PaymentCallbackRequest;
+import com.ecommerce.exception.PaymentException;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Payment;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.PaymentRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.OrderService;
+import com.ecommerce.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Places orders and processes payment callbacks through the services and reads the
+ * business meters back from the application's registry.
+ */
+@SpringBootTest
+class BusinessMetricsTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Value("${razorpay.key.secret}")
+    private String razorpayKeySecret;
+
+    @Test
+    void ordersPlacedAreCountedPerCheckoutPathWithTheirItemCount() {
+        double orders = counter("orders.placed", "path", "jpa");
+        long summaries = meterRegistry.summary("orders.placed.items", "path", "jpa").count();
+        double items = meterRegistry.summary("orders.placed.items", "path", "jpa").totalAmount();
+
+        placeOrder(2);
+
+        assertThat(counter("orders.placed", "path", "jpa")).isEqualTo(orders + 1);
+        assertThat(meterRegistry.summary("orders.placed.items", "path", "jpa").count()).isEqualTo(summaries + 1);
+        assertThat(meterRegistry.summary("orders.placed.items", "path", "jpa").totalAmount()).isEqualTo(items + 2);
+    }
+
+    @Test
+    void paymentCallbacksAreCountedByOutcomeAndTheirLagTimed() throws Exception {
+        double succeeded = counter("payments.completed", "outcome", "succeeded");
+        double failed = counter("payments.completed", "outcome", "failed");
+        long lags = meterRegistry.get("payments.webhook.lag").timer().count();
+
+        Payment valid = pendingPayment(placeOrder(1));
+        paymentService.processPaymentCallback(new PaymentCallbackRequest(valid.getRazorpayOrderId(), "pay_metrics",
+                sign(valid.getRazorpayOrderId() + "|pay_metrics")));
+        Payment forged = pendingPayment(placeOrder(1));
+        assertThatThrownBy(() -> paymentService.processPaymentCallback(
+                new PaymentCallbackRequest(forged.getRazorpayOrderId(), "pay_forged", "bad-signature")))
+                .isInstanceOf(PaymentException.class);
+
+        assertThat(counter("payments.completed", "outcome", "succeeded")).isEqualTo(succeeded + 1);
+        assertThat(counter("payments.completed", "outcome", "failed")).isEqualTo(failed + 1);
+        assertThat(meterRegistry.get("payments.webhook.lag").timer().count()).isEqualTo(lags + 2);
+    }
+
+    private double counter(String name, String tag, String value) {
+        return meterRegistry.counter(name, tag, value).count();
+    }
+
+    private OrderDTO placeOrder(int products) {
+        User user = new User();
+        user.setName("Metrics Buyer");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setAddress("1 Metrics Way");
+        user = userRepository.save(user);
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setName("Metrics Product " + i);
+            product.setPrice(Money.of("12.50"));
+            product.setStock(10);
+            product = productRepository.save(product);
+            cartService.addToCart(new AddToCartRequest(user.getId(), product.getId(), 1));
+        }
+        return orderService.createOrder(new CreateOrderRequest(user.getId(), null));
+    }
+
+    private Payment pendingPayment(OrderDTO placed) {
+        Order order = orderRepository.findById(placed.getId()).orElseThrow();
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setAmount(order.getTotalAmount());
+        payment.setCurrency("INR");
+        payment.setRazorpayOrderId("metrics_" + UUID.randomUUID());
+        payment.setStatus(Payment.PaymentStatus.CREATED);
+        return paymentRepository.save(payment);
+    }
+
+    private String sign(String payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(razorpayKeySecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.monitoring;
+
+import com.ecommerce.dto.CacheStatsDTO;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CacheStatisticsTest {
+
+    @Autowired
+    private CacheStatistics cacheStatistics;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Test
+    void servesRepeatedLookupsFromTheCacheAndSeesWrites() {
+        String category = "Cache-" + UUID.randomUUID();
+        Product product = new Product();
+        product.setName("Cached Product");
+        product.setPrice(Money.of("10.00"));
+        product.setStock(5);
+        product.setCategory(category);
+        Long id = productRepository.save(product).getId();
+
+        assertThat(productRepository.findByCategory(category)).hasSize(1);
+        long hitsBefore = hits("com.ecommerce.model.Product");
+        long queriesBefore = queryCounter.current();
+
+        assertThat(productRepository.findById(id)).isPresent();
+        assertThat(productRepository.findByCategory(category)).hasSize(1);
+
+        assertThat(queryCounter.current()).isEqualTo(queriesBefore);
+        assertThat(hits("com.ecommerce.model.Product")).isGreaterThan(hitsBefore);
+
+        Product updated = productRepository.findById(id).orElseThrow();
+        updated.setStock(7);
+        productRepository.save(updated);
+        Product second = new Product();
+        second.setName("Second Cached Product");
+        second.setPrice(Money.of("12.00"));
+        second.setStock(1);
+        second.setCategory(category);
+        productRepository.save(second);
+
+        assertThat(productRepository.findById(id).orElseThrow().getStock()).isEqualTo(7);
+        assertThat(productRepository.findByCategory(category)).hasSize(2);
+    }
+
+    private long hits(String region) {
+        return cacheStatistics.getRegionStats().stream()
+                .filter(stats -> stats.getRegion().equals(region))
+                .mapToLong(CacheStatsDTO::getHits)
+                .sum();
+    }
+}
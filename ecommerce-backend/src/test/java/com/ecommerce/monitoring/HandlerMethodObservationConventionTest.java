@@ -0,0 +1,53 @@
+package com.ecommerce.monitoring;
+
+import com.ecommerce.controller.OrderController;
+import io.micrometer.common.KeyValue;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HandlerMethodObservationConventionTest {
+
+    private final HandlerMethodObservationConvention convention = new HandlerMethodObservationConvention();
+
+    @Test
+    void tagsRequestsWithTheControllerMethod() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        Method createOrder = Arrays.stream(OrderController.class.getMethods())
+                .filter(method -> method.getName().equals("createOrder"))
+                .findFirst()
+                .orElseThrow();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Object(), createOrder) {
+                    @Override
+                    public Class<?> getBeanType() {
+                        return OrderController.class;
+                    }
+                });
+
+        assertThat(convention.getLowCardinalityKeyValues(context(request)))
+                .contains(KeyValue.of("handler", "OrderController.createOrder"))
+                .extracting(KeyValue::getKey)
+                .contains("method", "uri", "status", "outcome");
+    }
+
+    @Test
+    void tagsRequestsWithoutAHandlerMethodAsNone() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/missing");
+
+        assertThat(convention.getLowCardinalityKeyValues(context(request)))
+                .contains(KeyValue.of("handler", "none"));
+    }
+
+    private static ServerRequestObservationContext context(MockHttpServletRequest request) {
+        return new ServerRequestObservationContext(request, new MockHttpServletResponse());
+    }
+}
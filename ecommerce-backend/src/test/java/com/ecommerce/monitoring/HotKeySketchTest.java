@@ -0,0 +1,64 @@
+package com.ecommerce.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HotKeySketchTest {
+
+    @Test
+    void findsTheHeavyHittersAmongManyColdKeys() {
+        HotKeySketch<Long> sketch = new HotKeySketch<>(4, 1024, 5);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // Keys 1 to 5 take half of the traffic, 50,000 other keys share the rest
+            long key = i % 2 == 0 ? 1 + random.nextInt(5) : 1_000 + random.nextInt(50_000);
+            sketch.record(key);
+        }
+
+        List<Map.Entry<Long, Long>> top = sketch.top();
+        assertThat(top).extracting(Map.Entry::getKey).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+        assertThat(top).extracting(Map.Entry::getValue).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+        assertThat(sketch.isHot(3L)).isTrue();
+        assertThat(sketch.isHot(1_500L)).isFalse();
+        // Collisions only ever add to an estimate
+        assertThat(sketch.estimate(1L)).isGreaterThanOrEqualTo(9_000);
+        assertThat(sketch.estimate(999_999L)).isLessThan(500);
+    }
+
+    @Test
+    void decayLetsNewlyHotKeysTakeOver() {
+        HotKeySketch<String> sketch = new HotKeySketch<>(4, 256, 2);
+        sketch.record("old sale", 1_000);
+        sketch.record("boots", 600);
+
+        sketch.decay();
+        assertThat(sketch.estimate("old sale")).isEqualTo(500);
+        for (int i = 0; i < 700; i++) {
+            sketch.record("umbrella");
+        }
+        for (int i = 0; i < 10; i++) {
+            sketch.decay();
+        }
+
+        assertThat(sketch.top()).isEmpty();
+        sketch.record("umbrella");
+        assertThat(sketch.top()).extracting(Map.Entry::getKey).containsExactly("umbrella");
+    }
+
+    @Test
+    void keepsAtMostCapacityKeys() {
+        HotKeySketch<Integer> sketch = new HotKeySketch<>(2, 64, 3);
+        for (int key = 0; key < 10; key++) {
+            sketch.record(key, key + 1);
+        }
+        assertThat(sketch.top()).extracting(Map.Entry::getKey).containsExactly(9, 8, 7);
+
+        assertThatThrownBy(() -> new HotKeySketch<Integer>(2, 100, 3)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+class PhaseRecordingAnalyzerTest {
+
+    @Test
+    void summarizesPhasesRecordedWithTheProfile(@TempDir Path tempDir) throws Exception {
+        Configuration profile;
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/jfr/ecommerce.jfc"), StandardCharsets.UTF_8)) {
+            profile = Configuration.create(reader);
+        }
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PhaseTracer phaseTracer = new PhaseTracer(meterRegistry);
+        Path file = tempDir.resolve("checkout.jfr");
+
+        try (Recording recording = new Recording(profile)) {
+            recording.start();
+            for (long orderId = 1; orderId <= 5; orderId++) {
+                PhaseTrace trace = phaseTracer.checkout().userId(7L).itemCount(3);
+                Thread.sleep(2);
+                trace.phase("validate_stock");
+                trace.orderId(orderId).phase("persist_order");
+            }
+            phaseTracer.paymentCallback().orderId(1L).phase("load_payment");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<PhaseRecordingAnalyzer.PhaseSummary> summaries = PhaseRecordingAnalyzer.summarize(file);
+
+        assertThat(summaries).extracting(PhaseRecordingAnalyzer.PhaseSummary::operation,
+                        PhaseRecordingAnalyzer.PhaseSummary::phase, PhaseRecordingAnalyzer.PhaseSummary::count)
+                .containsExactly(
+                        tuple("checkout", "persist_order", 5),
+                        tuple("checkout", "validate_stock", 5),
+                        tuple("payment_callback", "load_payment", 1));
+        assertThat(summaries.get(1).p50Nanos()).isGreaterThanOrEqualTo(2_000_000L);
+        assertThat(meterRegistry.get("checkout.phase").tag("phase", "validate_stock").timer().count())
+                .isEqualTo(5);
+    }
+}
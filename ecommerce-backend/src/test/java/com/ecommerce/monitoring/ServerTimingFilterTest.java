@@ -0,0 +1,84 @@
+package com.ecommerce.monitoring;
+
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = {"monitoring.server-timing.enabled=true", "monitoring.server-timing.slow-threshold-ms=0"})
+@AutoConfigureMockMvc
+class ServerTimingFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void breaksDownCartRequestsByLayer() throws Exception {
+        User user = new User();
+        user.setName("Timing User");
+        user.setEmail("timing-" + UUID.randomUUID() + "@example.com");
+        user = userRepository.save(user);
+
+        Product product = new Product();
+        product.setName("Timing Product");
+        product.setPrice(Money.of("10.00"));
+        product.setStock(10);
+        product.setCategory("Timing");
+        product = productRepository.save(product);
+
+        String addHeader = mockMvc.perform(post("/api/cart/add")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + user.getId() + ",\"productId\":" + product.getId()
+                                + ",\"quantity\":2}"))
+                .andReturn().getResponse().getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+        String getHeader = mockMvc.perform(get("/api/cart/" + user.getId()))
+                .andReturn().getResponse().getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+
+        Map<String, Double> add = parse(addHeader);
+        Map<String, Double> cart = parse(getHeader);
+
+        assertThat(cart).containsOnlyKeys("controller", "service", "db", "flush", "serialize", "total");
+        assertThat(cart.get("service")).isPositive().isLessThanOrEqualTo(cart.get("controller"));
+        assertThat(cart.get("db")).isPositive().isLessThanOrEqualTo(cart.get("service"));
+        assertThat(cart.get("serialize")).isPositive();
+        assertThat(cart.get("controller")).isLessThanOrEqualTo(cart.get("total"));
+        // The user comes from the second-level cache; only the cart lines are queried
+        assertThat(getHeader).contains("desc=\"1 statements\"");
+        assertThat(add.get("flush")).isPositive();
+    }
+
+    private static Map<String, Double> parse(String header) {
+        assertThat(header).isNotNull();
+        Map<String, Double> durations = new HashMap<>();
+        for (String metric : header.split(",\\s*")) {
+            String[] parts = metric.split(";");
+            for (String part : parts) {
+                if (part.startsWith("dur=")) {
+                    durations.put(parts[0], Double.parseDouble(part.substring(4)));
+                }
+            }
+        }
+        return durations;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecommerce.monitoring;
+
+import com.ecommerce.dto.SlowQueryDTO;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.assertj.core.util.introspection.PropertyOrFieldSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"monitoring.slow-query.threshold-ms=0", "monitoring.slow-query.capture-parameters=true",
+        "monitoring.slow-query.explain-enabled=true"})
+class SlowQueryRecorderTest {
+
+    @Autowired
+    private SlowQueryRecorder slowQueryRecorder;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recordsBindsRowsAndRepositoryMethod() {
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setName("Slow Query Product " + i);
+            product.setPrice(Money.of("10.00"));
+            product.setStock(5);
+            product.setCategory("SlowQuery");
+            productRepository.save(product);
+        }
+        slowQueryRecorder.clear();
+
+        productRepository.findByCategory("SlowQuery");
+        jdbcTemplate.update("update products set stock = stock + 1 where category = ?", "SlowQuery");
+
+        List<SlowQueryDTO> entries = slowQueryRecorder.getSlowQueries(true);
+        assertThat(entries).hasSize(2);
+
+        SlowQueryDTO update = entries.get(0);
+        assertThat(update.getSql()).startsWith("update products");
+        assertThat(update.getRows()).isEqualTo(3);
+        assertThat(update.getRepositoryMethod()).isNull();
+        // Issued from this test, in the monitoring package, so there is no application frame
+        assertThat(update.getCaller()).isEqualTo("unknown");
+
+        SlowQueryDTO select = entries.get(1);
+        assertThat(select.getId()).isLessThan(update.getId());
+        assertThat(select.getRepositoryMethod()).isEqualTo("ProductRepository.findByCategory");
+        assertThat(select.getParameters()).containsExactly(List.of("SlowQuery"));
+        assertThat(select.getRows()).isEqualTo(3);
+        assertThat(select.getTotalMs()).isGreaterThanOrEqualTo(select.getExecuteMs());
+        assertThat(select.getPlan()).containsIgnoringCase("idx_products_category");
+    }
+
+    @Test
+    void keepsNoBindValuesWithCaptureAndExplainOff() throws Exception {
+        SlowQueryRecorder recorder = new SlowQueryRecorder(0, 10, false, false,
+                new StaticListableBeanFactory().getBeanProvider(DataSource.class), new SimpleMeterRegistry());
+        QueryInfo query = new QueryInfo("update users set address = ? where id = ?");
+        query.getParametersList().add(List.of(
+                new ParameterSetOperation(PreparedStatement.class.getMethod("setString", int.class, String.class),
+                        new Object[]{1, "1 Private Road"}),
+                new ParameterSetOperation(PreparedStatement.class.getMethod("setLong", int.class, long.class),
+                        new Object[]{2, 42L})));
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setSuccess(true);
+        execution.setResult(1);
+
+        recorder.beforeQuery(execution, List.of(query));
+        recorder.afterQuery(execution, List.of(query));
+
+        assertThat(recorder.getSlowQueries(true)).singleElement().satisfies(entry -> {
+            assertThat(entry.getParameters()).isEmpty();
+            assertThat(entry.getPlan()).isNull();
+        });
+        AtomicReferenceArray<?> buffer = (AtomicReferenceArray<?>) PropertyOrFieldSupport.EXTRACTION
+                .getValueOf("buffer", recorder);
+        assertThat(buffer.get(0))
+                .extracting("parameterOperations", "parameters")
+                .containsExactly(List.of(), List.of());
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.popularity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrentLongMapTest {
+
+    private static final int THREADS = 8;
+    private static final int KEYS = 10_000;
+
+    @Test
+    void racingInsertsCreateOneValuePerKeyWhileTheTableGrows() throws Exception {
+        ConcurrentLongMap<Object> map = new ConcurrentLongMap<>(16);
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Map<Long, Object>>> seen = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            seen.add(executor.submit(() -> {
+                start.await();
+                Map<Long, Object> values = new HashMap<>();
+                for (long key = 0; key < KEYS; key++) {
+                    values.put(key, map.computeIfAbsent(key * 7919, k -> {
+                        created.incrementAndGet();
+                        return new Object();
+                    }));
+                }
+                return values;
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+
+        Map<Long, Object> first = seen.get(0).get(30, TimeUnit.SECONDS);
+        for (Future<Map<Long, Object>> values : seen) {
+            assertThat(values.get(30, TimeUnit.SECONDS)).isEqualTo(first);
+        }
+        assertThat(created).hasValue(KEYS);
+        assertThat(map.size()).isEqualTo(KEYS);
+        assertThat(map.get(7919L * 42)).isSameAs(first.get(42L));
+        assertThat(map.get(-1)).isNull();
+
+        AtomicInteger visited = new AtomicInteger();
+        map.forEach((key, value) -> {
+            assertThat(value).isSameAs(first.get(key / 7919));
+            visited.incrementAndGet();
+        });
+        assertThat(visited).hasValue(KEYS);
+    }
+
+    @Test
+    void rejectsTheReservedKey() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>(4);
+        assertThatThrownBy(() -> map.computeIfAbsent(Long.MIN_VALUE, key -> "x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.ecommerce.popularity;
+
+import com.ecommerce.dto.ProductPopularityDTO;
+import com.ecommerce.exception.BadRequestException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProductPopularityServiceTest {
+
+    // Counters need no product row, so ids far above the test data keep this test's rankings apart
+    private static final long TRENDING = 9_100_001L;
+    private static final long STEADY = 9_100_002L;
+    private static final long NICHE = 9_100_003L;
+
+    @Autowired
+    private ProductPopularityService popularityService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void countsAreAddedToTheStoredRowsAsDeltas() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8_000; i++) {
+            executor.execute(() -> popularityService.productViewed(TRENDING));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        popularityService.addedToCart(TRENDING);
+        popularityService.sold(TRENDING, 3);
+        popularityService.flush();
+
+        assertThat(storedCounts(TRENDING)).containsEntry("VIEW_COUNT", 8_000L)
+                .containsEntry("CART_ADD_COUNT", 1L).containsEntry("UNITS_SOLD", 3L);
+
+        // Another instance adding to the same row is not overwritten
+        jdbcTemplate.update("UPDATE product_popularity SET view_count = view_count + 500 WHERE product_id = ?", TRENDING);
+        popularityService.productViewed(TRENDING);
+        popularityService.flush();
+        assertThat(storedCounts(TRENDING)).containsEntry("VIEW_COUNT", 8_501L);
+
+        // A restart starts from the stored counts
+        ProductPopularityService restarted =
+                new ProductPopularityService(jdbcTemplate, transactionManager, new SimpleMeterRegistry());
+        assertThat(restarted.getMostViewed(ProductPopularityService.MAX_LIMIT))
+                .filteredOn(top -> top.getProductId() == TRENDING).singleElement().satisfies(top -> {
+            assertThat(top.getProductId()).isEqualTo(TRENDING);
+            assertThat(top.getViewCount()).isEqualTo(8_501L);
+            assertThat(top.getUnitsSold()).isEqualTo(3L);
+        });
+    }
+
+    @Test
+    void ranksProductsFromMemory() {
+        for (int i = 0; i < 9_000; i++) {
+            popularityService.productViewed(STEADY);
+        }
+        for (int i = 0; i < 9_500; i++) {
+            popularityService.productViewed(NICHE);
+        }
+        popularityService.sold(STEADY, 4_000);
+        popularityService.sold(NICHE, 3_000);
+
+        assertThat(popularityService.getMostViewed(2)).extracting(ProductPopularityDTO::getProductId)
+                .containsExactly(NICHE, STEADY);
+        assertThat(popularityService.getBestSelling(2)).extracting(ProductPopularityDTO::getProductId)
+                .containsExactly(STEADY, NICHE);
+        assertThatThrownBy(() -> popularityService.getMostViewed(0)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> popularityService.getBestSelling(ProductPopularityService.MAX_LIMIT + 1))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private Map<String, Object> storedCounts(long productId) {
+        return jdbcTemplate.queryForMap(
+                "SELECT view_count, cart_add_count, units_sold FROM product_popularity WHERE product_id = ?", productId);
+    }
+}
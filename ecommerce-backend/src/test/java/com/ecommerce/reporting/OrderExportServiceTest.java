@@ -0,0 +1,170 @@
+package com.ecommerce.reporting;
+
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class OrderExportServiceTest {
+
+    // Far from any order other tests place
+    private static final LocalDate DAY = LocalDate.of(2001, 2, 3);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void exportsEveryOrderInTheRangeAcrossPages() throws Exception {
+        User user = createUser();
+        Product product = createProduct();
+        LocalDateTime noon = DAY.atTime(12, 0);
+        // Two orders share a timestamp, so a page boundary falls between equal created_at values
+        long first = insertOrder(user, noon, "1 Export Lane", product, 2);
+        long second = insertOrder(user, noon, "2 Export Lane, \"Annex\"", product, 1);
+        long third = insertOrder(user, noon.plusHours(1), "3 Export Lane", null, 0);
+        insertOrder(user, DAY.plusDays(1).atStartOfDay(), "Next day", product, 1);
+
+        List<String> rows = text(export(DAY, DAY, ExportFormat.CSV)).lines().toList();
+
+        assertThat(rows).hasSize(4);
+        assertThat(rows.get(0)).isEqualTo(OrderExportService.CSV_HEADER);
+        assertThat(rows.get(1)).isEqualTo(first + "," + noon + "," + user.getId() + ",PENDING,20.00,1 Export Lane,"
+                + product.getId() + ",2,10.00,20.00");
+        assertThat(rows.get(2)).startsWith(second + ",").contains(",\"2 Export Lane, \"\"Annex\"\"\",");
+        assertThat(rows.get(3)).startsWith(third + ",").endsWith(",3 Export Lane,,,,");
+    }
+
+    @Test
+    void pagesByCreatedAtEvenWhenIdsRunTheOtherWay() throws Exception {
+        LocalDate day = DAY.plusDays(20);
+        User user = createUser();
+        // Inserted latest first, so each later order has a smaller id than the ones before it
+        long noon = insertOrder(user, day.atTime(12, 0), "Reverse Lane", null, 0);
+        long eleven = insertOrder(user, day.atTime(11, 0), "Reverse Lane", null, 0);
+        long ten = insertOrder(user, day.atTime(10, 0), "Reverse Lane", null, 0);
+        long nine = insertOrder(user, day.atTime(9, 0), "Reverse Lane", null, 0);
+
+        List<String> rows = text(export(day, day, ExportFormat.CSV)).lines().skip(1).toList();
+
+        assertThat(rows).extracting(row -> Long.parseLong(row.substring(0, row.indexOf(','))))
+                .containsExactly(nine, ten, eleven, noon);
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerOrderWithItsItems() throws Exception {
+        LocalDate day = DAY.plusDays(10);
+        User user = createUser();
+        Product product = createProduct();
+        long withItem = insertOrder(user, day.atTime(9, 0), "Json Lane", product, 3);
+        long withoutItems = insertOrder(user, day.atTime(10, 0), "Json Lane", null, 0);
+
+        List<String> lines = text(export(day, day, ExportFormat.NDJSON)).lines().toList();
+
+        assertThat(lines).hasSize(2);
+        JsonNode order = objectMapper.readTree(lines.get(0));
+        assertThat(order.get("id").asLong()).isEqualTo(withItem);
+        assertThat(order.get("totalAmount").decimalValue()).isEqualByComparingTo("30.00");
+        assertThat(order.get("items")).hasSize(1);
+        assertThat(order.get("items").get(0).get("quantity").asInt()).isEqualTo(3);
+        JsonNode empty = objectMapper.readTree(lines.get(1));
+        assertThat(empty.get("id").asLong()).isEqualTo(withoutItems);
+        assertThat(empty.get("items")).isEmpty();
+    }
+
+    @Test
+    void rejectsAnInvertedRangeAndUnknownFormats() {
+        assertThatThrownBy(() -> export(DAY, DAY.minusDays(1), ExportFormat.CSV))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> ExportFormat.parse("xml")).isInstanceOf(BadRequestException.class);
+        assertThat(ExportFormat.parse("NdJson")).isEqualTo(ExportFormat.NDJSON);
+    }
+
+    private byte[] export(LocalDate from, LocalDate to, ExportFormat format) throws Exception {
+        // Pages of two orders, so every test crosses a page boundary
+        OrderExportService service = new OrderExportService(dataSource, objectMapper, new SimpleMeterRegistry(), 2, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(from, to, format, out);
+        return out.toByteArray();
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long insertOrder(User user, LocalDateTime createdAt, String address, Product product, int quantity) {
+        Money unitPrice = Money.of("10.00");
+        Money total = product != null ? unitPrice.times(quantity) : Money.ZERO;
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO orders (user_id, total_amount, status, shipping_address, version, created_at) " +
+                    "VALUES (?, ?, 'PENDING', ?, 0, ?)", Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, user.getId());
+            ps.setBigDecimal(2, total.toBigDecimal());
+            ps.setString(3, address);
+            ps.setTimestamp(4, Timestamp.valueOf(createdAt));
+            return ps;
+        }, keys);
+        long orderId = keys.getKey().longValue();
+        if (product != null) {
+            jdbcTemplate.update("INSERT INTO order_items (order_id, product_id, quantity, unit_price, subtotal) " +
+                    "VALUES (?, ?, ?, ?, ?)", orderId, product.getId(), quantity, unitPrice.toBigDecimal(),
+                    total.toBigDecimal());
+        }
+        return orderId;
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Export Buyer");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        return userRepository.save(user);
+    }
+
+    private Product createProduct() {
+        Product product = new Product();
+        product.setName("Export Product");
+        product.setPrice(Money.of("10.00"));
+        product.setStock(100);
+        product.setCategory("Export");
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommerce.reporting;
+
+import com.ecommerce.dto.CategorySalesDTO;
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.DailySalesDTO;
+import com.ecommerce.dto.OrderDTO;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.JdbcCheckoutService;
+import com.ecommerce.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SalesRollupServiceTest {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcCheckoutService jdbcCheckoutService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void ordersPlacedPaidAndCancelledUpdateTheRollups() {
+        LocalDate today = LocalDate.now();
+        // A category of its own keeps other tests' orders out of the category figures
+        String category = "Rollup " + UUID.randomUUID();
+        Product lamp = createProduct(category, "100.00", 10);
+        DailySalesDTO before = today(today);
+
+        User jpaBuyer = createUser();
+        addToCart(jpaBuyer, lamp, 3);
+        OrderDTO jpaOrder = orderService.createOrder(new CreateOrderRequest(jpaBuyer.getId(), null));
+        User jdbcBuyer = createUser();
+        addToCart(jdbcBuyer, lamp, 1);
+        OrderDTO jdbcOrder = jdbcCheckoutService.createOrder(new CreateOrderRequest(jdbcBuyer.getId(), null));
+
+        orderService.updateOrderStatus(jpaOrder.getId(), Order.OrderStatus.PAID);
+        orderService.updateOrderStatus(jpaOrder.getId(), Order.OrderStatus.PAID);
+        orderService.cancelOrder(jdbcOrder.getId());
+
+        DailySalesDTO after = today(today);
+        assertThat(after.getOrdersPlaced() - before.getOrdersPlaced()).isEqualTo(2);
+        assertThat(after.getOrdersPaid() - before.getOrdersPaid()).isEqualTo(1);
+        assertThat(after.getOrdersCancelled() - before.getOrdersCancelled()).isEqualTo(1);
+        assertThat(after.getUnitsSold() - before.getUnitsSold()).isEqualTo(4);
+        assertThat(after.getRevenue().getMinorUnits() - before.getRevenue().getMinorUnits()).isEqualTo(40_000);
+        assertThat(after.getPaidRevenue().getMinorUnits() - before.getPaidRevenue().getMinorUnits()).isEqualTo(30_000);
+        assertThat(after.getNetRevenue().getMinorUnits() - before.getNetRevenue().getMinorUnits()).isEqualTo(30_000);
+
+        CategorySalesDTO lamps = category(salesRollupService, today, category);
+        assertThat(lamps.getUnitsSold()).isEqualTo(4);
+        assertThat(lamps.getUnitsCancelled()).isEqualTo(1);
+        assertThat(lamps.getRevenue()).isEqualTo(Money.of("400.00"));
+        assertThat(lamps.getNetRevenue()).isEqualTo(Money.of("300.00"));
+
+        // Flushed as deltas, and a restart answers from the stored rollups
+        salesRollupService.flush();
+        Map<String, Object> stored = jdbcTemplate.queryForMap(
+                "SELECT units_sold, units_cancelled FROM sales_by_category WHERE sales_date = ? AND category = ?",
+                today, category);
+        assertThat(stored).containsEntry("UNITS_SOLD", 4L).containsEntry("UNITS_CANCELLED", 1L);
+        SalesRollupService restarted =
+                new SalesRollupService(jdbcTemplate, transactionManager, new SimpleMeterRegistry());
+        assertThat(category(restarted, today, category)).usingRecursiveComparison().isEqualTo(lamps);
+    }
+
+    @Test
+    void rejectsReversedAndOverlongRanges() {
+        LocalDate today = LocalDate.now();
+        assertThatThrownBy(() -> salesRollupService.getDailySales(today, today.minusDays(1)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> salesRollupService.getSalesByCategory(today.minusYears(2), today))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(salesRollupService.getDailySales(today.plusDays(1), today.plusDays(7))).isEmpty();
+    }
+
+    private DailySalesDTO today(LocalDate today) {
+        return salesRollupService.getDailySales(today, today).stream().findFirst()
+                .orElse(new DailySalesDTO(today, 0, 0, 0, 0, 0, Money.ZERO, Money.ZERO, Money.ZERO, Money.ZERO));
+    }
+
+    private static CategorySalesDTO category(SalesRollupService service, LocalDate today, String category) {
+        return service.getSalesByCategory(today, today).stream()
+                .filter(sales -> sales.getCategory().equals(category))
+                .findFirst().orElseThrow();
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Rollup Tester");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setAddress("1 Report Road");
+        return userRepository.save(user);
+    }
+
+    private Product createProduct(String category, String price, int stock) {
+        Product product = new Product();
+        product.setName("Rollup Lamp");
+        product.setPrice(Money.of(price));
+        product.setStock(stock);
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+
+    private void addToCart(User user, Product product, int quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setUser(user);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        cartItemRepository.save(cartItem);
+    }
+}
@@ -0,0 +1,178 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every query method declared in {@code com.ecommerce.repository}, captures the
+ * SQL Hibernate sends and fails when H2's {@code EXPLAIN} shows a table scan.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.ecommerce.repository.RepositoryQueryPlanTest$CapturingStatementInspector")
+class RepositoryQueryPlanTest {
+
+    // Queries that cannot use a B-tree index by design
+    private static final Map<String, String> ALLOWED_SCANS = Map.of(
+            "ProductRepository.findByNameContainingIgnoreCase", "leading-wildcard LIKE on upper(name)",
+            "ProductRepository.findByStockGreaterThan", "matches most of the catalog; an index would not be chosen");
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        Repositories repositories = new Repositories(applicationContext);
+        List<String> violations = new ArrayList<>();
+        int checked = 0;
+
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRepositoryInformationFor(domainType).orElseThrow();
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+
+            for (Method method : information.getQueryMethods()) {
+                if (!method.getDeclaringClass().getPackageName().equals(getClass().getPackageName())) {
+                    continue;
+                }
+                String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+                if (ALLOWED_SCANS.containsKey(name)) {
+                    continue;
+                }
+
+                List<String> statements = captureStatements(repository, method);
+                assertThat(statements).as("SQL issued by %s", name).isNotEmpty();
+                for (String sql : statements) {
+                    String plan = explain(sql);
+                    if (plan.contains(".tableScan")) {
+                        violations.add(name + " -> " + plan);
+                    }
+                }
+                checked++;
+            }
+        }
+
+        assertThat(checked).isGreaterThan(20);
+        assertThat(violations).as("Repository queries falling back to a full table scan").isEmpty();
+    }
+
+    private List<String> captureStatements(Object repository, Method method) {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            Object[] args = sampleArguments(method);
+            CapturingStatementInspector.STATEMENTS.clear();
+            try {
+                method.invoke(repository, args);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not invoke " + method, e);
+            }
+            return List.copyOf(CapturingStatementInspector.STATEMENTS);
+        });
+    }
+
+    private Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = sampleValue(types[i]);
+        }
+        return args;
+    }
+
+    private Object sampleValue(Class<?> type) {
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == String.class) {
+            return "sample";
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(1L, 2L);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == Order.OrderStatus.class) {
+            return Order.OrderStatus.PENDING;
+        }
+        if (type == User.class) {
+            User user = new User();
+            user.setName("Plan Tester");
+            user.setEmail(UUID.randomUUID() + "@example.com");
+            return userRepository.save(user);
+        }
+        if (type == Product.class) {
+            Product product = new Product();
+            product.setName("Plan Product");
+            product.setPrice(Money.of("1.00"));
+            product.setStock(1);
+            return productRepository.save(product);
+        }
+        throw new IllegalArgumentException("No sample value for " + type);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, 1);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        });
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (!sql.stripLeading().toLowerCase().startsWith("insert")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
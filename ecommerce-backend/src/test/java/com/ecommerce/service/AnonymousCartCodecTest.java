@@ -0,0 +1,100 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnonymousCartCodecTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final AnonymousCartCodec codec = new AnonymousCartCodec(SECRET, 3);
+
+    @Test
+    void roundTripsACartAndEncodesEqualCartsEqually() {
+        Map<Long, Integer> cart = Map.of(42L, 1, 7L, 300, 1_000_000_000_000L, Integer.MAX_VALUE);
+
+        String token = codec.encode(cart);
+
+        assertThat(codec.decode(token)).containsExactlyInAnyOrderEntriesOf(cart);
+        assertThat(codec.encode(codec.decode(token))).isEqualTo(token);
+        assertThat(codec.decode(null)).isEmpty();
+        assertThat(codec.decode(" ")).isEmpty();
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherSecretOrAltered() {
+        String token = codec.encode(Map.of(42L, 1));
+        AnonymousCartCodec other = new AnonymousCartCodec(SECRET.replace('0', 'x'), 3);
+        assertThatThrownBy(() -> other.decode(token)).isInstanceOf(BadRequestException.class);
+
+        byte[] raw = Base64.getUrlDecoder().decode(token);
+        for (int i = 0; i < raw.length; i++) {
+            byte[] tampered = raw.clone();
+            tampered[i] ^= 0x01;
+            assertThatThrownBy(() -> codec.decode(encode(tampered)))
+                    .as("byte %d flipped", i)
+                    .isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    @Test
+    void rejectsTruncatedAndGarbageTokens() {
+        String token = codec.encode(Map.of(42L, 1, 43L, 2));
+
+        for (int length = 1; length < token.length(); length++) {
+            String truncated = token.substring(0, length);
+            assertThatThrownBy(() -> codec.decode(truncated))
+                    .as("first %d characters", length)
+                    .isInstanceOf(BadRequestException.class);
+        }
+        assertThatThrownBy(() -> codec.decode("not a token!")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> codec.decode(encode(new byte[64]))).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void enforcesTheItemLimitAndPositiveQuantities() {
+        assertThatThrownBy(() -> codec.encode(Map.of(1L, 1, 2L, 1, 3L, 1, 4L, 1)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> codec.encode(Map.of(1L, 0))).isInstanceOf(BadRequestException.class);
+
+        // Correctly signed, but holding more lines than this codec accepts
+        String large = new AnonymousCartCodec(SECRET, 10).encode(Map.of(1L, 1, 2L, 1, 3L, 1, 4L, 1));
+        assertThatThrownBy(() -> codec.decode(large)).isInstanceOf(BadRequestException.class);
+
+        // Correctly signed, with one line: product 5, quantity 0
+        assertThatThrownBy(() -> codec.decode(sign(new byte[]{1, 1, 5, 0})))
+                .isInstanceOf(BadRequestException.class);
+        // Quantity 2^31, one past Integer.MAX_VALUE
+        assertThatThrownBy(() -> codec.decode(sign(new byte[]{1, 1, 5, (byte) 0x80, (byte) 0x80, (byte) 0x80,
+                (byte) 0x80, 0x08}))).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void refusesAMissingOrShortSecret() {
+        assertThatThrownBy(() -> new AnonymousCartCodec("", 100)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new AnonymousCartCodec("change-me", 100)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static String sign(byte[] payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] signature = mac.doFinal(payload);
+        byte[] token = Arrays.copyOf(payload, payload.length + 16);
+        System.arraycopy(signature, 0, token, payload.length, 16);
+        return encode(token);
+    }
+
+    private static String encode(byte[] raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+}
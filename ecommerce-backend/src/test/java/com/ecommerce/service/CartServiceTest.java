@@ -0,0 +1,113 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.AddToCartRequest;
+import com.ecommerce.dto.CartItemDTO;
+import com.ecommerce.dto.CartResponse;
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.OrderDTO;
+import com.ecommerce.dto.OrderItemDTO;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class CartServiceTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void addsToAnAnonymousCartUpToTheAvailableStock() {
+        Product lamp = createProduct("Lamp", 5);
+
+        String token = cartService.addToAnonymousCart(null, lamp.getId(), 3);
+        token = cartService.addToAnonymousCart(token, lamp.getId(), 2);
+        String full = token;
+        assertThatThrownBy(() -> cartService.addToAnonymousCart(full, lamp.getId(), 1))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> cartService.addToAnonymousCart(full, lamp.getId(), Integer.MAX_VALUE))
+                .isInstanceOf(BadRequestException.class);
+
+        CartResponse cart = cartService.getAnonymousCart(token);
+        assertThat(cart.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getProductId()).isEqualTo(lamp.getId());
+            assertThat(item.getQuantity()).isEqualTo(5);
+            assertThat(item.getSubtotal()).isEqualTo(Money.of("50.00"));
+        });
+        assertThat(cart.getTotalItems()).isEqualTo(5);
+        assertThat(cart.getTotalAmount()).isEqualTo(Money.of("50.00"));
+    }
+
+    @Test
+    void mergingAddsToTheUsersCart() {
+        Product lamp = createProduct("Lamp", 5);
+        User user = createUser();
+        cartService.addToCart(new AddToCartRequest(user.getId(), lamp.getId(), 1));
+
+        CartResponse cart = cartService.mergeAnonymousCart(user.getId(),
+                cartService.addToAnonymousCart(null, lamp.getId(), 2));
+
+        assertThat(cart.getItems()).extracting(CartItemDTO::getQuantity).containsExactly(3);
+        String tooMany = cartService.addToAnonymousCart(null, lamp.getId(), 3);
+        assertThatThrownBy(() -> cartService.mergeAnonymousCart(user.getId(), tooMany))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void productsDeletedSinceTheyWereAddedAreLeftOutOfPricingAndCheckout() {
+        Product lamp = createProduct("Lamp", 5);
+        Product desk = createProduct("Desk", 5);
+        String token = cartService.addToAnonymousCart(null, lamp.getId(), 2);
+        token = cartService.addToAnonymousCart(token, desk.getId(), 1);
+        productRepository.deleteById(desk.getId());
+
+        assertThat(cartService.getAnonymousCart(token).getItems())
+                .extracting(CartItemDTO::getProductId)
+                .containsExactly(lamp.getId());
+
+        User user = createUser();
+        CreateOrderRequest request = new CreateOrderRequest(user.getId(), null);
+        request.setCartToken(token);
+        OrderDTO order = orderService.createOrder(request);
+
+        assertThat(order.getItems()).extracting(OrderItemDTO::getProductId).containsExactly(lamp.getId());
+        assertThat(order.getTotalAmount()).isEqualTo(Money.of("20.00"));
+        assertThat(productRepository.findById(lamp.getId()).orElseThrow().getStock()).isEqualTo(3);
+    }
+
+    private Product createProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(Money.of("10.00"));
+        product.setStock(stock);
+        return productRepository.save(product);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Anonymous Cart Buyer");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setAddress("1 Cart Street");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.service.CatalogResponseCache.CatalogResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = "catalog.response.min-refresh-interval-ms=0")
+@AutoConfigureMockMvc
+class CatalogResponseCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void servesCachedBytesWithETagsAndSeesCommittedChanges() throws Exception {
+        String category = "Catalog-" + UUID.randomUUID();
+        ProductDTO product = productService.createProduct(product("Lamp", category, 10));
+
+        MockHttpServletResponse first = fetch(category, null, null);
+        assertThat(first.getStatus()).isEqualTo(200);
+        List<Integer> stock = JsonPath.read(first.getContentAsString(), "$.data[*].stock");
+        assertThat(stock).containsExactly(10);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        assertThat(fetch(category, null, etag).getStatus()).isEqualTo(304);
+
+        MockHttpServletResponse gzipped = fetch(category, "gzip, deflate", null);
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(gunzip(gzipped.getContentAsByteArray())).isEqualTo(first.getContentAsString());
+
+        productService.createProduct(product("Desk", category, 4));
+        transactionTemplate.executeWithoutResult(status -> productService.updateStock(product.getId(), 3));
+
+        MockHttpServletResponse changed = fetch(category, null, etag);
+        assertThat(changed.getStatus()).isEqualTo(200);
+        List<String> names = JsonPath.read(changed.getContentAsString(), "$.data[*].name");
+        assertThat(names).containsExactly("Lamp", "Desk");
+        stock = JsonPath.read(changed.getContentAsString(), "$.data[*].stock");
+        assertThat(stock).containsExactly(7, 4);
+
+        List<String> all = JsonPath.read(mockMvc.perform(get("/api/products")).andReturn().getResponse()
+                .getContentAsString(), "$.data[?(@.category == '" + category + "')].name");
+        assertThat(all).containsExactly("Lamp", "Desk");
+    }
+
+    @Test
+    void refreshesAtMostOncePerInterval() throws Exception {
+        String category = "Catalog-" + UUID.randomUUID();
+        productService.createProduct(product("Lamp", category, 10));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CatalogResponseCache cache = new CatalogResponseCache(productService, objectMapper, registry, 300);
+
+        CatalogResponse first = cache.getProductsByCategory(category);
+        assertThat(first.size()).isEqualTo(1);
+
+        ProductDTO desk = productService.createProduct(product("Desk", category, 4));
+        cache.onProductChanged(ProductChangedEvent.of(desk.getId()));
+        assertThat(cache.getProductsByCategory(category)).isSameAs(first);
+
+        Thread.sleep(350);
+        CatalogResponse refreshed = cache.getProductsByCategory(category);
+        assertThat(refreshed.size()).isEqualTo(2);
+        assertThat(refreshed.etag()).isNotEqualTo(first.etag());
+        assertThat(cache.getProductsByCategory(category)).isSameAs(refreshed);
+        assertThat(registry.counter("catalog.responses", "result", "build").count()).isEqualTo(2);
+        assertThat(registry.counter("catalog.responses", "result", "hit").count()).isEqualTo(2);
+    }
+
+    private MockHttpServletResponse fetch(String category, String acceptEncoding, String ifNoneMatch) throws Exception {
+        var request = get("/api/products/category/{category}", category);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private static ProductDTO product(String name, String category, int stock) {
+        ProductDTO product = new ProductDTO();
+        product.setName(name);
+        product.setPrice(new BigDecimal("25.00"));
+        product.setStock(stock);
+        product.setCategory(category);
+        return product;
+    }
+
+    private static String gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CatalogChangesDTO;
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "catalog.version.flush-interval-ms=3600000")
+class CatalogVersionServiceTest {
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void returnsOnlyProductsChangedSinceAVersionAndTombstones() {
+        ProductDTO lamp = productService.createProduct(product("Versioned Lamp"));
+        ProductDTO desk = productService.createProduct(product("Versioned Desk"));
+        catalogVersionService.flush();
+        long start = catalogVersionService.getCurrentVersion();
+
+        CatalogChangesDTO full = productService.getCatalogChanges(null);
+        assertThat(full.getVersion()).isEqualTo(start);
+        assertThat(full.getProducts()).extracting(ProductDTO::getId).contains(lamp.getId(), desk.getId());
+        assertThat(full.getDeleted()).isEmpty();
+
+        // Nothing is visible before the batch is stamped
+        transactionTemplate.executeWithoutResult(status -> productService.updateStock(lamp.getId(), 2));
+        assertThat(productService.getCatalogChanges(start).getProducts()).isEmpty();
+
+        catalogVersionService.flush();
+        CatalogChangesDTO changes = productService.getCatalogChanges(start);
+        assertThat(changes.getVersion()).isEqualTo(start + 1);
+        assertThat(changes.getProducts()).extracting(ProductDTO::getId).containsExactly(lamp.getId());
+        assertThat(changes.getProducts().get(0).getStock()).isEqualTo(8);
+
+        // A product removed behind the service's back leaves a tombstone
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", desk.getId());
+        catalogVersionService.onProductChanged(new ProductChangedEvent(List.of(desk.getId())));
+        catalogVersionService.flush();
+        CatalogChangesDTO removed = productService.getCatalogChanges(start + 1);
+        assertThat(removed.getProducts()).isEmpty();
+        assertThat(removed.getDeleted()).containsExactly(desk.getId());
+        assertThat(productService.getCatalogChanges(removed.getVersion()).getDeleted()).isEmpty();
+
+        assertThatThrownBy(() -> productService.getCatalogChanges(removed.getVersion() + 1))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static ProductDTO product(String name) {
+        ProductDTO product = new ProductDTO();
+        product.setName(name);
+        product.setPrice(new BigDecimal("30.00"));
+        product.setStock(10);
+        product.setCategory("Versioned");
+        return product;
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.AddToCartRequest;
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.BucketStockView;
+import com.ecommerce.repository.InventoryBucketRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class FlashSaleInventoryServiceTest {
+
+    @Autowired
+    private FlashSaleInventoryService flashSaleInventoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryBucketRepository inventoryBucketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void deductionsLargerThanOneBucketDrainSeveral() {
+        Long productId = createProduct(10);
+        productService.enableFlashSale(productId, 4);
+        assertThat(inventoryBucketRepository.findBucketStock(productId))
+                .extracting(BucketStockView::getStock)
+                .containsExactly(3, 3, 2, 2);
+
+        assertThat(flashSaleInventoryService.deduct(productId, 4, 7)).isTrue();
+        assertThat(inventoryBucketRepository.sumStockByProductId(productId)).isEqualTo(3);
+        assertThat(flashSaleInventoryService.deduct(productId, 4, 3)).isTrue();
+        assertThat(inventoryBucketRepository.sumStockByProductId(productId)).isZero();
+        assertThat(flashSaleInventoryService.deduct(productId, 4, 1)).isFalse();
+    }
+
+    @Test
+    void enablingAndDisablingKeepsTheStock() {
+        Long productId = createProduct(10);
+
+        productService.enableFlashSale(productId, 4);
+        assertThat(productRepository.findById(productId).orElseThrow().getStock()).isZero();
+        assertThat(productService.getProductById(productId).getStock()).isEqualTo(10);
+
+        productService.updateStock(productId, 3);
+        productService.enableFlashSale(productId, 2);
+        assertThat(inventoryBucketRepository.findBucketStock(productId))
+                .extracting(BucketStockView::getStock)
+                .containsExactly(4, 3);
+
+        productService.disableFlashSale(productId);
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(product.isFlashSale()).isFalse();
+        assertThat(product.getStock()).isEqualTo(7);
+        assertThat(inventoryBucketRepository.findBucketStock(productId)).isEmpty();
+    }
+
+    @Test
+    void disablingWaitsForADeductionInFlight() throws Exception {
+        Long productId = createProduct(10);
+        productService.enableFlashSale(productId, 4);
+
+        CountDownLatch deducted = new CountDownLatch(1);
+        CompletableFuture<Boolean> checkout = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(status -> {
+                    boolean ok = flashSaleInventoryService.deduct(productId, 4, 2);
+                    deducted.countDown();
+                    // Still uncommitted while the flash sale is being switched off
+                    sleep(300);
+                    return ok;
+                }));
+        assertThat(deducted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        productService.disableFlashSale(productId);
+
+        assertThat(checkout.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(productRepository.findById(productId).orElseThrow().getStock())
+                .as("stock after the deduction, not before it")
+                .isEqualTo(8);
+    }
+
+    @Test
+    void cancellingAfterTheFlashSaleEndedPutsTheUnitsBackIntoProductStock() {
+        Long productId = createProduct(10);
+        productService.enableFlashSale(productId, 4);
+        Long orderId = placeOrder(productId, 3);
+
+        // The order and its product are loaded while the flash sale is still on
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.findWithDetailsById(orderId).orElseThrow();
+            CompletableFuture.runAsync(() -> productService.disableFlashSale(productId)).join();
+            orderService.cancelOrder(orderId);
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(productRepository.findById(productId).orElseThrow().getStock()).isEqualTo(7);
+
+        // The retry loads the product afresh and restores products.stock
+        orderService.cancelOrder(orderId);
+        assertThat(productRepository.findById(productId).orElseThrow().getStock()).isEqualTo(10);
+    }
+
+    private Long placeOrder(Long productId, int quantity) {
+        User user = new User();
+        user.setName("Flash Sale Buyer");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setAddress("1 Flash Lane");
+        user = userRepository.save(user);
+        cartService.addToCart(new AddToCartRequest(user.getId(), productId, quantity));
+        return orderService.createOrder(new CreateOrderRequest(user.getId(), null)).getId();
+    }
+
+    private Long createProduct(int stock) {
+        Product product = new Product();
+        product.setName("Flash Sale Product");
+        product.setPrice(Money.of("5.00"));
+        product.setStock(stock);
+        return productRepository.save(product).getId();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
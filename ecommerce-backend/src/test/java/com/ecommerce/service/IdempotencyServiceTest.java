@@ -0,0 +1,166 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.CreatePaymentRequest;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.IdempotencyRecordRepository;
+import com.ecommerce.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private OptimisticLockRetrier optimisticLockRetrier;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<ResponseEntity<ApiResponse<String>>>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(executor.submit(() -> idempotencyService.execute("test", key, request(1L), String.class,
+                    () -> {
+                        executions.incrementAndGet();
+                        await(release);
+                        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("created"));
+                    })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        int replayed = 0;
+        for (Future<ResponseEntity<ApiResponse<String>>> response : responses) {
+            ResponseEntity<ApiResponse<String>> entity = response.get(10, TimeUnit.SECONDS);
+            assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(entity.getBody().getData()).isEqualTo("created");
+            if (entity.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)) {
+                replayed++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(executions).hasValue(1);
+        assertThat(replayed).isEqualTo(7);
+    }
+
+    @Test
+    void fallsBackToTheStoredResponseAfterARestart() {
+        String key = UUID.randomUUID().toString();
+        idempotencyService.execute("test", key, request(2L), String.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("stored")));
+
+        IdempotencyService restarted = new IdempotencyService(repository, optimisticLockRetrier, objectMapper,
+                new SimpleMeterRegistry(), 24, 100, 1000);
+        ResponseEntity<ApiResponse<String>> replay = restarted.execute("test", key, request(2L), String.class,
+                () -> {
+                    throw new AssertionError("must not run again");
+                });
+
+        assertThat(replay.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(replay.getBody().getData()).isEqualTo("stored");
+        assertThat(replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void rejectsAKeyReusedForAnotherRequestAndReleasesFailedKeys() {
+        String key = UUID.randomUUID().toString();
+        assertThatThrownBy(() -> idempotencyService.execute("test", key, request(3L), String.class, () -> {
+            throw new BadRequestException("Cart is empty");
+        })).hasMessage("Cart is empty");
+        assertThat(repository.findById("test:" + key)).isEmpty();
+
+        idempotencyService.execute("test", key, request(3L), String.class,
+                () -> ResponseEntity.ok(ApiResponse.success("retried")));
+        assertThatThrownBy(() -> idempotencyService.execute("test", key, request(4L), String.class,
+                () -> ResponseEntity.ok(ApiResponse.success("other"))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("different request");
+    }
+
+    @Test
+    void storesTheResponseInTheActionsTransaction() {
+        String key = UUID.randomUUID().toString();
+        String email = key + "@example.com";
+
+        // The action commits nothing when its response cannot be stored
+        assertThatThrownBy(() -> idempotencyService.executeInTransaction("test", key, request(5L), Object.class,
+                () -> {
+                    userRepository.save(user(email));
+                    return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(new Object()));
+                })).isInstanceOf(IllegalStateException.class);
+        assertThat(userRepository.existsByEmail(email)).isFalse();
+        assertThat(repository.findById("test:" + key)).isEmpty();
+
+        idempotencyService.executeInTransaction("test", key, request(5L), String.class, () -> {
+            userRepository.save(user(email));
+            return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("committed"));
+        });
+        assertThat(userRepository.existsByEmail(email)).isTrue();
+        assertThat(repository.findById("test:" + key)).hasValueSatisfying(record ->
+                assertThat(record.isCompleted()).isTrue());
+
+        IdempotencyService restarted = new IdempotencyService(repository, optimisticLockRetrier, objectMapper,
+                new SimpleMeterRegistry(), 24, 100, 1000);
+        ResponseEntity<ApiResponse<String>> replay = restarted.executeInTransaction("test", key, request(5L),
+                String.class, () -> {
+                    throw new AssertionError("must not run again");
+                });
+        assertThat(replay.getBody().getData()).isEqualTo("committed");
+        assertThat(replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setName("Idempotent Buyer");
+        user.setEmail(email);
+        return user;
+    }
+
+    private static CreatePaymentRequest request(Long orderId) {
+        return new CreatePaymentRequest(orderId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.OrderDTO;
+import com.ecommerce.dto.OrderItemDTO;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class JdbcCheckoutServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcCheckoutService jdbcCheckoutService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void jdbcCheckoutMatchesJpaCheckout() {
+        Product headphones = createProduct("Headphones", "2999.00", 50);
+        Product tshirt = createProduct("T-Shirt", "499.50", 50);
+
+        User jpaUser = createUser();
+        addToCart(jpaUser, headphones, 2);
+        addToCart(jpaUser, tshirt, 3);
+
+        User jdbcUser = createUser();
+        addToCart(jdbcUser, headphones, 2);
+        addToCart(jdbcUser, tshirt, 3);
+
+        OrderDTO jpaOrder = orderService.createOrder(new CreateOrderRequest(jpaUser.getId(), "1 JPA Street"));
+        OrderDTO jdbcOrder = jdbcCheckoutService.createOrder(new CreateOrderRequest(jdbcUser.getId(), "1 JPA Street"));
+
+        assertThat(jdbcOrder.getUserId()).isEqualTo(jdbcUser.getId());
+        assertThat(jdbcOrder.getUserName()).isEqualTo(jpaOrder.getUserName());
+        assertThat(jdbcOrder.getStatus()).isEqualTo(jpaOrder.getStatus());
+        assertThat(jdbcOrder.getShippingAddress()).isEqualTo(jpaOrder.getShippingAddress());
+        assertThat(jdbcOrder.getTotalAmount()).isEqualByComparingTo(jpaOrder.getTotalAmount());
+        assertThat(jdbcOrder.getPayment()).isNull();
+        assertSameLines(jdbcOrder.getItems(), jpaOrder.getItems());
+
+        // What the JDBC path returned must be what was written
+        OrderDTO reloaded = transactionTemplate.execute(status -> orderService.getOrderById(jdbcOrder.getId()));
+        assertThat(reloaded.getTotalAmount()).isEqualByComparingTo(jdbcOrder.getTotalAmount());
+        assertThat(reloaded.getItems()).extracting(OrderItemDTO::getId)
+                .containsExactlyElementsOf(jdbcOrder.getItems().stream().map(OrderItemDTO::getId).toList());
+
+        assertThat(productRepository.findById(headphones.getId()).orElseThrow().getStock()).isEqualTo(46);
+        assertThat(productRepository.findById(tshirt.getId()).orElseThrow().getStock()).isEqualTo(44);
+        assertThat(cartItemRepository.findByUserId(jdbcUser.getId())).isEmpty();
+    }
+
+    @Test
+    void jdbcCheckoutRollsBackWhenStockRunsOut() {
+        Product plentiful = createProduct("Plentiful", "10.00", 10);
+        Product scarce = createProduct("Scarce", "10.00", 1);
+
+        User user = createUser();
+        addToCart(user, plentiful, 1);
+        CartItem scarceItem = addToCart(user, scarce, 1);
+        scarceItem.setQuantity(5);
+        cartItemRepository.save(scarceItem);
+
+        assertThatThrownBy(() -> jdbcCheckoutService.createOrder(new CreateOrderRequest(user.getId(), null)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Insufficient stock for product: Scarce");
+
+        assertThat(productRepository.findById(plentiful.getId()).orElseThrow().getStock()).isEqualTo(10);
+        assertThat(cartItemRepository.findByUserId(user.getId())).hasSize(2);
+    }
+
+    private void assertSameLines(List<OrderItemDTO> actual, List<OrderItemDTO> expected) {
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getId()).isNotNull();
+            assertThat(actual.get(i).getProductId()).isEqualTo(expected.get(i).getProductId());
+            assertThat(actual.get(i).getProductName()).isEqualTo(expected.get(i).getProductName());
+            assertThat(actual.get(i).getQuantity()).isEqualTo(expected.get(i).getQuantity());
+            assertThat(actual.get(i).getUnitPrice()).isEqualByComparingTo(expected.get(i).getUnitPrice());
+            assertThat(actual.get(i).getSubtotal()).isEqualByComparingTo(expected.get(i).getSubtotal());
+        }
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Checkout Tester");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setAddress("1 Test Road");
+        return userRepository.save(user);
+    }
+
+    private Product createProduct(String name, String price, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(Money.of(price));
+        product.setStock(stock);
+        product.setCategory("Test");
+        return productRepository.save(product);
+    }
+
+    private CartItem addToCart(User user, Product product, int quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setUser(user);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        return cartItemRepository.save(cartItem);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.exception.ConflictException;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "retry.optimistic.max-attempts=50")
+class OptimisticLockRetrierTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OptimisticLockRetrier optimisticLockRetrier;
+
+    @Test
+    void concurrentStockDeductionsAreNotLost() throws Exception {
+        Product product = new Product();
+        product.setName("Contended");
+        product.setPrice(Money.of("10.00"));
+        product.setStock(1000);
+        Long productId = productRepository.save(product).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(executor.submit(() -> productService.updateStock(productId, 1)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(productRepository.findById(productId).orElseThrow().getStock()).isEqualTo(800);
+        assertThat(optimisticLockRetrier.getStats())
+                .anySatisfy(stats -> {
+                    assertThat(stats.getMethod()).isEqualTo("ProductService.updateStock");
+                    assertThat(stats.getCalls()).isGreaterThanOrEqualTo(200);
+                    assertThat(stats.getExhausted()).isZero();
+                });
+    }
+
+    @Test
+    void staleAdminFormIsRejected() {
+        Product product = new Product();
+        product.setName("Edited");
+        product.setPrice(Money.of("10.00"));
+        product.setStock(10);
+        Long productId = productRepository.save(product).getId();
+
+        ProductDTO form = productService.getProductById(productId);
+        productService.updateStock(productId, 3);
+
+        form.setStock(50);
+        assertThatThrownBy(() -> productService.updateProduct(productId, form))
+                .isInstanceOf(ConflictException.class);
+        assertThat(productRepository.findById(productId).orElseThrow().getStock()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.StockAvailabilityDTO;
+import com.ecommerce.dto.StockAvailabilityResponse;
+import com.ecommerce.model.Money;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductServiceTest {
+
+    private static final long UNKNOWN_PRODUCT_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void reportsEveryRequestedProductAsAvailable() {
+        Product lamp = createProduct(5);
+        Product desk = createProduct(2);
+
+        StockAvailabilityResponse response = productService.checkAvailability(Map.of(lamp.getId(), 5, desk.getId(), 1));
+
+        assertThat(response.isAllAvailable()).isTrue();
+        assertThat(response.getItems()).hasSize(2).allSatisfy(item -> {
+            assertThat(item.isInStock()).isTrue();
+            assertThat(item.getShortfall()).isZero();
+            assertThat(item.getProductName()).isEqualTo("Availability Product");
+        });
+    }
+
+    @Test
+    void reportsShortfallsAndUnknownProductsInRequestOrder() {
+        Product lamp = createProduct(5);
+        Product desk = createProduct(2);
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        requested.put(lamp.getId(), 3);
+        requested.put(desk.getId(), 7);
+        requested.put(UNKNOWN_PRODUCT_ID, 1);
+
+        StockAvailabilityResponse response = productService.checkAvailability(requested);
+
+        assertThat(response.isAllAvailable()).isFalse();
+        assertThat(response.getItems()).extracting(StockAvailabilityDTO::getProductId)
+                .containsExactly(lamp.getId(), desk.getId(), UNKNOWN_PRODUCT_ID);
+        assertItem(response.getItems().get(0), 3, 5, 0, true);
+        assertItem(response.getItems().get(1), 7, 2, 5, false);
+        StockAvailabilityDTO unknown = response.getItems().get(2);
+        assertItem(unknown, 1, 0, 1, false);
+        assertThat(unknown.getProductName()).isNull();
+    }
+
+    @Test
+    void countsTheStockOfEveryFlashSaleBucket() {
+        Product flashSale = createProduct(10);
+        productService.enableFlashSale(flashSale.getId(), 4);
+
+        StockAvailabilityResponse enough = productService.checkAvailability(Map.of(flashSale.getId(), 10));
+        StockAvailabilityResponse tooMany = productService.checkAvailability(Map.of(flashSale.getId(), 11));
+
+        assertThat(enough.isAllAvailable()).isTrue();
+        assertItem(enough.getItems().get(0), 10, 10, 0, true);
+        assertThat(tooMany.isAllAvailable()).isFalse();
+        assertItem(tooMany.getItems().get(0), 11, 10, 1, false);
+    }
+
+    @Test
+    void anEmptyRequestIsAvailable() {
+        StockAvailabilityResponse response = productService.checkAvailability(Map.of());
+
+        assertThat(response.isAllAvailable()).isTrue();
+        assertThat(response.getItems()).isEmpty();
+    }
+
+    private static void assertItem(StockAvailabilityDTO item, int requested, int available, int shortfall,
+                                   boolean inStock) {
+        assertThat(item.getRequested()).as("requested").isEqualTo(requested);
+        assertThat(item.getAvailable()).as("available").isEqualTo(available);
+        assertThat(item.getShortfall()).as("shortfall").isEqualTo(shortfall);
+        assertThat(item.isInStock()).as("in stock").isEqualTo(inStock);
+    }
+
+    private Product createProduct(int stock) {
+        Product product = new Product();
+        product.setName("Availability Product");
+        product.setPrice(Money.of("25.00"));
+        product.setStock(stock);
+        product.setCategory("Availability");
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<Long, String> loads = new SingleFlight<>("test", meterRegistry);
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(() -> loads.load(7L, () -> {
+            loaderCalls.incrementAndGet();
+            await(release);
+            return "product-7";
+        }));
+        awaitWaiters(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("product-7");
+        }
+        assertThat(loaderCalls).hasValue(1);
+        assertThat(coalesced()).isEqualTo(CALLERS - 1);
+        assertThat(inFlight()).isZero();
+
+        // The result is not kept: the next call loads again
+        assertThat(loads.load(7L, () -> "reloaded")).isEqualTo("reloaded");
+    }
+
+    @Test
+    void failuresReachEveryWaiterAndAreNotRemembered() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(() -> loads.load(9L, () -> {
+            await(release);
+            throw new ResourceNotFoundException("Product", "id", 9L);
+        }));
+        awaitWaiters(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(ResourceNotFoundException.class);
+        }
+        assertThat(loads.load(9L, () -> "created")).isEqualTo("created");
+        assertThat(loads.load(10L, () -> "other key")).isEqualTo("other key");
+    }
+
+    private List<Future<String>> runConcurrently(Callable<String> call) {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private void awaitWaiters(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced() < waiters && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("singleflight.coalesced").tag("loader", "test").counter().count();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("singleflight.inflight").tag("loader", "test").gauge().value();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}